@@ -0,0 +1,304 @@
+package co.aikar.timings;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import org.jetbrains.annotations.NotNull;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import static co.aikar.util.JSONUtil.createObject;
+import static co.aikar.util.JSONUtil.pair;
+import static co.aikar.util.JSONUtil.toArray;
+
+/**
+ * Timings for work done off the main thread.
+ * <p>
+ * {@link TimingHandler} keeps a single stack for the main thread, so async work is measured
+ * here instead: every thread records into its own accumulator, which only the history
+ * snapshot ever reads, and the snapshot merges all of them into per section totals with a
+ * per thread breakdown. Executors registered here also report their queue depth and the
+ * time their threads spent running tasks.
+ * <p>
+ * Usage:
+ * <pre>
+ * long start = section.start();
+ * try {
+ *     ...
+ * } finally {
+ *     section.stop(start);
+ * }
+ * </pre>
+ */
+public final class ThreadTimings {
+    private static final Map<String, Section> SECTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, IntSupplier> EXECUTORS = new ConcurrentHashMap<>();
+    private static final List<ThreadRecord> RECORDS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadRecord> LOCAL = ThreadLocal.withInitial(ThreadRecord::new);
+    private static final AtomicInteger idPool = new AtomicInteger();
+
+    private static Map<String, Totals> period = Maps.newLinkedHashMap(); // merged since the last history, main thread only
+
+    private ThreadTimings() {}
+
+    /**
+     * Gets or creates the section with the given name
+     *
+     * @param name Name of the section
+     * @return Section
+     */
+    @NotNull
+    public static Section of(@NotNull String name) {
+        return SECTIONS.computeIfAbsent(name, Section::new);
+    }
+
+    /**
+     * Registers an executor, its tasks should be wrapped by {@link #wrap(Section, Runnable)}
+     * with the returned section so that their run time counts as busy time
+     *
+     * @param name Name of the executor
+     * @param queued Number of tasks waiting, must be safe to call from any thread
+     * @return Section measuring the tasks of the executor
+     */
+    @NotNull
+    public static Section executor(@NotNull String name, @NotNull IntSupplier queued) {
+        EXECUTORS.put(name, queued);
+        TimingsMetrics.gauge("executor." + name + ".queued", queued::getAsInt);
+        return of("Executor - " + name);
+    }
+
+    /**
+     * @param section Section to measure the task in
+     * @param run Task
+     * @return Task that records its run time into the section
+     */
+    @NotNull
+    public static Runnable wrap(@NotNull Section section, @NotNull Runnable run) {
+        return () -> {
+            long start = section.start();
+            try {
+                run.run();
+            } finally {
+                section.stop(start);
+            }
+        };
+    }
+
+    /**
+     * Threads that run main thread work in parallel with the main thread, such as worlds
+     * ticking on their own threads. Regular {@link Timing}s started on them are recorded
+     * here, per thread, instead of on the main thread's timing stack.
+     */
+    public interface ParallelThread {}
+
+    /**
+     * Starts a section on the calling thread's own stack, a section already running on this
+     * thread is only counted once, like a nested {@link TimingHandler}
+     */
+    static void startNested(@NotNull Section section) {
+        LOCAL.get().push(section);
+    }
+
+    /**
+     * Stops a section started by {@link #startNested(Section)}, sections above it that were
+     * never stopped are dropped
+     */
+    static void stopNested(@NotNull Section section) {
+        LOCAL.get().pop(section);
+    }
+
+    public static final class Section {
+        private final String name;
+        private final int id = idPool.getAndIncrement();
+
+        private Section(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return Start time to pass to {@link #stop(long)}, or 0 if timings are off
+         */
+        public long start() {
+            return Timings.timingsEnabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records the time since start into the current thread's accumulator
+         *
+         * @param start Value returned by {@link #start()}
+         */
+        public void stop(long start) {
+            if (start != 0) {
+                LOCAL.get().add(this.id, System.nanoTime() - start);
+            }
+        }
+
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    /**
+     * Counts of one thread, the lock is only contended while a snapshot drains it
+     */
+    private static final class ThreadRecord {
+        private final Thread thread = Thread.currentThread();
+        private final String threadName = this.thread.getName();
+        private long[] counts = new long[16];
+        private long[] totals = new long[16];
+        // nested sections of this thread, only touched by the thread itself
+        private Section[] stack = new Section[8];
+        private long[] starts = new long[8];
+        private int depth;
+
+        ThreadRecord() {
+            RECORDS.add(this);
+        }
+
+        synchronized void add(int id, long diff) {
+            if (id >= this.counts.length) {
+                int length = Math.max(id + 1, this.counts.length * 2);
+                this.counts = java.util.Arrays.copyOf(this.counts, length);
+                this.totals = java.util.Arrays.copyOf(this.totals, length);
+            }
+            ++this.counts[id];
+            this.totals[id] += diff;
+        }
+
+        void push(Section section) {
+            boolean nested = false;
+            for (int i = 0; i < this.depth; ++i) {
+                if (this.stack[i] == section) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (this.depth == this.stack.length) {
+                this.stack = java.util.Arrays.copyOf(this.stack, this.depth * 2);
+                this.starts = java.util.Arrays.copyOf(this.starts, this.depth * 2);
+            }
+            this.stack[this.depth] = section;
+            this.starts[this.depth] = nested ? 0 : System.nanoTime();
+            ++this.depth;
+        }
+
+        void pop(Section section) {
+            int index = this.depth - 1;
+            while (index >= 0 && this.stack[index] != section) {
+                --index;
+            }
+            if (index < 0) {
+                return; // started before timings were enabled
+            }
+
+            long start = this.starts[index];
+            for (int i = index; i < this.depth; ++i) {
+                this.stack[i] = null;
+            }
+            this.depth = index;
+            if (start != 0) {
+                this.add(section.id, System.nanoTime() - start);
+            }
+        }
+
+        synchronized void drainTo(Map<String, Totals> into, Section[] byId) {
+            for (int id = 0; id < this.counts.length && id < byId.length; ++id) {
+                if (this.counts[id] == 0 || byId[id] == null) {
+                    continue;
+                }
+                into.computeIfAbsent(byId[id].name, Totals::new).add(this.threadName, this.counts[id], this.totals[id]);
+                this.counts[id] = 0;
+                this.totals[id] = 0;
+            }
+        }
+
+        synchronized void clear() {
+            java.util.Arrays.fill(this.counts, 0);
+            java.util.Arrays.fill(this.totals, 0);
+        }
+    }
+
+    private static final class Totals {
+        private final String name;
+        private long count;
+        private long total;
+        private final Map<String, long[]> threads = Maps.newLinkedHashMap();
+
+        Totals(String name) {
+            this.name = name;
+        }
+
+        void add(String thread, long count, long total) {
+            this.count += count;
+            this.total += total;
+            long[] perThread = this.threads.computeIfAbsent(thread, key -> new long[2]);
+            perThread[0] += count;
+            perThread[1] += total;
+        }
+
+        List export() {
+            Map<String, Object> threads = createObject();
+            for (Map.Entry<String, long[]> entry : this.threads.entrySet()) {
+                threads.put(entry.getKey(), toArray(entry.getValue()[0], entry.getValue()[1]));
+            }
+            return toArray(this.name, this.count, this.total, threads);
+        }
+    }
+
+    private static Section[] sectionsById() {
+        Section[] byId = new Section[idPool.get()];
+        for (Section section : SECTIONS.values()) {
+            if (section.id < byId.length) {
+                byId[section.id] = section;
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Merges every thread's accumulator into the current history period and exports the
+     * period so far, called on the main thread when a history snapshot is taken
+     */
+    @NotNull
+    static Object snapshot() {
+        Section[] byId = sectionsById();
+        for (ThreadRecord record : RECORDS) {
+            record.drainTo(period, byId);
+            if (!record.thread.isAlive()) {
+                RECORDS.remove(record);
+            }
+        }
+
+        List<Object> sections = Lists.newArrayList();
+        for (Totals totals : period.values()) {
+            sections.add(totals.export());
+        }
+        Map<String, Object> executors = createObject();
+        for (Map.Entry<String, IntSupplier> entry : EXECUTORS.entrySet()) {
+            executors.put(entry.getKey(), entry.getValue().getAsInt());
+        }
+        return createObject(
+            pair("sections", sections),
+            pair("queued", executors)
+        );
+    }
+
+    /**
+     * Starts a new history period
+     *
+     * @param full Whether to also drop what threads recorded since the last snapshot
+     */
+    static void reset(boolean full) {
+        period = Maps.newLinkedHashMap();
+        if (full) {
+            for (ThreadRecord record : RECORDS) {
+                record.clear();
+            }
+        }
+    }
+}
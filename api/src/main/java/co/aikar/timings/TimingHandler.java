@@ -57,6 +57,7 @@ class TimingHandler implements Timing {
     private boolean added;
     private boolean timed;
     private boolean enabled;
+    private ThreadTimings.Section threadSection; // Akarin - on first use from a parallel thread
 
     TimingHandler(@Nonnull TimingIdentifier id) { // Akarin - javax.annotation
         this.identifier = id;
@@ -110,8 +111,29 @@ class TimingHandler implements Timing {
         return startTiming(false);
     }
 
+    // Akarin start - worlds ticking in parallel record per thread, the depth and stack here belong to the main thread
+    private boolean timeParallel(boolean start) {
+        if (!(Thread.currentThread() instanceof ThreadTimings.ParallelThread)) {
+            return false;
+        }
+        if (enabled) {
+            ThreadTimings.Section section = threadSection;
+            if (section == null) {
+                section = threadSection = ThreadTimings.of(identifier.name);
+            }
+            if (start) {
+                ThreadTimings.startNested(section);
+            } else {
+                ThreadTimings.stopNested(section);
+            }
+        }
+        return true;
+    }
+    // Akarin end
+
     @Override
     public Timing startTimingUnsafe() {
+        if (timeParallel(true)) return this; // Akarin
         if (enabled && ++timingDepth == 1) {
             ThreadAssertion.close();
             // Akarin end
@@ -123,6 +145,7 @@ class TimingHandler implements Timing {
     // Akarin start
     @Override
     public Timing startTiming(boolean assertThread) {
+        if (timeParallel(true)) return this; // Akarin
         if (enabled && (ThreadAssertion.is() || Bukkit.isPrimaryThread()) && ++timingDepth == 1) {
             start = System.nanoTime();
             TIMING_STACK.addLast(this);
@@ -134,6 +157,7 @@ class TimingHandler implements Timing {
 
     @Override
     public void stopTimingUnsafe() {
+        if (timeParallel(false)) return; // Akarin
         if (enabled && timingDepth > 0 && --timingDepth == 0 && start != 0) {
             TimingHandler last = TIMING_STACK.removeLast();
             if (last != this) {
@@ -149,6 +173,7 @@ class TimingHandler implements Timing {
     // Akarin end
 
     public void stopTiming() {
+        if (timeParallel(false)) return; // Akarin
         if (enabled && timingDepth > 0 && (ThreadAssertion.is() || Bukkit.isPrimaryThread()) && --timingDepth == 0 && start != 0) { // Akarin
             TimingHandler last;
             while ((last = TIMING_STACK.removeLast()) != this) {
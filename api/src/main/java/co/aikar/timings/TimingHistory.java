@@ -76,6 +76,7 @@ public class TimingHistory {
     final Set<Material> tileEntityTypeSet = Sets.newHashSet();
     final Set<EntityType> entityTypeSet = Sets.newHashSet();
     private final Map<Object, Object> worlds;
+    private final Object threads; // Akarin
 
     TimingHistory() {
         this.endTime = System.currentTimeMillis() / 1000;
@@ -98,6 +99,7 @@ public class TimingHistory {
         for (TimingHandler handler : TimingsManager.HANDLERS) {
             entries[i++] = new TimingHistoryEntry(handler);
         }
+        this.threads = ThreadTimings.snapshot(); // Akarin
 
         // Information about all loaded chunks/entities
         //noinspection unchecked
@@ -259,6 +261,7 @@ public class TimingHistory {
             pair("tk", totalTicks),
             pair("tm", totalTime),
             pair("w", worlds),
+            pair("at", threads), // Akarin - async sections
             pair("h", toArrayMapper(entries, new Function<TimingHistoryEntry, Object>() {
                 @Nullable
                 @Override
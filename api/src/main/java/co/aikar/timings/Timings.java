@@ -231,6 +231,38 @@ public final class Timings {
         TimingsManager.HISTORY.addAll(oldQueue);
     }
 
+    // Akarin start
+    /**
+     * Keeps the last minutes of Timing History in one minute frames, so that the window
+     * before a lag spike can still be dumped after the fact.
+     *
+     * Unlike {@link #setHistoryLength(int)} this is not capped, reports this long are meant
+     * to be written locally rather than uploaded.
+     *
+     * @param minutes Number of minutes to keep
+     */
+    public static void setRingBuffer(int minutes) {
+        historyInterval = 20 * 60;
+        historyLength = historyInterval * Math.max(1, minutes);
+        Queue<TimingHistory> oldQueue = TimingsManager.HISTORY;
+        TimingsManager.HISTORY = EvictingQueue.create(Math.max(1, minutes));
+        TimingsManager.HISTORY.addAll(oldQueue);
+    }
+
+    /**
+     * Writes the retained Timing History to the local timings directory on the next tick,
+     * without waiting for the report cool downs.
+     *
+     * @param sender The sender to send to, or null to use the ConsoleCommandSender
+     */
+    public static void generateDump(@Nullable CommandSender sender) {
+        if (sender == null) {
+            sender = Bukkit.getConsoleSender();
+        }
+        TimingsExport.requestingDump.add(sender);
+    }
+    // Akarin end
+
     /**
      * Resets all Timing Data
      */
@@ -37,13 +37,13 @@ import org.jetbrains.annotations.Nullable;
 
 
 public class TimingsCommand extends BukkitCommand {
-    private static final List<String> TIMINGS_SUBCOMMANDS = ImmutableList.of("report", "reset", "on", "off", "paste", "verbon", "verboff");
+    private static final List<String> TIMINGS_SUBCOMMANDS = ImmutableList.of("report", "reset", "on", "off", "paste", "verbon", "verboff", "dump"); // Akarin - dump
     private long lastResetAttempt = 0;
 
     public TimingsCommand(@NotNull String name) {
         super(name);
         this.description = "Manages Spigot Timings data to see performance of the server.";
-        this.usageMessage = "/timings <reset|report|on|off|verbon|verboff>";
+        this.usageMessage = "/timings <reset|report|dump|on|off|verbon|verboff>"; // Akarin - dump
         this.setPermission("bukkit.command.timings");
     }
 
@@ -100,6 +100,10 @@ public class TimingsCommand extends BukkitCommand {
                 "separate".equalsIgnoreCase(arg)
             ) {
             Timings.generateReport(sender);
+        // Akarin start
+        } else if ("dump".equalsIgnoreCase(arg)) {
+            Timings.generateDump(sender);
+        // Akarin end
         } else {
             sender.sendMessage(ChatColor.RED + "Usage: " + usageMessage);
         }
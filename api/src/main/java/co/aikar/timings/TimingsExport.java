@@ -36,6 +36,8 @@ import org.bukkit.entity.EntityType;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 
+import io.akarin.server.core.AkarinGlobalConfig; // Akarin
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -65,20 +67,32 @@ class TimingsExport extends Thread {
     private final TimingsReportListener listeners;
     private final Map out;
     private final TimingHistory[] history;
+    private final boolean local; // Akarin
     private static long lastReport = 0;
     final static List<CommandSender> requestingReport = Lists.newArrayList();
+    final static List<CommandSender> requestingDump = Lists.newArrayList(); // Akarin
 
-    private TimingsExport(TimingsReportListener listeners, Map out, TimingHistory[] history) {
+    private TimingsExport(TimingsReportListener listeners, Map out, TimingHistory[] history, boolean local) { // Akarin
         super("Timings paste thread");
         this.listeners = listeners;
         this.out = out;
         this.history = history;
+        this.local = local; // Akarin
     }
 
     /**
      * Checks if any pending reports are being requested, and builds one if needed.
      */
     static void reportTimings() {
+        // Akarin start - dump the retained history right away, without the report cool downs
+        if (!requestingDump.isEmpty()) {
+            TimingsReportListener listeners = new TimingsReportListener(requestingDump);
+            listeners.addConsoleIfNeeded();
+            requestingDump.clear();
+            listeners.sendMessage(ChatColor.GREEN + "Dumping Timings History...");
+            export(listeners, true);
+        }
+        // Akarin end
         if (requestingReport.isEmpty()) {
             return;
         }
@@ -101,6 +115,12 @@ class TimingsExport extends Thread {
         }
         listeners.sendMessage(ChatColor.GREEN + "Preparing Timings Report...");
         lastReport = now;
+        // Akarin start
+        export(listeners, AkarinGlobalConfig.timingsLocalExport);
+    }
+
+    private static void export(TimingsReportListener listeners, boolean local) {
+        // Akarin end
         Map parent = createObject(
             // Get some basic system details about the server
             pair("version", Bukkit.getVersion()),
@@ -209,7 +229,9 @@ class TimingsExport extends Thread {
             pair("paper", mapAsJSON(Bukkit.spigot().getPaperConfig(), null))
         ));
 
-        new TimingsExport(listeners, parent, history).start();
+        parent.put("metrics", TimingsMetrics.export()); // Akarin
+
+        new TimingsExport(listeners, parent, history, local).start(); // Akarin
     }
 
     static long getCost() {
@@ -279,6 +301,21 @@ class TimingsExport extends Thread {
     public void run() {
         out.put("data", toArrayMapper(history, TimingHistory::export));
 
+        // Akarin start
+        if (local) {
+            String path = null;
+            try {
+                path = TimingsLocalExport.write(out).getAbsolutePath();
+                listeners.sendMessage(ChatColor.GREEN + "View Timings Report: " + path);
+            } catch (IOException ex) {
+                listeners.sendMessage(ChatColor.RED + "Error writing timings, check your logs for more information");
+                Bukkit.getLogger().log(Level.SEVERE, "Could not write timings", ex);
+            } finally {
+                this.listeners.done(path);
+            }
+            return;
+        }
+        // Akarin end
 
         String response = null;
         String timingsURL = null;
@@ -0,0 +1,99 @@
+package co.aikar.timings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.json.simple.JSONValue;
+
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Writes timings reports under the server directory instead of uploading them, for hosts
+ * that cannot reach the timings site. Every report is written twice, as the raw JSON the
+ * site would receive and as a self contained HTML page summarizing it.
+ */
+final class TimingsLocalExport {
+    private static final String VIEWER_HEAD =
+        "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Timings Report</title>\n" +
+        "<style>\n" +
+        "body { font-family: sans-serif; margin: 2em; background: #fafafa; color: #222; }\n" +
+        "table { border-collapse: collapse; margin-bottom: 2em; }\n" +
+        "th, td { padding: 2px 10px; border-bottom: 1px solid #ddd; text-align: right; }\n" +
+        "th:first-child, td:first-child { text-align: left; }\n" +
+        "tr.lag td { color: #b00; }\n" +
+        "</style>\n</head>\n<body>\n<h1>Timings Report</h1>\n<div id=\"summary\"></div>\n" +
+        "<h2>Main thread</h2>\n<table id=\"handlers\"></table>\n" +
+        "<h2>Async threads</h2>\n<table id=\"async\"></table>\n" +
+        "<h2>Metrics</h2>\n<table id=\"metrics\"></table>\n" +
+        "<script>\nvar report = ";
+    private static final String VIEWER_TAIL = ";\n" +
+        "function row(table, cells, cls) {\n" +
+        "  var tr = document.createElement('tr'); if (cls) tr.className = cls;\n" +
+        "  cells.forEach(function (c) { var td = document.createElement(table.rows.length ? 'td' : 'th'); td.textContent = c; tr.appendChild(td); });\n" +
+        "  table.appendChild(tr);\n" +
+        "}\n" +
+        "function ms(ns) { return (ns / 1e6).toFixed(2); }\n" +
+        "var ticks = 0, time = 0, handlers = {}, async = {};\n" +
+        "report.data.forEach(function (history) {\n" +
+        "  ticks += history.tk; time += history.tm;\n" +
+        "  (history.h || []).forEach(function (entry) {\n" +
+        "    if (!entry) return;\n" +
+        "    var h = handlers[entry[0]] || (handlers[entry[0]] = { count: 0, total: 0, lagCount: 0, lagTotal: 0 });\n" +
+        "    h.count += entry[1]; h.total += entry[2];\n" +
+        "    if (typeof entry[3] === 'number') { h.lagCount += entry[3]; h.lagTotal += entry[4]; }\n" +
+        "  });\n" +
+        "  ((history.at || {}).sections || []).forEach(function (section) {\n" +
+        "    var a = async[section[0]] || (async[section[0]] = { count: 0, total: 0 });\n" +
+        "    a.count += section[1]; a.total += section[2];\n" +
+        "  });\n" +
+        "});\n" +
+        "document.getElementById('summary').textContent = report.version + ' - ' + report.data.length + ' history frames, ' + ticks + ' ticks, ' + ms(time) + ' ms total';\n" +
+        "var names = report.idmap.handlers, groups = report.idmap.groups;\n" +
+        "var table = document.getElementById('handlers');\n" +
+        "row(table, ['Name', 'Count', 'Total ms', 'ms/tick', '% of tick', 'Lag count', 'Lag ms']);\n" +
+        "Object.keys(handlers).sort(function (a, b) { return handlers[b].total - handlers[a].total; }).forEach(function (id) {\n" +
+        "  var h = handlers[id], name = names[id] ? groups[names[id][0]] + ' - ' + names[id][1] : '#' + id;\n" +
+        "  row(table, [name, h.count, ms(h.total), ms(h.total / Math.max(1, ticks)), (h.total * 100 / Math.max(1, time)).toFixed(2), h.lagCount, ms(h.lagTotal)], h.lagCount ? 'lag' : null);\n" +
+        "});\n" +
+        "table = document.getElementById('async');\n" +
+        "row(table, ['Section', 'Count', 'Total ms', 'Avg ms']);\n" +
+        "Object.keys(async).sort(function (a, b) { return async[b].total - async[a].total; }).forEach(function (name) {\n" +
+        "  var a = async[name]; row(table, [name, a.count, ms(a.total), ms(a.total / Math.max(1, a.count))]);\n" +
+        "});\n" +
+        "table = document.getElementById('metrics');\n" +
+        "row(table, ['Name', 'Value']);\n" +
+        "['counters', 'gauges'].forEach(function (kind) {\n" +
+        "  var values = (report.metrics || {})[kind] || {};\n" +
+        "  Object.keys(values).forEach(function (name) { row(table, [name, values[name]]); });\n" +
+        "});\n" +
+        "</script>\n</body>\n</html>\n";
+
+    private TimingsLocalExport() {}
+
+    /**
+     * @param out Complete report, as it would be uploaded
+     * @return The HTML page written
+     */
+    @NotNull
+    static File write(@NotNull Map out) throws IOException {
+        File directory = new File(AkarinGlobalConfig.timingsExportDirectory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        String name = "timings-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+        String json = JSONValue.toJSONString(out);
+        Files.write(new File(directory, name + ".json").toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        File viewer = new File(directory, name + ".html");
+        // keep the embedded data from closing the script tag
+        String html = VIEWER_HEAD + json.replace("</", "<\\/") + VIEWER_TAIL;
+        Files.write(viewer.toPath(), html.getBytes(StandardCharsets.UTF_8));
+        return viewer;
+    }
+}
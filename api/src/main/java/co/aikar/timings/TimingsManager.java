@@ -112,6 +112,8 @@ public final class TimingsManager {
             }
             Bukkit.getLogger().log(Level.INFO, "Timings Reset");
             HISTORY.clear();
+            TimingsMetrics.reset(); // Akarin
+            ThreadTimings.reset(true); // Akarin
             needsFullReset = false;
             needsRecheckEnabled = false;
             timingStart = System.currentTimeMillis();
@@ -121,6 +123,7 @@ public final class TimingsManager {
             for (TimingHandler timings : HANDLERS) {
                 timings.reset(false);
             }
+            ThreadTimings.reset(false); // Akarin
         }
 
         HANDLERS.clear();
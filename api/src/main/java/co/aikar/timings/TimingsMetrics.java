@@ -0,0 +1,66 @@
+package co.aikar.timings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.jetbrains.annotations.NotNull;
+
+import static co.aikar.util.JSONUtil.createObject;
+import static co.aikar.util.JSONUtil.pair;
+
+/**
+ * Named counters and gauges reported alongside timings, for numbers that are not
+ * durations (bytes saved, queue depth, hit rates...).
+ * <p>
+ * Counters are cleared on a full timings reset, gauges are sampled at export.
+ */
+public final class TimingsMetrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+
+    private TimingsMetrics() {}
+
+    /**
+     * Gets or creates the counter with the given name, safe to increment from any thread
+     *
+     * @param name Dotted name of the counter
+     * @return Counter
+     */
+    @NotNull
+    public static LongAdder counter(@NotNull String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Registers a value to be sampled whenever metrics are exported
+     *
+     * @param name Dotted name of the gauge
+     * @param supplier Value source, must be safe to call from any thread
+     */
+    public static void gauge(@NotNull String name, @NotNull LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    static void reset() {
+        for (LongAdder counter : COUNTERS.values()) {
+            counter.reset();
+        }
+    }
+
+    @NotNull
+    static Map export() {
+        Map counters = createObject();
+        for (Map.Entry<String, LongAdder> entry : COUNTERS.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue().sum());
+        }
+        Map gauges = createObject();
+        for (Map.Entry<String, LongSupplier> entry : GAUGES.entrySet()) {
+            gauges.put(entry.getKey(), entry.getValue().getAsLong());
+        }
+        return createObject(
+            pair("counters", counters),
+            pair("gauges", gauges)
+        );
+    }
+}
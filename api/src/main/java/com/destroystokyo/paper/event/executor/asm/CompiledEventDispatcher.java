@@ -0,0 +1,203 @@
+package com.destroystokyo.paper.event.executor.asm;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+import org.objectweb.asm.commons.Method;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Calls every listener of a baked {@link org.bukkit.event.HandlerList} in priority order.
+ * <p>
+ * Each handler list gets a class of its own with one call site per listener, so the JIT
+ * sees a single executor at each of them instead of every executor of the server at the
+ * one call site of the loop in {@link org.bukkit.plugin.SimplePluginManager#callEvent(Event)}.
+ * The enabled check of the plugin and the cancelled check of listeners ignoring cancelled
+ * events are part of the generated code, plain {@link RegisteredListener}s are called
+ * through their executor directly, subclasses through {@link RegisteredListener#callEvent(Event)}.
+ * <p>
+ * Generated classes only depend on how many listeners there are and how each of them is
+ * called, a handler list reuses them when it is baked again with the same layout.
+ */
+public abstract class CompiledEventDispatcher {
+    /**
+     * Each listener takes up to 76 bytes of bytecode in the dispatch method, HotSpot does not
+     * compile methods larger than HugeMethodLimit (8000 bytes) and would interpret it instead
+     */
+    private static final int MAX_LISTENERS = 100;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+    private static final Type DISPATCHER = Type.getType(CompiledEventDispatcher.class);
+    private static final Type EXCEPTION_HANDLER = Type.getType(ExceptionHandler.class);
+    private static final Type REGISTERED_LISTENER = Type.getType(RegisteredListener.class);
+    private static final Type EVENT_EXECUTOR = Type.getType(EventExecutor.class);
+    private static final Type LISTENER = Type.getType(Listener.class);
+    private static final Type PLUGIN = Type.getType(Plugin.class);
+    private static final Type EVENT = Type.getType(Event.class);
+    private static final Type CANCELLABLE = Type.getType(Cancellable.class);
+    private static final Type THROWABLE = Type.getType(Throwable.class);
+    private static final Method CONSTRUCTOR = new Method("<init>", Type.VOID_TYPE, new Type[] {Type.getType(RegisteredListener[].class)});
+    private static final Method DISPATCH = new Method("dispatch", Type.VOID_TYPE, new Type[] {EVENT, EXCEPTION_HANDLER});
+    private static final Method HANDLE = new Method("handle", Type.VOID_TYPE, new Type[] {REGISTERED_LISTENER, EVENT, THROWABLE});
+    private static final Method IS_ENABLED = new Method("isEnabled", Type.BOOLEAN_TYPE, new Type[0]);
+    private static final Method IS_CANCELLED = new Method("isCancelled", Type.BOOLEAN_TYPE, new Type[0]);
+    private static final Method EXECUTE = new Method("execute", Type.VOID_TYPE, new Type[] {LISTENER, EVENT});
+    private static final Method CALL_EVENT = new Method("callEvent", Type.VOID_TYPE, new Type[] {EVENT});
+
+    /**
+     * Receives what listeners throw, the generated code catches it around every listener
+     */
+    public interface ExceptionHandler {
+        public void handle(@NotNull RegisteredListener registration, @NotNull Event event, @NotNull Throwable ex);
+    }
+
+    protected final RegisteredListener[] registrations;
+    protected final EventExecutor[] executors;
+    protected final Listener[] listeners;
+    protected final Plugin[] plugins;
+
+    protected CompiledEventDispatcher(@NotNull RegisteredListener[] registrations) {
+        this.registrations = registrations;
+        this.executors = new EventExecutor[registrations.length];
+        this.listeners = new Listener[registrations.length];
+        this.plugins = new Plugin[registrations.length];
+        for (int i = 0; i < registrations.length; ++i) {
+            this.executors[i] = registrations[i].getExecutor();
+            this.listeners[i] = registrations[i].getListener();
+            this.plugins[i] = registrations[i].getPlugin();
+        }
+    }
+
+    /**
+     * Calls every listener that would be called by iterating the registrations
+     *
+     * @param event Event to call
+     * @param handler Handler for anything a listener throws
+     */
+    public abstract void dispatch(@NotNull Event event, @NotNull ExceptionHandler handler);
+
+    /**
+     * @param registrations Baked listeners, in priority order
+     * @param classes Classes generated for the handler list before, by layout
+     * @return Dispatcher calling the listeners, null if they should be iterated instead
+     */
+    @Nullable
+    public static CompiledEventDispatcher compile(@NotNull RegisteredListener[] registrations, @NotNull Map<String, Class<? extends CompiledEventDispatcher>> classes) {
+        if (registrations.length > MAX_LISTENERS) {
+            return null;
+        }
+
+        boolean[] direct = new boolean[registrations.length];
+        boolean[] ignoreCancelled = new boolean[registrations.length];
+        StringBuilder layout = new StringBuilder(registrations.length);
+        for (int i = 0; i < registrations.length; ++i) {
+            direct[i] = registrations[i].getClass() == RegisteredListener.class;
+            ignoreCancelled[i] = registrations[i].isIgnoringCancelled();
+            char c = direct[i] ? 'e' : 'c';
+            layout.append(ignoreCancelled[i] ? Character.toUpperCase(c) : c);
+        }
+
+        try {
+            Class<? extends CompiledEventDispatcher> dispatcherClass = classes.computeIfAbsent(layout.toString(), key -> {
+                String name = "com.destroystokyo.paper.event.executor.asm.generated.GeneratedEventDispatcher" + NEXT_ID.getAndIncrement();
+                byte[] classData = generate(name, direct, ignoreCancelled);
+                return ClassDefiner.getInstance().defineClass(CompiledEventDispatcher.class.getClassLoader(), name, classData).asSubclass(CompiledEventDispatcher.class);
+            });
+            return dispatcherClass.getConstructor(RegisteredListener[].class).newInstance((Object) registrations);
+        } catch (Throwable ex) {
+            Bukkit.getLogger().log(Level.WARNING, "Unable to compile event dispatcher, listeners are iterated instead", ex);
+            return null;
+        }
+    }
+
+    @NotNull
+    private static byte[] generate(@NotNull String name, @NotNull boolean[] direct, @NotNull boolean[] ignoreCancelled) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name.replace('.', '/'), null, DISPATCHER.getInternalName(), null);
+
+        // Generate constructor
+        GeneratorAdapter methodGenerator = new GeneratorAdapter(ACC_PUBLIC, CONSTRUCTOR, null, null, writer);
+        methodGenerator.loadThis();
+        methodGenerator.loadArg(0);
+        methodGenerator.invokeConstructor(DISPATCHER, CONSTRUCTOR); // Invoke the super class constructor
+        methodGenerator.returnValue();
+        methodGenerator.endMethod();
+
+        // Generate the dispatch method, one guarded call per listener
+        methodGenerator = new GeneratorAdapter(ACC_PUBLIC, DISPATCH, null, null, writer);
+        int cancellable = methodGenerator.newLocal(Type.BOOLEAN_TYPE);
+        int caught = methodGenerator.newLocal(THROWABLE);
+        methodGenerator.loadArg(0);
+        methodGenerator.instanceOf(CANCELLABLE);
+        methodGenerator.storeLocal(cancellable);
+
+        for (int i = 0; i < direct.length; ++i) {
+            Label next = methodGenerator.newLabel();
+            Label start = methodGenerator.mark();
+
+            loadElement(methodGenerator, "plugins", PLUGIN, i);
+            methodGenerator.invokeInterface(PLUGIN, IS_ENABLED);
+            methodGenerator.ifZCmp(GeneratorAdapter.EQ, next);
+
+            if (ignoreCancelled[i]) {
+                Label call = methodGenerator.newLabel();
+                methodGenerator.loadLocal(cancellable);
+                methodGenerator.ifZCmp(GeneratorAdapter.EQ, call);
+                methodGenerator.loadArg(0);
+                methodGenerator.checkCast(CANCELLABLE);
+                methodGenerator.invokeInterface(CANCELLABLE, IS_CANCELLED);
+                methodGenerator.ifZCmp(GeneratorAdapter.NE, next);
+                methodGenerator.mark(call);
+            }
+
+            if (direct[i]) {
+                loadElement(methodGenerator, "executors", EVENT_EXECUTOR, i);
+                loadElement(methodGenerator, "listeners", LISTENER, i);
+                methodGenerator.loadArg(0);
+                methodGenerator.invokeInterface(EVENT_EXECUTOR, EXECUTE);
+            } else {
+                loadElement(methodGenerator, "registrations", REGISTERED_LISTENER, i);
+                methodGenerator.loadArg(0);
+                methodGenerator.invokeVirtual(REGISTERED_LISTENER, CALL_EVENT);
+            }
+            Label end = methodGenerator.mark();
+            methodGenerator.goTo(next);
+
+            methodGenerator.catchException(start, end, THROWABLE);
+            methodGenerator.storeLocal(caught);
+            methodGenerator.loadArg(1);
+            loadElement(methodGenerator, "registrations", REGISTERED_LISTENER, i);
+            methodGenerator.loadArg(0);
+            methodGenerator.loadLocal(caught);
+            methodGenerator.invokeInterface(EXCEPTION_HANDLER, HANDLE);
+
+            methodGenerator.mark(next);
+        }
+        methodGenerator.returnValue();
+        methodGenerator.endMethod();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void loadElement(@NotNull GeneratorAdapter methodGenerator, @NotNull String field, @NotNull Type element, int index) {
+        methodGenerator.loadThis();
+        methodGenerator.getField(DISPATCHER, field, Type.getType("[" + element.getDescriptor()));
+        methodGenerator.push(index);
+        methodGenerator.arrayLoad(element);
+    }
+}
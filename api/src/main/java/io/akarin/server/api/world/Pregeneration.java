@@ -0,0 +1,68 @@
+package io.akarin.server.api.world;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the pre-generation of a square of chunks of a world.
+ * <p>
+ * Chunks are generated off the main thread region by region, starting at the centre, and
+ * written straight to the region files without being loaded into the world. Chunks that
+ * already exist are skipped. Progress is saved in the world folder, a pre-generation that
+ * did not complete resumes when the world is loaded again.
+ */
+public interface Pregeneration {
+
+    @NotNull
+    public World getWorld();
+
+    /**
+     * @return X coordinate of the chunk at the centre
+     */
+    public int getCenterX();
+
+    /**
+     * @return Z coordinate of the chunk at the centre
+     */
+    public int getCenterZ();
+
+    /**
+     * @return Radius of the square in chunks
+     */
+    public int getRadius();
+
+    /**
+     * @return Number of chunks in the square
+     */
+    public long getTotalChunks();
+
+    /**
+     * @return Number of chunks generated or skipped so far, including previous runs
+     */
+    public long getProcessedChunks();
+
+    /**
+     * @return Chunks processed per second since this run started
+     */
+    public double getChunksPerSecond();
+
+    /**
+     * @return Estimated seconds until all chunks are processed, -1 if not known yet
+     */
+    public long getEstimatedSecondsLeft();
+
+    /**
+     * @return Whether chunks are still being generated
+     */
+    public boolean isRunning();
+
+    /**
+     * @return Whether every chunk of the square was processed
+     */
+    public boolean isComplete();
+
+    /**
+     * Stops the pre-generation and discards its saved progress
+     */
+    public void cancel();
+}
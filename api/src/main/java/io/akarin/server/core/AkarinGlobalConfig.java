@@ -181,8 +181,12 @@ public class AkarinGlobalConfig {
     }
     
     public static boolean enableAsyncLighting = true;
+    public static int lightingThreads = 2;
+    public static int lightingMaxQueuedUpdates = 65536;
     private static void enableAsyncLighting() {
         enableAsyncLighting = getBoolean("core.async-lighting.enable", enableAsyncLighting);
+        lightingThreads = Math.max(1, getInt("core.async-lighting.threads", lightingThreads));
+        lightingMaxQueuedUpdates = getInt("core.async-lighting.max-queued-updates", lightingMaxQueuedUpdates);
     }
     
     public static String yggdrasilServerURL = "https://api.mojang.com/";
@@ -214,4 +218,108 @@ public class AkarinGlobalConfig {
     private static void enableModernUserCaches() {
         userCacheExpireDays = getSeconds(getString("core.user-cache-expire-time", "30d"));
     }
+    
+    public static boolean spatialEntityTracker = false;
+    private static void spatialEntityTracker() {
+        spatialEntityTracker = getBoolean("core.entity-tracker.spatial-grid", spatialEntityTracker);
+    }
+    
+    public static boolean sharedBroadcastPackets = false;
+    private static void sharedBroadcastPackets() {
+        sharedBroadcastPackets = getBoolean("core.network.shared-broadcast-packets", sharedBroadcastPackets);
+    }
+    
+    public static boolean flushConsolidation = false;
+    public static int flushConsolidationMaxPackets = 512;
+    public static int flushConsolidationMaxBytes = 65536;
+    private static void flushConsolidation() {
+        flushConsolidation = getBoolean("core.network.flush-consolidation.enable", flushConsolidation);
+        flushConsolidationMaxPackets = getInt("core.network.flush-consolidation.max-queued-packets", flushConsolidationMaxPackets);
+        flushConsolidationMaxBytes = getInt("core.network.flush-consolidation.max-pending-bytes", flushConsolidationMaxBytes);
+    }
+    
+    public static boolean chunkPacketCache = false;
+    public static int chunkPacketCacheSize = 256;
+    private static void chunkPacketCache() {
+        chunkPacketCache = getBoolean("core.chunk-packet-cache.enable", chunkPacketCache);
+        chunkPacketCacheSize = getInt("core.chunk-packet-cache.max-packets", chunkPacketCacheSize);
+    }
+    
+    public static boolean concurrentRegionIO = false;
+    private static void concurrentRegionIO() {
+        concurrentRegionIO = getBoolean("core.region-file.concurrent-io", concurrentRegionIO);
+    }
+    
+    public static boolean parallelWorldTicking = false;
+    public static int parallelWorldTickingThreads = 4;
+    private static void parallelWorldTicking() {
+        parallelWorldTicking = getBoolean("core.parallel-world-ticking.enable", parallelWorldTicking);
+        parallelWorldTickingThreads = Math.max(1, getInt("core.parallel-world-ticking.threads", parallelWorldTickingThreads));
+    }
+    
+    public static boolean entityListTombstones = false;
+    private static void entityListTombstones() {
+        entityListTombstones = getBoolean("core.entity-list.tombstones", entityListTombstones);
+    }
+    
+    public static boolean inboundPacketQueues = false;
+    public static boolean inboundPacketCoalescing = false;
+    private static void inboundPacketQueues() {
+        inboundPacketQueues = getBoolean("core.network.inbound-queue.enable", inboundPacketQueues);
+        inboundPacketCoalescing = getBoolean("core.network.inbound-queue.coalesce-movement", inboundPacketCoalescing);
+    }
+    
+    public static boolean hopperCaching = false;
+    private static void hopperCaching() {
+        hopperCaching = getBoolean("core.hopper.cache-targets", hopperCaching);
+    }
+    
+    public static boolean recipeIndex = false;
+    private static void recipeIndex() {
+        recipeIndex = getBoolean("core.crafting.recipe-index", recipeIndex);
+    }
+    
+    public static boolean sharedNBTKeys = false;
+    private static void sharedNBTKeys() {
+        sharedNBTKeys = getBoolean("core.nbt.shared-keys", sharedNBTKeys);
+    }
+    
+    public static boolean streamingChunkReader = false;
+    private static void streamingChunkReader() {
+        streamingChunkReader = getBoolean("core.nbt.streaming-chunk-reader", streamingChunkReader);
+    }
+    
+    public static boolean activationRangeDeduplicate = false;
+    private static void activationRangeDeduplicate() {
+        activationRangeDeduplicate = getBoolean("core.activation-range.deduplicate", activationRangeDeduplicate);
+    }
+    
+    public static boolean timingsLocalExport = false;
+    public static String timingsExportDirectory = "timings";
+    public static int timingsRingBufferMinutes = 0;
+    private static void timingsLocalExport() {
+        timingsLocalExport = getBoolean("core.timings.local-export.enable", timingsLocalExport);
+        timingsExportDirectory = getString("core.timings.local-export.directory", timingsExportDirectory);
+        timingsRingBufferMinutes = getInt("core.timings.ring-buffer-minutes", timingsRingBufferMinutes);
+    }
+    
+    public static boolean asyncPlayerDataSaving = false;
+    private static void asyncPlayerDataSaving() {
+        asyncPlayerDataSaving = getBoolean("core.player-data.async-save", asyncPlayerDataSaving);
+    }
+    
+    public static int worldGenerationThreads = 0;
+    private static void worldGenerationThreads() {
+        worldGenerationThreads = getInt("core.world-generation.threads", worldGenerationThreads);
+    }
+    
+    public static int pregenerationChunksInFlight = 64;
+    private static void pregenerationChunksInFlight() {
+        pregenerationChunksInFlight = getInt("core.pregeneration.chunks-in-flight", pregenerationChunksInFlight);
+    }
+    
+    public static boolean compiledEventDispatch = false;
+    private static void compiledEventDispatch() {
+        compiledEventDispatch = getBoolean("core.events.compiled-dispatch", compiledEventDispatch);
+    }
 }
\ No newline at end of file
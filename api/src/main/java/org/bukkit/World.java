@@ -47,6 +47,24 @@ public interface World extends PluginMessageRecipient, Metadatable {
      * @return All the villages in range, an empty list if there is no village in range.
      */
     public List<io.akarin.server.api.structure.Village> getVillagesInRange(@NotNull Location location, double xRadius, double yRadius, double zRadius);
+
+    /**
+     * Starts pre-generating the chunks within the given radius of a chunk, replacing the
+     * pre-generation of this world that is still running.
+     *
+     * @param centerX X coordinate of the chunk at the centre
+     * @param centerZ Z coordinate of the chunk at the centre
+     * @param radius Radius of the square in chunks
+     * @return The pre-generation started
+     */
+    @NotNull
+    public io.akarin.server.api.world.Pregeneration pregenerate(int centerX, int centerZ, int radius);
+
+    /**
+     * @return The pre-generation of this world, null if there is none running
+     */
+    @Nullable
+    public io.akarin.server.api.world.Pregeneration getPregeneration();
     // Akarin end
 
     // Paper start
@@ -15,8 +15,8 @@ public class HandlerList {
      * Handler array. This field being an array is the key to this system's
      * speed.
      */
-    private RegisteredListener[] handlers = null; // Akarin - remove volatile
-    private boolean dirty = true; // Akarin
+    private volatile Baked baked = null; // Akarin - handlers, dispatcher and listener flag published together, null while dirty
+    private final Map<String, Class<? extends com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher>> dispatcherClasses = new HashMap<>(); // Akarin - by layout, guarded by this
 
     /**
      * Dynamic handler lists. These are changed using register() and
@@ -53,7 +53,7 @@ public class HandlerList {
                     for (List<RegisteredListener> list : h.handlerslots.values()) {
                         list.clear();
                     }
-                    h.dirty = true; // Akarin
+                    h.baked = null; // Akarin
                 }
             }
         }
@@ -108,8 +108,8 @@ public class HandlerList {
     public synchronized void register(RegisteredListener listener) {
         if (handlerslots.get(listener.getPriority()).contains(listener))
             throw new IllegalStateException("This listener is already registered to priority " + listener.getPriority().toString());
-        dirty = true; // Akarin
         handlerslots.get(listener.getPriority()).add(listener);
+        baked = null; // Akarin
     }
 
     /**
@@ -130,7 +130,7 @@ public class HandlerList {
      */
     public synchronized void unregister(RegisteredListener listener) {
         if (handlerslots.get(listener.getPriority()).remove(listener)) {
-            dirty = true; // Akarin
+            baked = null; // Akarin
         }
     }
 
@@ -149,7 +149,7 @@ public class HandlerList {
                 }
             }
         }
-        if (changed) dirty = true; // Akarin
+        if (changed) baked = null; // Akarin
     }
 
     /**
@@ -167,22 +167,75 @@ public class HandlerList {
                 }
             }
         }
-        if (changed) dirty = true; // Akarin
+        if (changed) baked = null; // Akarin
     }
 
     /**
      * Bake HashMap and ArrayLists to 2d array - does nothing if not necessary
      */
     public synchronized RegisteredListener[] bake() { // Akarin - add return value
-        if (!dirty) return handlers; // don't re-bake when still valid // Akarin
-        dirty = false; // Akarin - mark dirty to prevent any rebaking
+        // Akarin start - build the new state first, readers only see it once it is complete
+        Baked baked = this.baked;
+        if (baked != null) return baked.handlers; // don't re-bake when still valid
         List<RegisteredListener> entries = new ArrayList<RegisteredListener>();
         for (Entry<EventPriority, ArrayList<RegisteredListener>> entry : handlerslots.entrySet()) {
             entries.addAll(entry.getValue());
         }
-        return handlers = entries.toArray(new RegisteredListener[entries.size()]);
+        RegisteredListener[] handlers = entries.toArray(new RegisteredListener[entries.size()]);
+        com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher dispatcher = io.akarin.server.core.AkarinGlobalConfig.compiledEventDispatch ? com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher.compile(handlers, dispatcherClasses) : null;
+        this.baked = new Baked(handlers, dispatcher);
+        return handlers;
+        // Akarin end
     }
 
+    // Akarin start
+    /**
+     * Baked state of a handler list, replaced as a whole on every bake
+     */
+    private static final class Baked {
+        private final RegisteredListener[] handlers;
+        private final com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher dispatcher;
+        private final boolean hasListeners;
+
+        private Baked(RegisteredListener[] handlers, com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher dispatcher) {
+            this.handlers = handlers;
+            this.dispatcher = dispatcher;
+            this.hasListeners = handlers.length != 0;
+        }
+    }
+
+    private Baked baked() {
+        Baked baked = this.baked;
+        if (baked == null) {
+            synchronized (this) {
+                bake();
+                baked = this.baked;
+            }
+        }
+        return baked;
+    }
+
+    /**
+     * Get the dispatcher calling the baked listeners of this handler list
+     *
+     * @return the dispatcher, null if the listeners are to be iterated
+     */
+    @org.jetbrains.annotations.Nullable
+    public com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher getDispatcher() {
+        return baked().dispatcher;
+    }
+
+    /**
+     * Get whether any listener is registered to this handler list, callers
+     * can skip building an event nobody would receive
+     *
+     * @return true if calling the event reaches at least one listener
+     */
+    public boolean hasListeners() {
+        return baked().hasListeners;
+    }
+    // Akarin end
+
     /**
      * Get the baked registered listeners associated with this handler list
      *
@@ -191,7 +244,7 @@ public class HandlerList {
     public RegisteredListener[] getRegisteredListeners() {
         //RegisteredListener[] handlers; // Akarin
         //while ((handlers = this.handlers) == null) bake(); // This prevents fringe cases of returning null // Akarin
-        return dirty ? bake() : handlers;
+        return baked().handlers; // Akarin
     }
 
     /**
@@ -41,6 +41,18 @@ public class RegisteredListener {
         return plugin;
     }
 
+    // Akarin start
+    /**
+     * Gets the executor for this registration
+     *
+     * @return Registered executor
+     */
+    @NotNull
+    public EventExecutor getExecutor() {
+        return executor;
+    }
+    // Akarin end
+
     /**
      * Gets the priority for this registration
      *
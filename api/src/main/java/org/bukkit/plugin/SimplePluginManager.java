@@ -529,6 +529,19 @@ public final class SimplePluginManager implements PluginManager {
     public void callEvent(@Nonnull Event event) { // Akarin - javax.annotation
         // Paper - replace callEvent by merging to below method
         HandlerList handlers = event.getHandlers();
+        // Akarin start - count events built for nobody, callers with a cheaper path check HandlerList#hasListeners first
+        if (!handlers.hasListeners()) {
+            NO_LISTENER_EVENTS.get(event.getClass()).increment();
+            return;
+        }
+
+        // compiled dispatch
+        com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher dispatcher = handlers.getDispatcher();
+        if (dispatcher != null) {
+            dispatcher.dispatch(event, this.listenerExceptionHandler);
+            return;
+        }
+        // Akarin end
         RegisteredListener[] listeners = handlers.getRegisteredListeners();
 
         for (RegisteredListener registration : listeners) {
@@ -538,30 +551,49 @@ public final class SimplePluginManager implements PluginManager {
 
             try {
                 registration.callEvent(event);
-            } catch (AuthorNagException ex) {
-                Plugin plugin = registration.getPlugin();
-
-                if (plugin.isNaggable()) {
-                    plugin.setNaggable(false);
-
-                    server.getLogger().log(Level.SEVERE, String.format(
-                            "Nag author(s): '%s' of '%s' about the following: %s",
-                            plugin.getDescription().getAuthors(),
-                            plugin.getDescription().getFullName(),
-                            ex.getMessage()
-                            ));
-                }
-            } catch (Throwable ex) {
-                // Paper start - error reporting
-                String msg = "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName();
-                server.getLogger().log(Level.SEVERE, msg, ex);
-                if (!(event instanceof ServerExceptionEvent)) { // We don't want to cause an endless event loop
-                    callEvent(new ServerExceptionEvent(new ServerEventException(msg, ex, registration.getPlugin(), registration.getListener(), event)));
-                }
-                // Paper end
+            } catch (Throwable ex) { // Akarin
+                handleListenerException(registration, event, ex); // Akarin
+            }
+        }
+    }
+
+    // Akarin start - per event class, named like Event#getEventName
+    private static final ClassValue<java.util.concurrent.atomic.LongAdder> NO_LISTENER_EVENTS = new ClassValue<java.util.concurrent.atomic.LongAdder>() {
+        @Override
+        protected java.util.concurrent.atomic.LongAdder computeValue(Class<?> type) {
+            return co.aikar.timings.TimingsMetrics.counter("events.no-listeners." + type.getSimpleName());
+        }
+    };
+    // Akarin end
+
+    // Akarin start - shared with compiled dispatchers
+    private final com.destroystokyo.paper.event.executor.asm.CompiledEventDispatcher.ExceptionHandler listenerExceptionHandler = this::handleListenerException;
+
+    private void handleListenerException(@Nonnull RegisteredListener registration, @Nonnull Event event, @Nonnull Throwable ex) {
+        if (ex instanceof AuthorNagException) {
+            Plugin plugin = registration.getPlugin();
+
+            if (plugin.isNaggable()) {
+                plugin.setNaggable(false);
+
+                server.getLogger().log(Level.SEVERE, String.format(
+                        "Nag author(s): '%s' of '%s' about the following: %s",
+                        plugin.getDescription().getAuthors(),
+                        plugin.getDescription().getFullName(),
+                        ex.getMessage()
+                        ));
+            }
+        } else {
+            // Paper start - error reporting
+            String msg = "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName();
+            server.getLogger().log(Level.SEVERE, msg, ex);
+            if (!(event instanceof ServerExceptionEvent)) { // We don't want to cause an endless event loop
+                callEvent(new ServerExceptionEvent(new ServerEventException(msg, ex, registration.getPlugin(), registration.getListener(), event)));
             }
+            // Paper end
         }
     }
+    // Akarin end
 
     public void registerEvents(@Nonnull Listener listener, @Nonnull Plugin plugin) { // Akarin - javax.annotation
         if (!plugin.isEnabled()) {
@@ -0,0 +1,135 @@
+package com.destroystokyo.paper.event.executor.asm;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.TestServer;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.TestPlugin;
+import org.bukkit.plugin.TimedRegisteredListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class CompiledEventDispatcherTest {
+    private final List<String> calls = Lists.newArrayList();
+    private final List<Throwable> caught = Lists.newArrayList();
+    private final CompiledEventDispatcher.ExceptionHandler handler = (registration, event, ex) -> caught.add(ex);
+
+    private RegisteredListener listener(String name, TestPlugin plugin, boolean ignoreCancelled, boolean cancel) {
+        EventExecutor executor = (listener, event) -> {
+            calls.add(name);
+            if (cancel) {
+                ((Cancellable) event).setCancelled(true);
+            }
+        };
+        return new RegisteredListener(new Listener() {}, executor, EventPriority.NORMAL, plugin, ignoreCancelled);
+    }
+
+    @Test
+    public void testDispatchOrderAndChecks() {
+        TestServer.getInstance();
+        TestPlugin plugin = new TestPlugin("Test");
+        TestPlugin disabled = new TestPlugin("Disabled");
+        disabled.setEnabled(false);
+
+        RegisteredListener throwing = new RegisteredListener(new Listener() {}, (listener, event) -> {
+            throw new IllegalStateException("listener failure");
+        }, EventPriority.NORMAL, plugin, false);
+        RegisteredListener timed = new TimedRegisteredListener(new Listener() {}, (listener, event) -> calls.add("timed"), EventPriority.NORMAL, plugin, false);
+
+        RegisteredListener[] registrations = {
+            listener("first", plugin, true, false),
+            listener("disabled", disabled, false, false),
+            listener("cancel", plugin, false, true),
+            listener("ignoring", plugin, true, false),
+            throwing,
+            listener("monitor", plugin, false, false),
+            timed
+        };
+        CompiledEventDispatcher dispatcher = CompiledEventDispatcher.compile(registrations, Maps.newHashMap());
+        Assert.assertNotNull(dispatcher);
+
+        dispatcher.dispatch(new TestCancellableEvent(), handler);
+        Assert.assertEquals(Lists.newArrayList("first", "cancel", "monitor", "timed"), calls);
+        Assert.assertEquals(1, caught.size());
+        Assert.assertEquals("listener failure", caught.get(0).getMessage());
+    }
+
+    @Test
+    public void testNotCancellable() {
+        TestPlugin plugin = new TestPlugin("Test");
+        CompiledEventDispatcher dispatcher = CompiledEventDispatcher.compile(new RegisteredListener[] {
+            listener("ignoring", plugin, true, false)
+        }, Maps.newHashMap());
+        Assert.assertNotNull(dispatcher);
+
+        dispatcher.dispatch(new TestPlainEvent(), handler);
+        Assert.assertEquals(Lists.newArrayList("ignoring"), calls);
+        Assert.assertTrue(caught.isEmpty());
+    }
+
+    @Test
+    public void testLayoutReused() {
+        TestPlugin plugin = new TestPlugin("Test");
+        Map<String, Class<? extends CompiledEventDispatcher>> classes = Maps.newHashMap();
+        CompiledEventDispatcher first = CompiledEventDispatcher.compile(new RegisteredListener[] {
+            listener("a", plugin, false, false), listener("b", plugin, true, false)
+        }, classes);
+        CompiledEventDispatcher second = CompiledEventDispatcher.compile(new RegisteredListener[] {
+            listener("c", plugin, false, false), listener("d", plugin, true, false)
+        }, classes);
+        CompiledEventDispatcher other = CompiledEventDispatcher.compile(new RegisteredListener[] {
+            listener("e", plugin, false, false)
+        }, classes);
+
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertNotSame(first.getClass(), other.getClass());
+        Assert.assertEquals(2, classes.size());
+    }
+
+    public static class TestCancellableEvent extends Event implements Cancellable {
+        private static final HandlerList handlers = new HandlerList();
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+
+        public static HandlerList getHandlerList() {
+            return handlers;
+        }
+    }
+
+    public static class TestPlainEvent extends Event {
+        private static final HandlerList handlers = new HandlerList();
+
+        @Override
+        public HandlerList getHandlers() {
+            return handlers;
+        }
+
+        public static HandlerList getHandlerList() {
+            return handlers;
+        }
+    }
+}
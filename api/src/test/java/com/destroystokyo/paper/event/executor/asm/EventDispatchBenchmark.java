@@ -0,0 +1,86 @@
+package com.destroystokyo.paper.event.executor.asm;
+
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.TestPlugin;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Compares ns/event of iterating the registered listeners like SimplePluginManager does with
+ * calling them through a {@link CompiledEventDispatcher}, for 1, 10 and 50 listeners.
+ * <p>
+ * A plain main class, surefire does not pick it up. Run it against the test classpath, for
+ * example {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.destroystokyo.paper.event.executor.asm.EventDispatchBenchmark}.
+ */
+public final class EventDispatchBenchmark {
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+    private static final int EVENTS = 1_000_000;
+
+    private static int sink;
+
+    // Executors of different classes, like listeners of different plugins at the loop's call site
+    @SuppressWarnings("unchecked")
+    private static final IntFunction<EventExecutor>[] EXECUTORS = new IntFunction[] {
+        (IntFunction<EventExecutor>) i -> (listener, event) -> sink += i,
+        (IntFunction<EventExecutor>) i -> (listener, event) -> sink ^= i,
+        (IntFunction<EventExecutor>) i -> (listener, event) -> sink -= i,
+        (IntFunction<EventExecutor>) i -> (listener, event) -> sink |= i
+    };
+
+    public static void main(String[] args) {
+        TestPlugin plugin = new TestPlugin("Benchmark");
+        plugin.setEnabled(true);
+        CompiledEventDispatcher.ExceptionHandler handler = (registration, event, ex) -> { throw new AssertionError(ex); };
+        Event event = new CompiledEventDispatcherTest.TestCancellableEvent();
+
+        for (int count : new int[] {1, 10, 50}) {
+            RegisteredListener[] registrations = new RegisteredListener[count];
+            for (int i = 0; i < count; ++i) {
+                registrations[i] = new RegisteredListener(new Listener() {}, EXECUTORS[i % EXECUTORS.length].apply(i), EventPriority.NORMAL, plugin, (i & 1) == 0);
+            }
+            CompiledEventDispatcher dispatcher = CompiledEventDispatcher.compile(registrations, Maps.newHashMap());
+
+            measure("loop, " + count + " listeners", () -> {
+                for (int n = 0; n < EVENTS; ++n) {
+                    for (RegisteredListener registration : registrations) {
+                        if (!registration.getPlugin().isEnabled()) {
+                            continue;
+                        }
+                        try {
+                            registration.callEvent(event);
+                        } catch (Throwable ex) {
+                            handler.handle(registration, event, ex);
+                        }
+                    }
+                }
+            });
+            measure("compiled, " + count + " listeners", () -> {
+                for (int n = 0; n < EVENTS; ++n) {
+                    dispatcher.dispatch(event, handler);
+                }
+            });
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void measure(String name, Runnable body) {
+        for (int i = 0; i < WARMUP; ++i) {
+            body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            body.run();
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.println(String.format(Locale.ROOT, "%-30s %8.1f ns/event", name, nanos / (double) (ITERATIONS * (long) EVENTS)));
+    }
+}
@@ -5,6 +5,9 @@ import static org.junit.Assert.*;
 
 import org.bukkit.TestServer;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.event.TestEvent;
 import org.bukkit.permissions.Permission;
 
@@ -123,6 +126,17 @@ public class PluginManagerTest {
         }
     }
 
+    @Test
+    public void testHasListeners() {
+        HandlerList handlers = TestEvent.getHandlerList();
+        RegisteredListener registration = new RegisteredListener(new Listener() {}, (listener, event) -> {}, EventPriority.NORMAL, new TestPlugin("Test"), false);
+        assertFalse(handlers.hasListeners());
+        handlers.register(registration);
+        assertTrue(handlers.hasListeners());
+        handlers.unregister(registration);
+        assertFalse(handlers.hasListeners());
+    }
+
     @Test
     public void testRemovePermissionByNameLower() {
         this.testRemovePermissionByName("lower");
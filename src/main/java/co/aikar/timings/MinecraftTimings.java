@@ -24,6 +24,7 @@ public final class MinecraftTimings {
     public static final Timing timeUpdateTimer = Timings.ofSafe("Time Update");
     public static final Timing serverCommandTimer = Timings.ofSafe("Server Command");
     public static final Timing savePlayers = Timings.ofSafe("Save Players");
+    public static final Timing playerDataSnapshotTimer = Timings.ofSafe("Save Players - Snapshot"); // Akarin
 
     public static final Timing tickEntityTimer = Timings.ofSafe("## tickEntity");
     public static final Timing tickTileEntityTimer = Timings.ofSafe("## tickTileEntity");
@@ -18,6 +18,7 @@ import org.bukkit.craftbukkit.CraftWorld;
 import org.bukkit.entity.Player;
 
 import java.io.File;
+import java.io.IOException; // Akarin
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -28,14 +29,14 @@ public class PaperCommand extends Command {
     public PaperCommand(String name) {
         super(name);
         this.description = "Paper related commands";
-        this.usageMessage = "/paper [heap | entity | reload | version]";
+        this.usageMessage = "/paper [heap | entity | reload | version | compactregions | pregen]"; // Akarin
         this.setPermission("bukkit.command.paper");
     }
 
     @Override
     public List<String> tabComplete(CommandSender sender, String alias, String[] args, Location location) throws IllegalArgumentException {
         if (args.length <= 1)
-            return getListMatchingLast(args, "heap", "entity", "reload", "version");
+            return getListMatchingLast(args, "heap", "entity", "reload", "version", "compactregions", "pregen"); // Akarin
 
         switch (args[0].toLowerCase(Locale.ENGLISH))
         {
@@ -45,6 +46,18 @@ public class PaperCommand extends Command {
                 if (args.length == 3)
                     return getListMatchingLast(args, EntityTypes.getEntityNameList().stream().map(MinecraftKey::toString).sorted().toArray(String[]::new));
                 break;
+            // Akarin start
+            case "compactregions":
+                if (args.length == 2)
+                    return getListMatchingLast(args, Bukkit.getWorlds().stream().map(World::getName).toArray(String[]::new));
+                break;
+            case "pregen":
+                if (args.length == 2)
+                    return getListMatchingLast(args, Bukkit.getWorlds().stream().map(World::getName).toArray(String[]::new));
+                if (args.length == 3)
+                    return getListMatchingLast(args, "status", "cancel");
+                break;
+            // Akarin end
         }
         return Collections.emptyList();
     }
@@ -109,6 +122,14 @@ public class PaperCommand extends Command {
             case "reload":
                 doReload(sender);
                 break;
+            // Akarin start
+            case "compactregions":
+                compactRegions(sender, args);
+                break;
+            case "pregen":
+                pregenerate(sender, args);
+                break;
+            // Akarin end
             case "ver":
             case "version":
                 org.bukkit.Bukkit.getServer().getCommandMap().getCommand("version").execute(sender, commandLabel, new String[0]);
@@ -222,6 +243,102 @@ public class PaperCommand extends Command {
         }
     }
 
+    // Akarin start
+    private void compactRegions(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /paper compactregions <world>");
+            return;
+        }
+        World bukkitWorld = Bukkit.getWorld(args[1]);
+        if (bukkitWorld == null) {
+            sender.sendMessage(ChatColor.RED + "Unknown world: " + args[1]);
+            return;
+        }
+
+        IChunkLoader loader = ((CraftWorld) bukkitWorld).getHandle().getChunkProvider().chunkLoader;
+        if (!(loader instanceof ChunkRegionLoader)) {
+            sender.sendMessage(ChatColor.RED + "World " + bukkitWorld.getName() + " is not stored in region files");
+            return;
+        }
+        File folder = ((ChunkRegionLoader) loader).getWorldFolder();
+        File[] files = new File(folder, "region").listFiles((dir, name) -> name.matches("r\\.-?\\d+\\.-?\\d+\\.mca"));
+        if (files == null || files.length == 0) {
+            sender.sendMessage(ChatColor.YELLOW + "No region files found for " + bukkitWorld.getName());
+            return;
+        }
+
+        Command.broadcastCommandMessage(sender, ChatColor.YELLOW + "Compacting " + files.length + " region files of " + bukkitWorld.getName());
+        MCUtil.scheduleAsyncTask(() -> {
+            long reclaimed = 0L;
+            int failed = 0;
+            for (File file : files) {
+                String[] parts = file.getName().split("\\.");
+                int x = Integer.parseInt(parts[1]) << 5;
+                int z = Integer.parseInt(parts[2]) << 5;
+                try {
+                    reclaimed += RegionFileCache.getRegionFile(folder, x, z).compact();
+                } catch (IOException e) {
+                    failed++;
+                    MinecraftServer.LOGGER.error("Failed to compact region file " + file, e);
+                }
+            }
+            String message = ChatColor.GREEN + "Region compaction of " + bukkitWorld.getName() + " complete, reclaimed " + (reclaimed / 1024L) + " KiB"
+                + (failed > 0 ? ChatColor.RED + " (" + failed + " files failed, see log)" : "");
+            MCUtil.ensureMain(() -> Command.broadcastCommandMessage(sender, message));
+        });
+    }
+
+    private void pregenerate(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(ChatColor.RED + "Usage: /paper pregen <world> <radius> [centerX centerZ] | <world> status | <world> cancel");
+            return;
+        }
+        World bukkitWorld = Bukkit.getWorld(args[1]);
+        if (bukkitWorld == null) {
+            sender.sendMessage(ChatColor.RED + "Unknown world: " + args[1]);
+            return;
+        }
+        WorldServer world = ((CraftWorld) bukkitWorld).getHandle();
+        AkarinPregenerator running = AkarinPregenerator.get(world);
+
+        switch (args[2].toLowerCase(Locale.ENGLISH)) {
+            case "status":
+                sender.sendMessage(running == null ? ChatColor.YELLOW + "No pre-generation running for " + bukkitWorld.getName() : ChatColor.GREEN + running.describe());
+                return;
+            case "cancel":
+                if (running == null) {
+                    sender.sendMessage(ChatColor.YELLOW + "No pre-generation running for " + bukkitWorld.getName());
+                } else {
+                    running.cancel();
+                    Command.broadcastCommandMessage(sender, ChatColor.YELLOW + "Cancelled the pre-generation of " + bukkitWorld.getName() + " at " + running.getProcessedChunks() + "/" + running.getTotalChunks() + " chunks");
+                }
+                return;
+        }
+
+        int radius;
+        int centerX = bukkitWorld.getSpawnLocation().getBlockX() >> 4;
+        int centerZ = bukkitWorld.getSpawnLocation().getBlockZ() >> 4;
+        try {
+            radius = Integer.parseInt(args[2]);
+            if (args.length >= 5) {
+                centerX = Integer.parseInt(args[3]);
+                centerZ = Integer.parseInt(args[4]);
+            }
+        } catch (NumberFormatException e) {
+            sender.sendMessage(ChatColor.RED + "Radius and centre must be chunk coordinates");
+            return;
+        }
+
+        try {
+            AkarinPregenerator pregenerator = AkarinPregenerator.start(world, centerX, centerZ, radius);
+            Command.broadcastCommandMessage(sender, ChatColor.GREEN + "Pre-generating " + pregenerator.getTotalChunks() + " chunks of " + bukkitWorld.getName()
+                + " around chunk " + centerX + ", " + centerZ + ", progress is logged to the console");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sender.sendMessage(ChatColor.RED + e.getMessage());
+        }
+    }
+    // Akarin end
+
     private void doReload(CommandSender sender) {
         Command.broadcastCommandMessage(sender, ChatColor.RED + "Please note that this command is not supported and may cause issues.");
         Command.broadcastCommandMessage(sender, ChatColor.RED + "If you encounter any issues please use the /stop command to restart your server.");
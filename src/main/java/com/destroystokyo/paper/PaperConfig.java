@@ -219,6 +219,11 @@ public class PaperConfig {
         Timings.setTimingsEnabled(timings);
         Timings.setHistoryInterval(timingHistoryInterval * 20);
         Timings.setHistoryLength(timingHistoryLength * 20);
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.timingsRingBufferMinutes > 0) {
+            Timings.setRingBuffer(io.akarin.server.core.AkarinGlobalConfig.timingsRingBufferMinutes);
+        }
+        // Akarin end
 
         log("Timings: " + timings +
                 " - Verbose: " + verboseTimings +
@@ -604,4 +604,14 @@ public class PaperWorldConfig {
             log("Using improved mob spawn limits (Only Natural Spawns impact spawn limits for more natural spawns)");
         }
     }
+
+    // Akarin start
+    public net.minecraft.server.AkarinRegionCompression.Codec chunkCompressionCodec = net.minecraft.server.AkarinRegionCompression.Codec.ZLIB;
+    public int chunkCompressionLevel = -1;
+    private void chunkCompression() {
+        chunkCompressionCodec = net.minecraft.server.AkarinRegionCompression.Codec.byName(getString("chunk-compression.codec", "zlib"));
+        chunkCompressionLevel = getInt("chunk-compression.level", -1);
+        log("Chunk compression: " + chunkCompressionCodec.name().toLowerCase(java.util.Locale.ENGLISH) + (chunkCompressionLevel >= 0 ? " level " + chunkCompressionLevel : ""));
+    }
+    // Akarin end
 }
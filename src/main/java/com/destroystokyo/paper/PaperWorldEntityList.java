@@ -10,13 +10,17 @@ import net.minecraft.server.WorldServer;
 import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 
 public class PaperWorldEntityList extends ArrayList<Entity> {
 
     private final WorldServer world;
     private final int[] entityCounts = new int[EnumCreatureType.values().length];
-
+    // Akarin start - tombstones, slots of removed entities dropped together by compact()
+    private final BitSet tombstones = new BitSet();
+    private int tombstoneCount;
+    // Akarin end
 
     public PaperWorldEntityList(World world) {
         this.world = (WorldServer) world;
@@ -67,6 +71,50 @@ public class PaperWorldEntityList extends ArrayList<Entity> {
         return false;
     }
 
+    // Akarin start
+    /**
+     * Removes the entity at the index without shifting the list. The slot keeps the entity,
+     * flagged as removed, until {@link #compact()} drops every tombstone in one pass. Counts
+     * are updated right away. Indices must stay stable until then, so the list must be
+     * guarded against removals in between.
+     */
+    public Entity tombstone(int index) {
+        Entity entity = get(index);
+        if (!tombstones.get(index)) {
+            tombstones.set(index);
+            tombstoneCount++;
+            entity.shouldBeRemoved = true;
+            updateEntityCount(entity, -1);
+        }
+        return entity;
+    }
+
+    /**
+     * Drops all tombstoned slots, keeping the order of the remaining entities
+     *
+     * @return Number of slots dropped
+     */
+    public int compact() {
+        if (tombstoneCount == 0) {
+            return 0;
+        }
+
+        int size = size();
+        int write = tombstones.nextSetBit(0);
+        for (int read = write + 1; read < size; read++) {
+            if (!tombstones.get(read)) {
+                super.set(write++, super.get(read));
+            }
+        }
+        removeRange(write, size);
+
+        int dropped = tombstoneCount;
+        tombstones.clear();
+        tombstoneCount = 0;
+        return dropped;
+    }
+    // Akarin end
+
     private void guard() {
         if (world.guardEntityList) {
             throw new java.util.ConcurrentModificationException();
@@ -3,7 +3,6 @@ package com.destroystokyo.paper.antixray;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import net.minecraft.server.IRegistry;
 import net.minecraft.server.MinecraftKey;
@@ -31,6 +30,7 @@ import net.minecraft.server.WorldServer;
 public class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockController {
 
     private static ExecutorService executorServiceInstance = null;
+    private static co.aikar.timings.ThreadTimings.Section executorTiming; // Akarin
     private final ExecutorService executorService;
     private final boolean asynchronous;
     private final EngineMode engineMode;
@@ -119,7 +119,11 @@ public class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockControll
 
     private static ExecutorService getExecutorServiceInstance() {
         if (executorServiceInstance == null) {
-            executorServiceInstance = Executors.newSingleThreadExecutor();
+            // Akarin start
+            java.util.concurrent.ThreadPoolExecutor executor = new java.util.concurrent.ThreadPoolExecutor(1, 1, 0L, java.util.concurrent.TimeUnit.MILLISECONDS, new java.util.concurrent.LinkedBlockingQueue<>());
+            executorTiming = co.aikar.timings.ThreadTimings.executor("Anti-Xray", () -> executor.getQueue().size());
+            executorServiceInstance = executor;
+            // Akarin end
         }
 
         return executorServiceInstance;
@@ -193,7 +197,7 @@ public class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockControll
     @Override
     public void modifyBlocks(PacketPlayOutMapChunk packetPlayOutMapChunk, ChunkPacketInfo<IBlockData> chunkPacketInfo) {
         if (asynchronous) {
-            executorService.submit((ChunkPacketInfoAntiXray) chunkPacketInfo);
+            executorService.submit(co.aikar.timings.ThreadTimings.wrap(executorTiming, (ChunkPacketInfoAntiXray) chunkPacketInfo)); // Akarin
         } else {
             obfuscate((ChunkPacketInfoAntiXray) chunkPacketInfo);
         }
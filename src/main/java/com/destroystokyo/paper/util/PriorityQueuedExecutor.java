@@ -31,6 +31,7 @@ public class PriorityQueuedExecutor extends AbstractExecutorService {
     private final ConcurrentLinkedQueue<Runnable> normal = new ConcurrentLinkedQueue<>();
     private final List<Thread> threads = new ArrayList<>();
     private final RejectionHandler handler;
+    private final co.aikar.timings.ThreadTimings.Section timing; // Akarin
 
     private volatile boolean shuttingDown = false;
     private volatile boolean shuttingDownNow = false;
@@ -52,6 +53,7 @@ public class PriorityQueuedExecutor extends AbstractExecutorService {
     }
 
     public PriorityQueuedExecutor(String name, int threads, int threadPriority, RejectionHandler handler) {
+        this.timing = threads > 0 ? co.aikar.timings.ThreadTimings.executor(name, this::getQueuedTasks) : null; // Akarin - before the threads start
         for (int i = 0; i < threads; i++) {
             ExecutorThread thread = new ExecutorThread(this::processQueues);
             thread.setDaemon(true);
@@ -66,6 +68,15 @@ public class PriorityQueuedExecutor extends AbstractExecutorService {
         this.handler = handler;
     }
 
+    // Akarin start
+    /**
+     * @return Number of tasks waiting, counting is linear in the number of tasks
+     */
+    public int getQueuedTasks() {
+        return urgent.size() + high.size() + normal.size();
+    }
+    // Akarin end
+
     /**
      * If the Current thread belongs to a PriorityQueuedExecutor, return that Executro
      * @return The executor that controls this thread
@@ -193,7 +204,14 @@ public class PriorityQueuedExecutor extends AbstractExecutorService {
         Runnable run = null;
         while (true) {
             if (run != null) {
-                run.run();
+                // Akarin start
+                long start = timing.start();
+                try {
+                    run.run();
+                } finally {
+                    timing.stop(start);
+                }
+                // Akarin end
             }
             if (shuttingDownNow) {
                 return;
@@ -818,14 +818,14 @@ public class RedstoneWireTurbo {
         j = getMaxCurrentStrength(upd, j);
         int l = 0;
 
-        wire.setCanProvidePower(false);
+        wire.setCanProvidePower(worldIn, false); // Akarin
         // Unfortunately, World.isBlockIndirectlyGettingPowered is complicated,
         // and I'm not ready to try to replicate even more functionality from
         // elsewhere in Minecraft into this accelerator.  So sadly, we must
         // suffer the performance hit of this very expensive call.  If there
         // is consistency to what this call returns, we may be able to cache it.
         final int k = worldIn.isBlockIndirectlyGettingPowered(upd.self);
-        wire.setCanProvidePower(true);
+        wire.setCanProvidePower(worldIn, true); // Akarin
 
         // The variable 'k' holds the maximum redstone power value of any adjacent blocks.
         // If 'k' has the highest level of all neighbors, then the power level of this
@@ -881,9 +881,7 @@ public class RedstoneWireTurbo {
         // egg82's amendment
         // Adding Bukkit's BlockRedstoneEvent - er.. event.
         if (i != j) {
-            BlockRedstoneEvent event = new BlockRedstoneEvent(worldIn.getWorld().getBlockAt(upd.self.getX(), upd.self.getY(), upd.self.getZ()), i, j);
-            worldIn.getServer().getPluginManager().callEvent(event);
-            j = event.getNewCurrent();
+            j = org.bukkit.craftbukkit.event.CraftEventFactory.handleRedstoneChange(worldIn, upd.self, i, j); // Akarin
         }
 
         if (i != j) {
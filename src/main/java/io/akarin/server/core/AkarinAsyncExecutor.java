@@ -1,20 +1,26 @@
 package io.akarin.server.core;
 
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import co.aikar.timings.ThreadTimings;
+
 public class AkarinAsyncExecutor {
-    private static final Executor singleExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("Akarin Single Async Executor Thread - %1$d").build());
-    private static final Executor asyncExecutor = Executors.newFixedThreadPool(4, new ThreadFactoryBuilder().setNameFormat("Akarin Async Executor Thread - %1$d").build());
+    private static final ThreadPoolExecutor singleExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("Akarin Single Async Executor Thread - %1$d").build());
+    private static final ThreadPoolExecutor asyncExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4, new ThreadFactoryBuilder().setNameFormat("Akarin Async Executor Thread - %1$d").build());
+    private static final ThreadTimings.Section singleTiming = ThreadTimings.executor("Akarin Single Async Executor", () -> singleExecutor.getQueue().size());
+    private static final ThreadTimings.Section asyncTiming = ThreadTimings.executor("Akarin Async Executor", () -> asyncExecutor.getQueue().size());
     
     /**
      * Posts a task to be executed asynchronously in a single thread
      * @param run
      */
     public static void scheduleSingleAsyncTask(Runnable run) {
-        singleExecutor.execute(run);
+        singleExecutor.execute(ThreadTimings.wrap(singleTiming, run));
     }
     
     /**
@@ -22,6 +28,6 @@ public class AkarinAsyncExecutor {
      * @param run
      */
     public static void scheduleAsyncTask(Runnable run) {
-        asyncExecutor.execute(run);
+        asyncExecutor.execute(ThreadTimings.wrap(asyncTiming, run));
     }
 }
\ No newline at end of file
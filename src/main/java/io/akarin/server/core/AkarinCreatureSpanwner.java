@@ -71,7 +71,7 @@ public class AkarinCreatureSpanwner {
         mobSpawnRange = (mobSpawnRange > world.spigotConfig.viewDistance) ? (byte) world.spigotConfig.viewDistance : mobSpawnRange;
         mobSpawnRange = (mobSpawnRange > 8) ? 8 : mobSpawnRange;
         
-        if (PlayerNaturallySpawnCreaturesEvent.getHandlerList().getRegisteredListeners().length != 0) {
+        if (PlayerNaturallySpawnCreaturesEvent.getHandlerList().hasListeners()) {
             PlayerNaturallySpawnCreaturesEvent event = new PlayerNaturallySpawnCreaturesEvent((Player) player.getBukkitEntity(), mobSpawnRange);
             // prevent concurrent handling, at least
             synchronized (PlayerNaturallySpawnCreaturesEvent.class) {
@@ -105,7 +105,7 @@ public class AkarinCreatureSpanwner {
         EntityTypes<? extends EntityInsentient> entityType = biomeMeta.entityType();
         org.bukkit.entity.EntityType bType = EntityTypes.clsToTypeMap.get(entityType.entityClass());
         if (bType != null) {
-            if (PreCreatureSpawnEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            if (PreCreatureSpawnEvent.getHandlerList().hasListeners()) {
                 PreCreatureSpawnEvent event = new PreCreatureSpawnEvent(
                         MCUtil.toLocation(world, pos),
                         bType, SpawnReason.NATURAL
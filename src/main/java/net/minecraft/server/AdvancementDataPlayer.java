@@ -196,9 +196,41 @@ public class AdvancementDataPlayer {
         this.d();
     }
 
+    // Akarin start
+    @Nullable
+    JsonElement snapshot() {
+        return org.spigotmc.SpigotConfig.disableAdvancementSaving ? null : AdvancementDataPlayer.b.toJsonTree(this.progressToSave());
+    }
+
+    File getFile() {
+        return this.e;
+    }
+
+    static String toJson(JsonElement jsonelement) {
+        return AdvancementDataPlayer.b.toJson(jsonelement);
+    }
+    // Akarin end
+
     public void c() {
         if (org.spigotmc.SpigotConfig.disableAdvancementSaving) return;
+        // Akarin start
+        Map<MinecraftKey, AdvancementProgress> map = this.progressToSave();
+
+        if (this.e.getParentFile() != null) {
+            this.e.getParentFile().mkdirs();
+        }
+
+        try {
+            Files.write(AdvancementDataPlayer.b.toJson(map), this.e, StandardCharsets.UTF_8);
+        } catch (IOException ioexception) {
+            AdvancementDataPlayer.a.error("Couldn't save player advancements to {}", this.e, ioexception);
+        }
+
+    }
+
+    private Map<MinecraftKey, AdvancementProgress> progressToSave() {
         Map<MinecraftKey, AdvancementProgress> map = Maps.newHashMap();
+        // Akarin end
         Iterator iterator = this.data.entrySet().iterator();
 
         while (iterator.hasNext()) {
@@ -210,16 +242,7 @@ public class AdvancementDataPlayer {
             }
         }
 
-        if (this.e.getParentFile() != null) {
-            this.e.getParentFile().mkdirs();
-        }
-
-        try {
-            Files.write(AdvancementDataPlayer.b.toJson(map), this.e, StandardCharsets.UTF_8);
-        } catch (IOException ioexception) {
-            AdvancementDataPlayer.a.error("Couldn't save player advancements to {}", this.e, ioexception);
-        }
-
+        return map; // Akarin
     }
 
     public boolean grantCriteria(Advancement advancement, String s) {
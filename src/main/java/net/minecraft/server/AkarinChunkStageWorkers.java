@@ -0,0 +1,151 @@
+package net.minecraft.server;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import co.aikar.timings.ThreadTimings;
+import co.aikar.timings.TimingsMetrics;
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Runs the base stage of world generation (biomes, noise and surface) on a pool of worker
+ * threads, ahead of the chunk scheduler of a world.
+ * <p>
+ * The scheduler generates a chunk and the area its neighbour stages reach one stage after
+ * another, under the lock of the world. The base stage only ever touches the chunk being
+ * generated, so when a chunk is requested the chunks of that area the scheduler does not
+ * know yet are handed to the workers first. Each worker generates into fresh proto chunks
+ * with a generator of its own, the one of the world caches biome layers that are not safe
+ * to share between threads. The scheduler then starts from those proto chunks instead of
+ * empty ones, and generates a chunk no worker got to yet itself.
+ * <p>
+ * Carving, decoration and lighting stay under the lock of the world, vanilla carvers and
+ * features are shared instances keeping scratch state of their own.
+ */
+final class AkarinChunkStageWorkers {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int AREA_RADIUS = 3; // liquid carving, decoration and lighting each reach one chunk further
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(AkarinGlobalConfig.worldGenerationThreads, AkarinGlobalConfig.worldGenerationThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("Akarin World Gen Worker - %d").setDaemon(true).setPriority(Thread.NORM_PRIORITY - 2).build());
+    private static final ThreadTimings.Section timing = ThreadTimings.executor("Akarin World Gen Workers", () -> executor.getQueue().size());
+    private static final LongAdder PREPARED = TimingsMetrics.counter("world-generation.prepared-chunks");
+    private static final LongAdder TAKEN_UNSTARTED = TimingsMetrics.counter("world-generation.prepared-unstarted");
+
+    private final World world;
+    private final IChunkLoader loader;
+    private final ChunkTaskScheduler scheduler;
+    private final Long2ObjectMap<Prepared> prepared = new ExpiringMap<>(8192, 10000);
+    private final ThreadLocal<ChunkGenerator<?>> generators;
+
+    AkarinChunkStageWorkers(World world, IChunkLoader loader, ChunkTaskScheduler scheduler) {
+        this.world = world;
+        this.loader = loader;
+        this.scheduler = scheduler;
+        this.generators = ThreadLocal.withInitial(() -> world.worldProvider.getChunkGenerator());
+    }
+
+    /**
+     * Hands the chunks around a requested one that the scheduler does not know yet to the
+     * workers, called before the scheduler takes the lock of the world
+     */
+    void prepareArea(int x, int z) {
+        for (int i = x - AREA_RADIUS; i <= x + AREA_RADIUS; ++i) {
+            for (int j = z - AREA_RADIUS; j <= z + AREA_RADIUS; ++j) {
+                long key = ChunkCoordIntPair.a(i, j);
+                if (this.scheduler.progressCache.containsKey(key) || this.prepared.containsKey(key)) {
+                    continue;
+                }
+
+                Prepared chunk = new Prepared(i, j);
+                if (this.prepared.putIfAbsent(key, chunk) == null) {
+                    executor.execute(ThreadTimings.wrap(timing, chunk));
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the prepared chunk at the given position, generating it on this thread if no
+     * worker started it yet
+     *
+     * @return Proto chunk past the base stage, or null if there is none to start from
+     */
+    @Nullable
+    ProtoChunk take(ChunkCoordIntPair chunkcoordintpair) {
+        Prepared chunk = this.prepared.remove(chunkcoordintpair.a());
+        if (chunk == null) {
+            return null;
+        }
+        if (chunk.claimed.compareAndSet(false, true)) {
+            TAKEN_UNSTARTED.increment();
+            chunk.generate();
+        }
+
+        try {
+            return chunk.result.join();
+        } catch (CompletionException ex) {
+            LOGGER.error("Couldn't prepare chunk (" + this.world.getWorld().getName() + ":" + chunkcoordintpair.x + "," + chunkcoordintpair.z + ")", ex.getCause());
+            return null;
+        }
+    }
+
+    private final class Prepared implements Runnable {
+        private final int x;
+        private final int z;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<ProtoChunk> result = new CompletableFuture<>();
+
+        Prepared(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public void run() {
+            if (this.claimed.compareAndSet(false, true)) {
+                this.generate();
+            }
+        }
+
+        private void generate() {
+            try {
+                this.result.complete(this.generateBase());
+            } catch (Throwable throwable) {
+                this.result.completeExceptionally(throwable);
+            }
+        }
+
+        @Nullable
+        private ProtoChunk generateBase() {
+            if (loader instanceof ChunkRegionLoader && ((ChunkRegionLoader) loader).chunkExists(this.x, this.z)) {
+                return null; // the scheduler loads it
+            }
+
+            ChunkCoordIntPair chunkcoordintpair = new ChunkCoordIntPair(this.x, this.z);
+            ProtoChunk protochunk = new ProtoChunk(chunkcoordintpair, ChunkConverter.a, world); // Paper - Anti-Xray
+            Map<ChunkCoordIntPair, ProtoChunk> area = Maps.newHashMapWithExpectedSize(1);
+            area.put(chunkcoordintpair, protochunk);
+
+            ChunkStatus.BASE.a(world, generators.get(), area, this.x, this.z);
+            if (!protochunk.i().a(ChunkStatus.BASE)) {
+                protochunk.a(ChunkStatus.BASE);
+            }
+            PREPARED.increment();
+            return protochunk;
+        }
+    }
+}
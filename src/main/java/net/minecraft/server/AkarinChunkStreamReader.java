@@ -0,0 +1,615 @@
+package net.minecraft.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Decodes chunk NBT without building the whole tree first.
+ * <p>
+ * The decompressed chunk is read into a per thread buffer and walked in place. Sections are
+ * decoded straight into {@link ChunkSection}s: palette entries are looked up by their encoded
+ * bytes in a per thread cache of decoded block data, block states are read into a reused array
+ * and copied into the section's storage, light arrays are copied out of the buffer.
+ * Entities and TileEntities are kept as their encoded bytes and only parsed on first access.
+ * Every other tag is read as usual.
+ * <p>
+ * Only chunks of the current data version take this path, the data fixer needs the full tree.
+ * The resulting Level compound is meant for building the chunk and must not be saved back,
+ * its Sections list is empty.
+ */
+public final class AkarinChunkStreamReader implements DataInput {
+    private static final int DATA_VERSION = 1631;
+    private static final int PALETTE_CACHE_SIZE = 1024;
+    private static final ThreadLocal<AkarinChunkStreamReader> LOCAL = ThreadLocal.withInitial(AkarinChunkStreamReader::new);
+
+    private static final byte[] LEVEL = ascii("Level");
+    private static final byte[] SECTIONS = ascii("Sections");
+    private static final byte[] ENTITIES = ascii("Entities");
+    private static final byte[] TILE_ENTITIES = ascii("TileEntities");
+    private static final byte[] Y = ascii("Y");
+    private static final byte[] PALETTE = ascii("Palette");
+    private static final byte[] BLOCK_STATES = ascii("BlockStates");
+    private static final byte[] BLOCK_LIGHT = ascii("BlockLight");
+    private static final byte[] SKY_LIGHT = ascii("SkyLight");
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int length;
+    private int position;
+
+    private long[] states = new long[256];
+    private final NBTTagList palette = new NBTTagList();
+    private final byte[][] paletteKeys = new byte[PALETTE_CACHE_SIZE][];
+    private final PaletteEntry[] paletteEntries = new PaletteEntry[PALETTE_CACHE_SIZE];
+
+    private AkarinChunkStreamReader() {}
+
+    /**
+     * Section lists decoded by this reader, {@link ChunkRegionLoader} takes the sections as they are
+     */
+    static final class DecodedSections extends NBTTagList {
+        final ChunkSection[] sections;
+
+        private DecodedSections(ChunkSection[] sections) {
+            super((byte) 10, new ArrayList<>(0));
+            this.sections = sections;
+        }
+    }
+
+    /**
+     * Palette compounds that carry their decoded block data, shared by the sections of one thread
+     */
+    private static final class PaletteEntry extends NBTTagCompound {
+        private IBlockData state;
+    }
+
+    /**
+     * Block data of a palette compound, used by every {@link ChunkSection} palette
+     */
+    static IBlockData readBlockData(NBTTagCompound nbttagcompound) {
+        if (nbttagcompound instanceof PaletteEntry) {
+            IBlockData state = ((PaletteEntry) nbttagcompound).state;
+            if (state != null) {
+                return state;
+            }
+        }
+        return GameProfileSerializer.d(nbttagcompound);
+    }
+
+    @Nullable
+    static NBTTagCompound read(File file, int x, int z, GeneratorAccess world) throws IOException {
+        DataInputStream datainputstream = RegionFileCache.getChunkStream(file, x, z);
+        if (datainputstream == null) {
+            // missing or oversized, the regular path knows both
+            return RegionFileCache.read(file, x, z);
+        }
+        return read(datainputstream, world, world.o().g());
+    }
+
+    /**
+     * Reads and closes the decompressed chunk stream, sections of the current data version
+     * are decoded for the given world
+     */
+    public static NBTTagCompound read(InputStream inputstream, @Nullable IWorldReader world, boolean skyLight) throws IOException {
+        AkarinChunkStreamReader reader = LOCAL.get();
+        try (InputStream in = inputstream) {
+            reader.fill(in);
+        }
+        return reader.readRoot(world, skyLight);
+    }
+
+    /**
+     * The sections decoded by this reader, null when the Level compound was read the regular way
+     */
+    @Nullable
+    public static ChunkSection[] getSections(NBTTagCompound level) {
+        NBTBase sections = level.get("Sections");
+        return sections instanceof DecodedSections ? ((DecodedSections) sections).sections : null;
+    }
+
+    private void fill(InputStream in) throws IOException {
+        int length = 0;
+        int read;
+        while ((read = in.read(this.buffer, length, this.buffer.length - length)) >= 0) {
+            length += read;
+            if (length == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, length << 1);
+            }
+        }
+        this.length = length;
+        this.position = 0;
+    }
+
+    private NBTTagCompound readRoot(@Nullable IWorldReader world, boolean skyLight) throws IOException {
+        if (this.readByte() != 10) {
+            throw new IOException("Root tag must be a named compound tag");
+        }
+        this.skip(this.readUnsignedShort());
+
+        // DataVersion may follow Level, so Level is only decoded once the version is known
+        NBTTagCompound root = new NBTTagCompound();
+        int level = -1;
+        byte type;
+        while ((type = this.readByte()) != 0) {
+            int nameLength = this.readUnsignedShort();
+            if (type == 10 && this.nameEquals(nameLength, LEVEL)) {
+                this.skip(nameLength);
+                level = this.position;
+                this.skipTag(type, 1);
+            } else {
+                this.readTag(root, type, 1);
+            }
+        }
+
+        int version = root.hasKeyOfType("DataVersion", 99) ? root.getInt("DataVersion") : -1;
+        if (version < DATA_VERSION) {
+            // needs the data fixer, read again the regular way
+            this.position = 0;
+            return NBTCompressedStreamTools.a(this, NBTReadLimiter.a);
+        }
+
+        if (level >= 0) {
+            this.position = level;
+            root.set("Level", this.readLevel(world, skyLight));
+        }
+        return root;
+    }
+
+    private NBTTagCompound readLevel(@Nullable IWorldReader world, boolean skyLight) throws IOException {
+        NBTTagCompound level = new NBTTagCompound();
+        byte type;
+        while ((type = this.readByte()) != 0) {
+            int nameLength = this.readUnsignedShort();
+            if (type == 9 && this.nameEquals(nameLength, SECTIONS)) {
+                this.skip(nameLength);
+                level.set("Sections", this.readSections(world, skyLight));
+            } else if (type == 9 && this.nameEquals(nameLength, ENTITIES)) {
+                this.skip(nameLength);
+                level.set("Entities", this.readDeferredList());
+            } else if (type == 9 && this.nameEquals(nameLength, TILE_ENTITIES)) {
+                this.skip(nameLength);
+                level.set("TileEntities", this.readDeferredList());
+            } else {
+                this.readTag(level, type, 2);
+            }
+        }
+        return level;
+    }
+
+    private void readTag(NBTTagCompound parent, byte type, int depth) throws IOException {
+        this.position -= 2; // back to the name length
+        String name = AkarinGlobalConfig.sharedNBTKeys ? AkarinNBTKeys.read(this) : this.readUTF();
+        NBTBase nbtbase = NBTBase.createTag(type);
+        if (nbtbase == null) {
+            throw new IOException("Invalid tag type " + type);
+        }
+        nbtbase.load(this, depth, NBTReadLimiter.a);
+        parent.set(name, nbtbase);
+    }
+
+    private NBTTagList readDeferredList() throws IOException {
+        int start = this.position;
+        byte type = this.readByte();
+        int size = this.readInt();
+        if (size <= 0 || type == 0) {
+            // nothing worth deferring, keep the regular checks
+            this.position = start;
+            NBTTagList nbttaglist = new NBTTagList();
+            nbttaglist.load(this, 2, NBTReadLimiter.a);
+            return nbttaglist;
+        }
+
+        for (int i = 0; i < size; ++i) {
+            this.skipTag(type, 3);
+        }
+        return new NBTTagList(type, new DeferredList(Arrays.copyOfRange(this.buffer, start, this.position)));
+    }
+
+    private NBTTagList readSections(@Nullable IWorldReader world, boolean skyLight) throws IOException {
+        ChunkSection[] sections = new ChunkSection[16];
+        byte type = this.readByte();
+        int size = this.readInt();
+        if (type != 10) {
+            // not a list of compounds, reads as no sections
+            for (int i = 0; i < size; ++i) {
+                this.skipTag(type, 3);
+            }
+            return new DecodedSections(sections);
+        }
+
+        for (int i = 0; i < size; ++i) {
+            this.readSection(world, skyLight, sections);
+        }
+        return new DecodedSections(sections);
+    }
+
+    private void readSection(@Nullable IWorldReader world, boolean skyLight, ChunkSection[] sections) throws IOException {
+        int start = this.position;
+        boolean hasY = false;
+        boolean hasPalette = false;
+        byte y = 0;
+        int statesLength = -1;
+        byte[] blockLight = null;
+        byte[] skyLightBytes = null;
+        this.palette.list.clear();
+
+        byte type;
+        while ((type = this.readByte()) != 0) {
+            int nameLength = this.readUnsignedShort();
+            if (this.nameEquals(nameLength, Y)) {
+                this.skip(nameLength);
+                if (type != 1) {
+                    this.fallbackSection(start, world, skyLight, sections);
+                    return;
+                }
+                y = this.readByte();
+                hasY = true;
+            } else if (this.nameEquals(nameLength, PALETTE)) {
+                this.skip(nameLength);
+                if (type != 9 || !this.readPalette()) {
+                    this.fallbackSection(start, world, skyLight, sections);
+                    return;
+                }
+                hasPalette = true;
+            } else if (this.nameEquals(nameLength, BLOCK_STATES)) {
+                this.skip(nameLength);
+                if (type != 12) {
+                    this.fallbackSection(start, world, skyLight, sections);
+                    return;
+                }
+                statesLength = this.readStates();
+            } else if (this.nameEquals(nameLength, BLOCK_LIGHT)) {
+                this.skip(nameLength);
+                blockLight = type == 7 ? this.readNibbles() : null;
+            } else if (this.nameEquals(nameLength, SKY_LIGHT)) {
+                this.skip(nameLength);
+                if (skyLight) {
+                    skyLightBytes = type == 7 ? this.readNibbles() : null;
+                } else {
+                    this.skipTag(type, 3);
+                }
+            } else {
+                this.skip(nameLength);
+                this.skipTag(type, 3);
+            }
+        }
+
+        if (!hasY || !hasPalette || statesLength < 0 || blockLight == null || (skyLight && skyLightBytes == null)) {
+            // missing or odd data, let the regular path handle or reject it
+            this.fallbackSection(start, world, skyLight, sections);
+            return;
+        }
+
+        ChunkSection chunksection = new ChunkSection(y << 4, skyLight, null, world, false); // Paper - Anti-Xray
+        chunksection.getBlocks().a(this.palette, this.states, statesLength);
+        this.palette.list.clear();
+        chunksection.a(new NibbleArray(blockLight));
+        if (skyLight) {
+            chunksection.b(new NibbleArray(skyLightBytes));
+        }
+
+        chunksection.recalcBlockCounts();
+        sections[y] = chunksection;
+    }
+
+    /**
+     * Same as ChunkRegionLoader for a section read the regular way
+     */
+    private void fallbackSection(int start, @Nullable IWorldReader world, boolean skyLight, ChunkSection[] sections) throws IOException {
+        this.palette.list.clear();
+        this.position = start;
+        NBTTagCompound nbttagcompound = new NBTTagCompound();
+        nbttagcompound.load(this, 3, NBTReadLimiter.a);
+
+        byte b0 = nbttagcompound.getByte("Y");
+        ChunkSection chunksection = new ChunkSection(b0 << 4, skyLight, null, world, false); // Paper - Anti-Xray
+
+        chunksection.getBlocks().a(nbttagcompound, "Palette", "BlockStates");
+        chunksection.a(new NibbleArray(nbttagcompound.getByteArray("BlockLight")));
+        if (skyLight) {
+            chunksection.b(new NibbleArray(nbttagcompound.getByteArray("SkyLight")));
+        }
+
+        chunksection.recalcBlockCounts();
+        sections[b0] = chunksection;
+    }
+
+    private boolean readPalette() throws IOException {
+        byte type = this.readByte();
+        int size = this.readInt();
+        if (type != 10) {
+            return false;
+        }
+
+        for (int i = 0; i < size; ++i) {
+            int start = this.position;
+            this.skipTag((byte) 10, 4);
+            int end = this.position;
+
+            int hash = 1;
+            for (int k = start; k < end; ++k) {
+                hash = 31 * hash + this.buffer[k];
+            }
+            int slot = it.unimi.dsi.fastutil.HashCommon.mix(hash) & (PALETTE_CACHE_SIZE - 1);
+            byte[] key = this.paletteKeys[slot];
+            PaletteEntry entry = this.paletteEntries[slot];
+
+            if (key == null || !this.regionEquals(key, start, end)) {
+                this.position = start;
+                entry = new PaletteEntry();
+                entry.load(this, 4, NBTReadLimiter.a);
+                entry.state = GameProfileSerializer.d(entry);
+                this.paletteKeys[slot] = Arrays.copyOfRange(this.buffer, start, end);
+                this.paletteEntries[slot] = entry;
+            }
+            this.palette.add(entry);
+        }
+        return true;
+    }
+
+    private int readStates() throws IOException {
+        int size = this.readInt();
+        this.require((long) size * 8L);
+        if (this.states.length < size) {
+            this.states = new long[size];
+        }
+
+        long[] states = this.states;
+        for (int i = 0; i < size; ++i) {
+            states[i] = this.readLong();
+        }
+        return size;
+    }
+
+    private byte[] readNibbles() throws IOException {
+        int size = this.readInt();
+        this.require(size);
+        byte[] bytes = Arrays.copyOfRange(this.buffer, this.position, this.position + size);
+        this.position += size;
+        return bytes;
+    }
+
+    private void skipTag(byte type, int depth) throws IOException {
+        if (depth > 512) {
+            throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+        }
+        switch (type) {
+            case 1:
+                this.skip(1);
+                break;
+            case 2:
+                this.skip(2);
+                break;
+            case 3:
+            case 5:
+                this.skip(4);
+                break;
+            case 4:
+            case 6:
+                this.skip(8);
+                break;
+            case 7:
+                this.skip(this.readInt());
+                break;
+            case 8:
+                this.skip(this.readUnsignedShort());
+                break;
+            case 9: {
+                byte elementType = this.readByte();
+                int size = this.readInt();
+                for (int i = 0; i < size; ++i) {
+                    this.skipTag(elementType, depth + 1);
+                }
+                break;
+            }
+            case 10: {
+                byte elementType;
+                while ((elementType = this.readByte()) != 0) {
+                    this.skip(this.readUnsignedShort());
+                    this.skipTag(elementType, depth + 1);
+                }
+                break;
+            }
+            case 11:
+                this.skip(this.readInt() * 4L);
+                break;
+            case 12:
+                this.skip(this.readInt() * 8L);
+                break;
+            default:
+                throw new IOException("Invalid tag type " + type);
+        }
+    }
+
+    private boolean nameEquals(int nameLength, byte[] name) {
+        if (nameLength != name.length || this.position + nameLength > this.length) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; ++i) {
+            if (this.buffer[this.position + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(byte[] key, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; ++i) {
+            if (key[i] != this.buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void require(long bytes) throws EOFException {
+        if (bytes < 0 || this.position + bytes > this.length) {
+            throw new EOFException();
+        }
+    }
+
+    private void skip(long bytes) throws EOFException {
+        this.require(bytes);
+        this.position += (int) bytes;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Elements of a list kept encoded until the list is first used
+     */
+    private static final class DeferredList extends AbstractList<NBTBase> {
+        private byte[] encoded;
+        private List<NBTBase> list;
+
+        private DeferredList(byte[] encoded) {
+            this.encoded = encoded;
+        }
+
+        private List<NBTBase> list() {
+            if (this.list == null) {
+                NBTTagList nbttaglist = new NBTTagList();
+                try {
+                    nbttaglist.load(new DataInputStream(new ByteArrayInputStream(this.encoded)), 2, NBTReadLimiter.a);
+                } catch (IOException exception) {
+                    throw new IllegalStateException("Deferred list no longer decodes", exception); // already read once
+                }
+                this.list = nbttaglist.list;
+                this.encoded = null;
+            }
+            return this.list;
+        }
+
+        @Override
+        public NBTBase get(int index) {
+            return this.list().get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.list().size();
+        }
+
+        @Override
+        public NBTBase set(int index, NBTBase element) {
+            return this.list().set(index, element);
+        }
+
+        @Override
+        public void add(int index, NBTBase element) {
+            this.list().add(index, element);
+        }
+
+        @Override
+        public NBTBase remove(int index) {
+            return this.list().remove(index);
+        }
+    }
+
+    // DataInput over the buffer
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        this.readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        this.require(length);
+        System.arraycopy(this.buffer, this.position, bytes, offset, length);
+        this.position += length;
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.max(0, Math.min(n, this.length - this.position));
+        this.position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return this.readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        this.require(1);
+        return this.buffer[this.position++];
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return this.readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) this.readUnsignedShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        byte[] buffer = this.buffer;
+        int position = this.position;
+        this.position = position + 2;
+        return (buffer[position] & 0xFF) << 8 | buffer[position + 1] & 0xFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) this.readUnsignedShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        this.require(4);
+        byte[] buffer = this.buffer;
+        int position = this.position;
+        this.position = position + 4;
+        return (buffer[position] & 0xFF) << 24 | (buffer[position + 1] & 0xFF) << 16 | (buffer[position + 2] & 0xFF) << 8 | buffer[position + 3] & 0xFF;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return (long) this.readInt() << 32 | this.readInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(this.readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(this.readLong());
+    }
+
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,169 @@
+package net.minecraft.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import co.aikar.timings.TimingsMetrics;
+
+/**
+ * State of the cached hopper mode.
+ * <p>
+ * Container targets are resolved once and reused until a block or tile entity in the
+ * target's chunk changes. Entity containers move without notice, so they are searched for
+ * on every use, but only when the chunk sections around the target hold any. The same
+ * section counts let hoppers skip the item pickup scan.
+ * <p>
+ * A transfer that moved nothing is remembered along with the contents of both inventories,
+ * and not retried until either inventory changes.
+ */
+final class AkarinHopperCache {
+    private static final LongAdder TARGET_HITS = TimingsMetrics.counter("hopper.target-cache.hits");
+    private static final LongAdder TARGET_MISSES = TimingsMetrics.counter("hopper.target-cache.misses");
+    static final LongAdder SKIPPED_MOVES = TimingsMetrics.counter("hopper.skipped-moves");
+    static final LongAdder SKIPPED_SCANS = TimingsMetrics.counter("hopper.skipped-item-scans");
+
+    private AkarinHopperCache() {}
+
+    /**
+     * Container at a fixed position
+     */
+    static final class Target {
+        private Chunk chunk;
+        private int blockChanges;
+        private IInventory tileInventory;
+
+        @Nullable
+        IInventory resolve(World world, BlockPosition blockposition) {
+            Chunk chunk = world.getChunkIfLoaded(blockposition.getX() >> 4, blockposition.getZ() >> 4);
+            if (chunk == null) {
+                this.chunk = null;
+                return null;
+            }
+
+            if (chunk != this.chunk || chunk.blockChanges != this.blockChanges || isRemoved(this.tileInventory)) {
+                this.tileInventory = TileEntityHopper.getTileInventory(world, blockposition);
+                // the other half of a double chest may sit in the neighbouring chunk, whose changes we don't see
+                boolean cacheable = !(this.tileInventory instanceof InventoryLargeChest || this.tileInventory instanceof TileEntityChest) || !isChunkEdge(blockposition);
+                this.chunk = cacheable ? chunk : null;
+                this.blockChanges = chunk.blockChanges;
+                TARGET_MISSES.increment();
+            } else {
+                TARGET_HITS.increment();
+            }
+
+            if (this.tileInventory != null) {
+                return this.tileInventory;
+            }
+
+            double x = blockposition.getX() + 0.5D;
+            double y = blockposition.getY() + 0.5D;
+            double z = blockposition.getZ() + 0.5D;
+            if (!mayHaveEntities(world, x - 0.5D, y - 0.5D, z - 0.5D, x + 0.5D, y + 0.5D, z + 0.5D, false)) {
+                return null;
+            }
+            return TileEntityHopper.getEntityInventory(world, x, y, z);
+        }
+
+        private static boolean isRemoved(IInventory iinventory) {
+            return iinventory instanceof TileEntity && ((TileEntity) iinventory).x();
+        }
+
+        private static boolean isChunkEdge(BlockPosition blockposition) {
+            int x = blockposition.getX() & 15;
+            int z = blockposition.getZ() & 15;
+            return x == 0 || x == 15 || z == 0 || z == 15;
+        }
+    }
+
+    /**
+     * A transfer between two inventories that moved nothing
+     */
+    static final class FailedMove {
+        private final Snapshot from = new Snapshot();
+        private final Snapshot to = new Snapshot();
+
+        boolean matches(IInventory from, IInventory to) {
+            return this.from.matches(from) && this.to.matches(to);
+        }
+
+        void record(IInventory from, IInventory to) {
+            this.from.capture(from);
+            this.to.capture(to);
+        }
+
+        void clear() {
+            this.from.clear();
+            this.to.clear();
+        }
+    }
+
+    /**
+     * Slot contents by identity and count, stacks are replaced or resized on every change
+     */
+    private static final class Snapshot {
+        private IInventory inventory;
+        private ItemStack[] stacks = new ItemStack[0];
+        private int[] counts = new int[0];
+
+        void capture(IInventory inventory) {
+            int size = inventory.getSize();
+            if (this.stacks.length != size) {
+                this.stacks = new ItemStack[size];
+                this.counts = new int[size];
+            }
+            for (int i = 0; i < size; ++i) {
+                ItemStack itemstack = inventory.getItem(i);
+                this.stacks[i] = itemstack;
+                this.counts[i] = itemstack.getCount();
+            }
+            this.inventory = inventory;
+        }
+
+        boolean matches(IInventory inventory) {
+            if (this.inventory != inventory || inventory.getSize() != this.stacks.length) {
+                return false;
+            }
+            for (int i = 0; i < this.stacks.length; ++i) {
+                ItemStack itemstack = inventory.getItem(i);
+                if (itemstack != this.stacks[i] || itemstack.getCount() != this.counts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void clear() {
+            this.inventory = null;
+            java.util.Arrays.fill(this.stacks, null);
+        }
+    }
+
+    /**
+     * Whether any loaded chunk section an entity search of the box would visit holds items,
+     * or entity containers. Mirrors the sections {@link World#getEntities} looks at.
+     */
+    static boolean mayHaveEntities(World world, double minX, double minY, double minZ, double maxX, double maxY, double maxZ, boolean items) {
+        int minChunkX = MathHelper.floor((minX - 2.0D) / 16.0D);
+        int maxChunkX = MathHelper.floor((maxX + 2.0D) / 16.0D);
+        int minChunkZ = MathHelper.floor((minZ - 2.0D) / 16.0D);
+        int maxChunkZ = MathHelper.floor((maxZ + 2.0D) / 16.0D);
+        int minSection = MathHelper.clamp(MathHelper.floor((minY - 2.0D) / 16.0D), 0, 15);
+        int maxSection = MathHelper.clamp(MathHelper.floor((maxY + 2.0D) / 16.0D), 0, 15);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+                Chunk chunk = world.getChunkIfLoaded(chunkX, chunkZ);
+                if (chunk == null) {
+                    continue;
+                }
+                for (int section = minSection; section <= maxSection; ++section) {
+                    if ((items ? chunk.getItemCount(section) : chunk.getInventoryEntityCount(section)) > 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+package net.minecraft.server;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+import co.aikar.timings.MinecraftTimings;
+import co.aikar.timings.Timing;
+import co.aikar.timings.TimingsMetrics;
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Play packets of one connection waiting for the main thread. Packets are appended by the
+ * connection's network thread and run in order by the main thread, without wrapping each of
+ * them into a task. When the queue becomes non empty one task is put on the server task queue,
+ * so the packets keep their place among the other main thread tasks; packets received until
+ * that task runs join it.
+ * <p>
+ * With coalescing enabled, a movement packet replaces the movement packet queued right
+ * before it if it carries at least the same parts (position, rotation) and the same on ground
+ * state. The replaced packets still count towards the moved too quickly check.
+ */
+public class AkarinInboundPacketQueue {
+    private static final LongAdder QUEUED = TimingsMetrics.counter("network.inbound.queued");
+    private static final LongAdder PROCESSED = TimingsMetrics.counter("network.inbound.processed");
+    private static final LongAdder COALESCED = TimingsMetrics.counter("network.inbound.coalesced");
+
+    private final PlayerConnection connection;
+    private ArrayDeque<Packet<PacketListenerPlayIn>> packets = new ArrayDeque<>();
+    private ArrayDeque<Packet<PacketListenerPlayIn>> draining = new ArrayDeque<>();
+    private int coalescedMoves;
+    private boolean isScheduled;
+
+    AkarinInboundPacketQueue(PlayerConnection connection) {
+        this.connection = connection;
+    }
+
+    @SuppressWarnings("unchecked")
+    void offer(Packet<?> packet) {
+        QUEUED.increment();
+        synchronized (this) {
+            if (AkarinGlobalConfig.inboundPacketCoalescing && packet instanceof PacketPlayInFlying) {
+                Packet<PacketListenerPlayIn> last = this.packets.peekLast();
+
+                if (last instanceof PacketPlayInFlying && supersedes((PacketPlayInFlying) packet, (PacketPlayInFlying) last)) {
+                    this.packets.pollLast();
+                    this.coalescedMoves++;
+                    COALESCED.increment();
+                }
+            }
+            this.packets.add((Packet<PacketListenerPlayIn>) packet);
+
+            if (this.isScheduled) {
+                return;
+            }
+            this.isScheduled = true;
+        }
+        MinecraftServer.getServer().ensuresMainThread(this::process);
+    }
+
+    private static boolean supersedes(PacketPlayInFlying packet, PacketPlayInFlying last) {
+        // on ground changes fall damage and the flying kick, never drop one
+        return (packet.hasPos || !last.hasPos) && (packet.hasLook || !last.hasLook) && packet.b() == last.b();
+    }
+
+    private void process() {
+        ArrayDeque<Packet<PacketListenerPlayIn>> batch;
+        int coalescedMoves;
+        synchronized (this) {
+            // swap buffers, packets received meanwhile reschedule the connection
+            batch = this.packets;
+            this.packets = this.draining;
+            this.draining = batch;
+            coalescedMoves = this.coalescedMoves;
+            this.coalescedMoves = 0;
+            this.isScheduled = false;
+        }
+
+        if (coalescedMoves > 0) {
+            this.connection.addCoalescedMovePackets(coalescedMoves);
+        }
+
+        Packet<PacketListenerPlayIn> packet;
+        while ((packet = batch.poll()) != null) {
+            if (this.connection.processedDisconnect) {
+                batch.clear();
+                break;
+            }
+
+            try (Timing ignored = MinecraftTimings.getPacketTiming(packet).startTimingUnsafe()) {
+                packet.a(this.connection);
+            } catch (CancelledPacketHandleException exception) {
+                // handled elsewhere
+            } catch (Throwable throwable) {
+                MinecraftServer.LOGGER.fatal("Error executing task", throwable);
+            }
+            PROCESSED.increment();
+        }
+    }
+}
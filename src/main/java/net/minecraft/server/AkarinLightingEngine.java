@@ -0,0 +1,317 @@
+package net.minecraft.server;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Striped;
+
+import co.aikar.timings.ThreadTimings;
+import co.aikar.timings.TimingsMetrics;
+import io.akarin.server.core.AkarinGlobalConfig;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * Asynchronous light updates of one world.
+ * <p>
+ * Updates are queued per region of {@link #REGION_SIZE} chunks, each region queue is run
+ * in order by at most one worker at a time so updates of a chunk never overtake each other.
+ * An update may spread light into the neighbouring chunks, so while it runs it holds the
+ * lock of every region within one chunk of its own, which keeps workers of adjacent regions
+ * apart. Updates that only recompute current state are coalesced while pending.
+ */
+public class AkarinLightingEngine {
+    private static final int REGION_SHIFT = 3;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+    private static final int PARTITIONS = 64;
+    private static final int BATCH_SIZE = 256;
+
+    /** Chunk wide updates that are coalesced per chunk */
+    public static final int INIT_LIGHTING = 0;
+    public static final int CHECK_LIGHT = 1;
+    private static final int CHUNK_KINDS = 2;
+
+    private static final LongAdder UPDATES = TimingsMetrics.counter("lighting.updates");
+    private static final LongAdder COALESCED = TimingsMetrics.counter("lighting.coalesced");
+    private static final LongAdder CALLER_RUNS = TimingsMetrics.counter("lighting.caller-runs");
+    private static final ThreadLocal<Boolean> RUNNING_UPDATE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static final ThreadPoolExecutor workers = (ThreadPoolExecutor) Executors.newFixedThreadPool(AkarinGlobalConfig.lightingThreads, new ThreadFactoryBuilder().setNameFormat("Akarin Lighting Thread - %1$d").setDaemon(true).build());
+    private static final ThreadTimings.Section timing = ThreadTimings.executor("Akarin Lighting Thread", () -> workers.getQueue().size());
+
+    private final Partition[] partitions = new Partition[PARTITIONS];
+    private final Striped<Lock> regionLocks = Striped.lock(PARTITIONS);
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public AkarinLightingEngine(World world) {
+        for (int i = 0; i < PARTITIONS; ++i) {
+            this.partitions[i] = new Partition();
+        }
+        TimingsMetrics.gauge("lighting.queued." + world.getWorldData().getName(), this.queued::get);
+    }
+
+    private static long regionKey(int chunkX, int chunkZ) {
+        return ChunkCoordIntPair.a(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+    }
+
+    private Partition partition(int chunkX, int chunkZ) {
+        long key = regionKey(chunkX, chunkZ);
+        return this.partitions[(int) (it.unimi.dsi.fastutil.HashCommon.mix(key) & (PARTITIONS - 1))];
+    }
+
+    /**
+     * Queues a relight of a block position, dropped if one is already pending
+     */
+    public void queueBlock(BlockPosition blockposition, Runnable update) {
+        this.queue(new Update(blockposition.getX() >> 4, blockposition.getZ() >> 4, -1, blockposition.asLong(), update));
+    }
+
+    /**
+     * Queues a chunk wide update of the given kind, dropped if one is already pending
+     */
+    public void queueChunk(Chunk chunk, int kind, Runnable update) {
+        this.queue(new Update(chunk.locX, chunk.locZ, kind, chunk.chunkKey, update));
+    }
+
+    /**
+     * Queues an update that is run in order with the other updates of the chunk
+     */
+    public void queueChunk(Chunk chunk, Runnable update) {
+        this.queue(new Update(chunk.locX, chunk.locZ, -2, 0L, update));
+    }
+
+    private void queue(Update update) {
+        Partition partition = this.partition(update.chunkX, update.chunkZ);
+        boolean schedule;
+
+        synchronized (partition) {
+            if (!partition.markPending(update)) {
+                COALESCED.increment();
+                return;
+            }
+            partition.updates.add(update);
+            this.queued.incrementAndGet();
+            schedule = !partition.scheduled;
+            partition.scheduled = true;
+        }
+        if (schedule) {
+            workers.execute(ThreadTimings.wrap(timing, () -> this.drain(partition)));
+        }
+
+        // back pressure, the producer runs the partition it queued to, in order and under the same locks as a worker.
+        // Not from inside an update, it holds region locks and waiting for another partition could deadlock with its worker
+        if (this.queued.get() >= AkarinGlobalConfig.lightingMaxQueuedUpdates && !RUNNING_UPDATE.get()) {
+            CALLER_RUNS.increment();
+            this.flushPartition(partition, null);
+        }
+    }
+
+    private void drain(Partition partition) {
+        partition.runLock.lock();
+        try {
+            for (int i = 0; i < BATCH_SIZE; ++i) {
+                Update update = partition.poll();
+                if (update == null) {
+                    break;
+                }
+                this.run(update);
+            }
+        } finally {
+            partition.runLock.unlock();
+        }
+
+        synchronized (partition) {
+            if (partition.updates.isEmpty()) {
+                partition.scheduled = false;
+                return;
+            }
+        }
+        // yield to other partitions between batches
+        workers.execute(ThreadTimings.wrap(timing, () -> this.drain(partition)));
+    }
+
+    private void run(Update update) {
+        Iterable<Lock> locks = this.regionLocks.bulkGet(update.regions());
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        RUNNING_UPDATE.set(Boolean.TRUE);
+        try {
+            update.update.run();
+            UPDATES.increment();
+        } catch (Throwable throwable) {
+            MinecraftServer.LOGGER.error("Exception while updating light", throwable);
+        } finally {
+            RUNNING_UPDATE.set(Boolean.FALSE);
+            for (Lock lock : locks) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Completes every queued update that can change light in the chunk, on the calling thread.
+     * Must be called before the chunk is serialized for players.
+     */
+    public void flushChunk(Chunk chunk) {
+        Partition[] flushed = new Partition[4];
+        int count = 0;
+        for (int x = chunk.locX - 1; x <= chunk.locX + 1; x += 2) {
+            for (int z = chunk.locZ - 1; z <= chunk.locZ + 1; z += 2) {
+                // the corners of the 3x3 chunk window cover every region an update reaching the chunk is queued in
+                Partition partition = this.partition(x, z);
+                boolean seen = false;
+                for (int i = 0; i < count; ++i) {
+                    seen |= flushed[i] == partition;
+                }
+                if (!seen) {
+                    flushed[count++] = partition;
+                    this.flushPartition(partition, chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the queued updates of a partition on the calling thread, after whatever a worker is running
+     *
+     * @param chunk Only run the updates that can change light in this chunk, or null for all of them
+     */
+    private void flushPartition(Partition partition, @javax.annotation.Nullable Chunk chunk) {
+        if (partition.isIdle()) {
+            return;
+        }
+
+        partition.runLock.lock();
+        try {
+            if (chunk == null) {
+                Update update;
+                while ((update = partition.poll()) != null) {
+                    this.run(update);
+                }
+            } else {
+                // updates run meanwhile may queue more for the chunk
+                java.util.List<Update> updates;
+                while (!(updates = partition.poll(chunk.locX, chunk.locZ)).isEmpty()) {
+                    for (Update update : updates) {
+                        this.run(update);
+                    }
+                }
+            }
+        } finally {
+            partition.runLock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    private final class Partition {
+        private final ArrayDeque<Update> updates = new ArrayDeque<>();
+        private final LongOpenHashSet pendingBlocks = new LongOpenHashSet();
+        private final LongOpenHashSet[] pendingChunks = new LongOpenHashSet[CHUNK_KINDS];
+        private final ReentrantLock runLock = new ReentrantLock();
+        private boolean scheduled;
+
+        Partition() {
+            for (int i = 0; i < CHUNK_KINDS; ++i) {
+                this.pendingChunks[i] = new LongOpenHashSet();
+            }
+        }
+
+        // Guarded by this
+
+        boolean markPending(Update update) {
+            if (update.kind == -1) {
+                return this.pendingBlocks.add(update.key);
+            } else if (update.kind >= 0) {
+                return this.pendingChunks[update.kind].add(update.key);
+            }
+            return true;
+        }
+
+        Update poll() {
+            Update update;
+            synchronized (this) {
+                update = this.updates.poll();
+                if (update == null) {
+                    return null;
+                }
+                this.clearPending(update);
+            }
+            AkarinLightingEngine.this.queued.decrementAndGet();
+            return update;
+        }
+
+        /**
+         * Removes the queued updates that spread light into the chunk, in queue order, the others keep their place
+         */
+        java.util.List<Update> poll(int chunkX, int chunkZ) {
+            java.util.List<Update> polled = new java.util.ArrayList<>();
+            synchronized (this) {
+                java.util.Iterator<Update> iterator = this.updates.iterator();
+                while (iterator.hasNext()) {
+                    Update update = iterator.next();
+                    if (Math.abs(update.chunkX - chunkX) <= 1 && Math.abs(update.chunkZ - chunkZ) <= 1) {
+                        iterator.remove();
+                        this.clearPending(update);
+                        polled.add(update);
+                    }
+                }
+            }
+            if (!polled.isEmpty()) {
+                AkarinLightingEngine.this.queued.addAndGet(-polled.size());
+            }
+            return polled;
+        }
+
+        private void clearPending(Update update) {
+            // pending state is cleared before running, an update queued meanwhile sees the result
+            if (update.kind == -1) {
+                this.pendingBlocks.remove(update.key);
+            } else if (update.kind >= 0) {
+                this.pendingChunks[update.kind].remove(update.key);
+            }
+        }
+
+        boolean isIdle() {
+            synchronized (this) {
+                if (!this.updates.isEmpty()) {
+                    return false;
+                }
+            }
+            return !this.runLock.isLocked();
+        }
+    }
+
+    private static final class Update {
+        private final int chunkX;
+        private final int chunkZ;
+        private final int kind; // -1 block relight, -2 ordered, otherwise chunk kind
+        private final long key;
+        private final Runnable update;
+
+        Update(int chunkX, int chunkZ, int kind, long key, Runnable update) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.kind = kind;
+            this.key = key;
+            this.update = update;
+        }
+
+        LongOpenHashSet regions() {
+            LongOpenHashSet regions = new LongOpenHashSet(4);
+            for (int x = this.chunkX - 1; x <= this.chunkX + 1; x += 2) {
+                for (int z = this.chunkZ - 1; z <= this.chunkZ + 1; z += 2) {
+                    regions.add(regionKey(x, z));
+                }
+            }
+            return regions;
+        }
+    }
+}
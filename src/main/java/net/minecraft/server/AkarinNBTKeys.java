@@ -0,0 +1,83 @@
+package net.minecraft.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads compound keys of NBT streams into shared strings.
+ * <p>
+ * Chunk, entity and player data repeat the same few hundred keys over and over, reading
+ * each of them into a fresh string is most of the garbage a chunk load leaves behind.
+ * Short ASCII keys are decoded straight from a per thread buffer and looked up in a small
+ * direct mapped table of the keys this thread read before, everything else takes the
+ * regular modified UTF-8 path.
+ */
+final class AkarinNBTKeys {
+    private static final int MAX_LENGTH = 32;
+    private static final int TABLE_SIZE = 1024;
+    private static final ThreadLocal<AkarinNBTKeys> LOCAL = ThreadLocal.withInitial(AkarinNBTKeys::new);
+
+    private final byte[] buffer = new byte[MAX_LENGTH];
+    private final byte[][] encoded = new byte[TABLE_SIZE][];
+    private final String[] strings = new String[TABLE_SIZE];
+
+    private AkarinNBTKeys() {}
+
+    static String read(DataInput datainput) throws IOException {
+        return LOCAL.get().readKey(datainput);
+    }
+
+    private String readKey(DataInput datainput) throws IOException {
+        int length = datainput.readUnsignedShort();
+        if (length > MAX_LENGTH) {
+            byte[] bytes = new byte[length];
+            datainput.readFully(bytes);
+            return decode(bytes, length);
+        }
+
+        byte[] buffer = this.buffer;
+        datainput.readFully(buffer, 0, length);
+
+        int hash = 0;
+        for (int i = 0; i < length; ++i) {
+            byte b = buffer[i];
+            if (b < 0) {
+                // multi byte sequences, don't bother caching
+                return decode(buffer, length);
+            }
+            hash = 31 * hash + b;
+        }
+
+        int slot = it.unimi.dsi.fastutil.HashCommon.mix(hash) & (TABLE_SIZE - 1);
+        byte[] cached = this.encoded[slot];
+        if (cached != null && cached.length == length && regionEquals(cached, buffer, length)) {
+            return this.strings[slot];
+        }
+
+        // ASCII decodes the same as modified UTF-8
+        String s = new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+        this.encoded[slot] = java.util.Arrays.copyOf(buffer, length);
+        this.strings[slot] = s;
+        return s;
+    }
+
+    private static boolean regionEquals(byte[] cached, byte[] buffer, int length) {
+        for (int i = 0; i < length; ++i) {
+            if (cached[i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(byte[] bytes, int length) throws IOException {
+        byte[] prefixed = new byte[length + 2];
+        prefixed[0] = (byte) (length >>> 8);
+        prefixed[1] = (byte) length;
+        System.arraycopy(bytes, 0, prefixed, 2, length);
+        return new DataInputStream(new ByteArrayInputStream(prefixed)).readUTF();
+    }
+}
@@ -0,0 +1,272 @@
+package net.minecraft.server;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+
+import co.aikar.timings.ThreadTimings;
+
+/**
+ * Writes player data off the main thread.
+ * <p>
+ * The main thread only takes a snapshot of a player (the NBT compound, the statistics JSON
+ * and the advancements JSON tree), the writer thread compresses and prints it, syncs it to
+ * disk and moves it over the old file. Snapshots of a player that are still waiting are
+ * replaced by newer ones, only the latest is written.
+ * <p>
+ * Anything reading player files waits for the pending snapshot of that player first, and
+ * the server flushes all of them before it stops. A single writer keeps the writes of each
+ * player in order.
+ */
+final class AkarinPlayerDataWriter {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("Akarin Player Data Writer").setDaemon(true).setPriority(Thread.NORM_PRIORITY - 1).build()); // stopping flushes, see flushAll
+    private static final ThreadTimings.Section timing = ThreadTimings.executor("Akarin Player Data Writer", () -> executor.getQueue().size());
+
+    private static final Object lock = new Object();
+    private static final Map<String, Snapshot> pending = Maps.newHashMap(); // guarded by lock
+    private static final Set<String> writing = Sets.newHashSet(); // guarded by lock
+
+    private AkarinPlayerDataWriter() {}
+
+    /**
+     * Parts of a player to be written, parts left null are not written
+     */
+    static final class Snapshot {
+        private final String uuid;
+        private final String name;
+        private File playerDir;
+        private NBTTagCompound data;
+        private File statsFile;
+        private String stats;
+        private File advancementsFile;
+        private JsonElement advancements;
+
+        Snapshot(String uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+
+        Snapshot data(File playerDir, NBTTagCompound data) {
+            this.playerDir = playerDir;
+            this.data = data;
+            return this;
+        }
+
+        Snapshot stats(File statsFile, @Nullable String stats) {
+            this.statsFile = statsFile;
+            this.stats = stats;
+            return this;
+        }
+
+        Snapshot advancements(File advancementsFile, @Nullable JsonElement advancements) {
+            this.advancementsFile = advancementsFile;
+            this.advancements = advancements;
+            return this;
+        }
+
+        /**
+         * Takes the parts this snapshot lacks from an older one of the same player
+         */
+        private Snapshot inherit(Snapshot older) {
+            if (this.data == null) {
+                this.data(older.playerDir, older.data);
+            }
+            if (this.stats == null) {
+                this.stats(older.statsFile, older.stats);
+            }
+            if (this.advancements == null) {
+                this.advancements(older.advancementsFile, older.advancements);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Queues a snapshot, replacing the one of the same player that is still waiting
+     */
+    static void submit(Snapshot snapshot) {
+        synchronized (lock) {
+            Snapshot older = pending.put(snapshot.uuid, snapshot);
+            if (older != null) {
+                snapshot.inherit(older);
+                return; // the task queued for the older one writes this one
+            }
+        }
+        executor.execute(ThreadTimings.wrap(timing, () -> write(snapshot.uuid)));
+    }
+
+    private static void write(String uuid) {
+        Snapshot snapshot;
+        synchronized (lock) {
+            snapshot = pending.remove(uuid);
+            if (snapshot == null) {
+                return; // flushed meanwhile
+            }
+            writing.add(uuid);
+        }
+        try {
+            writeNow(snapshot);
+        } finally {
+            synchronized (lock) {
+                writing.remove(uuid);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending snapshot of a player on this thread, and waits for a write of the
+     * player already in progress, so that its files can be read
+     *
+     * @param uuid Player UUID as used in file names
+     */
+    static void flush(String uuid) {
+        Snapshot snapshot;
+        synchronized (lock) {
+            if (pending.isEmpty() && writing.isEmpty()) {
+                return;
+            }
+            awaitWrite(uuid);
+            snapshot = pending.remove(uuid);
+            if (snapshot == null) {
+                return;
+            }
+            writing.add(uuid);
+        }
+        try {
+            writeNow(snapshot);
+        } finally {
+            synchronized (lock) {
+                writing.remove(uuid);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes every pending snapshot, called before the server stops
+     */
+    static void flushAll() {
+        String uuid;
+        do {
+            synchronized (lock) {
+                uuid = pending.isEmpty() ? null : pending.keySet().iterator().next();
+            }
+            if (uuid != null) {
+                flush(uuid);
+            }
+        } while (uuid != null);
+
+        synchronized (lock) {
+            while (!writing.isEmpty()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void awaitWrite(String uuid) {
+        while (writing.contains(uuid)) {
+            try {
+                lock.wait();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void writeNow(Snapshot snapshot) {
+        if (snapshot.data != null) {
+            try {
+                File file = new File(snapshot.playerDir, snapshot.uuid + ".dat.tmp");
+                try (FileOutputStream out = new FileOutputStream(file)) {
+                    NBTCompressedStreamTools.a(snapshot.data, (OutputStream) new UncloseableOutputStream(out));
+                    out.getFD().sync();
+                }
+                moveAtomic(file, new File(snapshot.playerDir, snapshot.uuid + ".dat"));
+            } catch (Exception exception) {
+                LOGGER.error("Failed to save player data for {}", snapshot.name, exception);
+            }
+        }
+
+        if (snapshot.stats != null) {
+            try {
+                writeString(snapshot.statsFile, snapshot.stats);
+            } catch (IOException ioexception) {
+                LOGGER.error("Couldn't save stats", ioexception);
+            }
+        }
+
+        if (snapshot.advancements != null) {
+            try {
+                writeString(snapshot.advancementsFile, AdvancementDataPlayer.toJson(snapshot.advancements));
+            } catch (IOException ioexception) {
+                LOGGER.error("Couldn't save player advancements to {}", snapshot.advancementsFile, ioexception);
+            }
+        }
+    }
+
+    private static void writeString(File file, String string) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(string.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        moveAtomic(tmp, file);
+    }
+
+    private static void moveAtomic(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (java.nio.file.AtomicMoveNotSupportedException ex) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Keeps the compressor from closing the file before it is synced
+     */
+    private static final class UncloseableOutputStream extends java.io.FilterOutputStream {
+        UncloseableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+}
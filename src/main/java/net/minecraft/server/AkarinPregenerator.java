@@ -0,0 +1,397 @@
+package net.minecraft.server;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import co.aikar.timings.ThreadTimings;
+import co.aikar.timings.TimingsMetrics;
+import io.akarin.server.api.world.Pregeneration;
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Pre-generates a square of chunks of a world on a thread of its own.
+ * <p>
+ * Chunks go through the chunk scheduler of the world like any generated chunk, and the
+ * finished proto chunks are handed to the region loader right away instead of becoming
+ * chunks of the world. Regions are visited in rings around the centre, the chunks of a
+ * region row by row, so that the neighbours a chunk needs are still around from the
+ * previous ones. The next chunks are handed to the stage workers ahead of time, and no
+ * more saves than the configured number of chunks in flight are left waiting.
+ * <p>
+ * The position in that order is saved in the world folder every few seconds and when
+ * the server stops, the pre-generation continues from there when the world loads again.
+ */
+public final class AkarinPregenerator implements Pregeneration {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String PROGRESS_FILE = "akarin_pregeneration.dat";
+    private static final long SAVE_INTERVAL = 5000L; // ms
+    private static final long REPORT_INTERVAL = 10000L; // ms
+    private static final int MAX_RADIUS = 20000; // keeps positions in the visiting order within an int
+    private static final Map<WorldServer, AkarinPregenerator> RUNNING = new ConcurrentHashMap<>();
+    private static final ThreadTimings.Section timing = ThreadTimings.of("Pregenerate Chunk");
+    private static final LongAdder GENERATED = TimingsMetrics.counter("pregeneration.generated-chunks");
+    private static final LongAdder SKIPPED = TimingsMetrics.counter("pregeneration.skipped-chunks");
+
+    private final WorldServer world;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final long[] regions; // in the order they are visited
+    private final Thread thread;
+
+    private volatile int index; // next chunk, region index * 1024 + index within the region
+    private final AtomicLong processed;
+    private final long processedBefore;
+    private volatile long startedAt;
+    private volatile boolean running = true;
+    private volatile boolean cancelled;
+    private volatile boolean complete;
+
+    private AkarinPregenerator(WorldServer world, int centerX, int centerZ, int radius, int index, long processed) {
+        this.world = world;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.regions = regionOrder(centerX, centerZ, radius);
+        this.index = index;
+        this.processed = new AtomicLong(processed);
+        this.processedBefore = processed;
+        this.thread = new Thread(this::run, "Akarin Pregenerator - " + world.getWorld().getName());
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.NORM_PRIORITY - 1);
+    }
+
+    /**
+     * Starts pre-generating a world, stopping the pre-generation of it that is still running
+     */
+    public static AkarinPregenerator start(WorldServer world, int centerX, int centerZ, int radius) {
+        if (!(world.getChunkProvider().chunkLoader instanceof ChunkRegionLoader)) {
+            throw new IllegalStateException("World " + world.getWorld().getName() + " is not stored in region files");
+        }
+        if (radius < 0 || radius > MAX_RADIUS) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_RADIUS + " chunks");
+        }
+
+        AkarinPregenerator previous = RUNNING.get(world);
+        if (previous != null) {
+            previous.stop(false);
+        }
+        return start(new AkarinPregenerator(world, centerX, centerZ, radius, 0, 0L));
+    }
+
+    private static AkarinPregenerator start(AkarinPregenerator pregenerator) {
+        RUNNING.put(pregenerator.world, pregenerator);
+        pregenerator.saveProgress();
+        pregenerator.startedAt = System.nanoTime();
+        pregenerator.thread.start();
+        return pregenerator;
+    }
+
+    @Nullable
+    public static AkarinPregenerator get(WorldServer world) {
+        return RUNNING.get(world);
+    }
+
+    /**
+     * Continues the pre-generation saved in the folder of a world, called once the world
+     * is loaded
+     */
+    public static void resume(WorldServer world) {
+        File file = progressFile(world);
+        if (!file.isFile() || RUNNING.containsKey(world) || !(world.getChunkProvider().chunkLoader instanceof ChunkRegionLoader)) {
+            return;
+        }
+
+        NBTTagCompound progress;
+        try (FileInputStream in = new FileInputStream(file)) {
+            progress = NBTCompressedStreamTools.a(in);
+        } catch (IOException ex) {
+            LOGGER.error("Couldn't read pre-generation progress of " + world.getWorld().getName(), ex);
+            return;
+        }
+
+        AkarinPregenerator pregenerator = new AkarinPregenerator(world, progress.getInt("CenterX"), progress.getInt("CenterZ"), progress.getInt("Radius"), progress.getInt("Index"), progress.getLong("Processed"));
+        LOGGER.info("Resuming pre-generation of {} at {}/{} chunks", world.getWorld().getName(), pregenerator.processed.get(), pregenerator.getTotalChunks());
+        start(pregenerator);
+    }
+
+    /**
+     * Stops the pre-generation of a world and saves its progress, called when the world
+     * is unloaded
+     */
+    public static void stop(WorldServer world) {
+        AkarinPregenerator pregenerator = RUNNING.get(world);
+        if (pregenerator != null) {
+            pregenerator.stop(false);
+        }
+    }
+
+    /**
+     * Stops every pre-generation and saves their progress, called before the server stops
+     */
+    public static void stopAll() {
+        for (AkarinPregenerator pregenerator : RUNNING.values()) {
+            pregenerator.stop(false);
+        }
+    }
+
+    private void stop(boolean discard) {
+        this.cancelled = discard;
+        this.running = false;
+        if (Thread.currentThread() == this.thread) {
+            return;
+        }
+        try {
+            this.thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static File progressFile(WorldServer world) {
+        return new File(world.getDataManager().getDirectory(), PROGRESS_FILE);
+    }
+
+    /**
+     * Regions covering the square, in rings around the region of the centre
+     */
+    private static long[] regionOrder(int centerX, int centerZ, int radius) {
+        int minX = (centerX - radius) >> 5;
+        int maxX = (centerX + radius) >> 5;
+        int minZ = (centerZ - radius) >> 5;
+        int maxZ = (centerZ + radius) >> 5;
+        int regionX = centerX >> 5;
+        int regionZ = centerZ >> 5;
+
+        Long[] regions = new Long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int i = 0;
+        for (int x = minX; x <= maxX; ++x) {
+            for (int z = minZ; z <= maxZ; ++z) {
+                regions[i++] = ChunkCoordIntPair.a(x, z);
+            }
+        }
+        Arrays.sort(regions, Comparator.<Long>comparingInt(region -> Math.max(Math.abs(getX(region) - regionX), Math.abs(getZ(region) - regionZ)))
+            .thenComparingInt(region -> getZ(region))
+            .thenComparingInt(region -> getX(region)));
+        return Arrays.stream(regions).mapToLong(Long::longValue).toArray();
+    }
+
+    private static int getX(long key) {
+        return (int) key;
+    }
+
+    private static int getZ(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private int chunkX(int index) {
+        return getX(this.regions[index >> 10]) << 5 | index & 31;
+    }
+
+    private int chunkZ(int index) {
+        return getZ(this.regions[index >> 10]) << 5 | index >> 5 & 31;
+    }
+
+    private boolean contains(int x, int z) {
+        return Math.abs(x - this.centerX) <= this.radius && Math.abs(z - this.centerZ) <= this.radius;
+    }
+
+    private void run() {
+        ChunkProviderServer provider = this.world.getChunkProvider();
+        ChunkRegionLoader loader = (ChunkRegionLoader) provider.chunkLoader;
+        int inFlight = Math.max(1, AkarinGlobalConfig.pregenerationChunksInFlight);
+        int end = this.regions.length << 10;
+        long lastSave = System.currentTimeMillis();
+        long lastReport = lastSave;
+
+        try {
+            for (int ahead = this.index; ahead < end && ahead < this.index + inFlight; ++ahead) {
+                this.prepare(provider, ahead);
+            }
+
+            while (this.running && this.index < end) {
+                int i = this.index;
+                if (i + inFlight < end) {
+                    this.prepare(provider, i + inFlight);
+                }
+
+                int x = this.chunkX(i);
+                int z = this.chunkZ(i);
+                if (this.contains(x, z)) {
+                    if (loader.chunkExists(x, z)) {
+                        SKIPPED.increment();
+                    } else {
+                        this.generate(provider, loader, x, z);
+                    }
+                    this.processed.incrementAndGet();
+                }
+                this.index = i + 1;
+
+                while (this.running && loader.getQueueSize() > inFlight) {
+                    Thread.sleep(5L); // let the file IO thread catch up
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastSave >= SAVE_INTERVAL) {
+                    lastSave = now;
+                    this.saveProgress();
+                }
+                if (now - lastReport >= REPORT_INTERVAL) {
+                    lastReport = now;
+                    LOGGER.info(this.describe());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable throwable) {
+            LOGGER.error("Pre-generation of " + this.world.getWorld().getName() + " failed, resuming it after a restart continues at chunk " + this.index, throwable);
+        } finally {
+            this.running = false;
+            RUNNING.remove(this.world, this);
+
+            if (this.index >= end || this.cancelled) {
+                this.complete = this.index >= end;
+                if (!progressFile(this.world).delete() && progressFile(this.world).exists()) {
+                    LOGGER.warn("Couldn't delete pre-generation progress of {}", this.world.getWorld().getName());
+                }
+                LOGGER.info(this.complete ? "Pre-generation of {} complete, {} chunks processed" : "Pre-generation of {} cancelled at {} chunks", this.world.getWorld().getName(), this.processed.get());
+            } else {
+                this.saveProgress();
+            }
+        }
+    }
+
+    private void prepare(ChunkProviderServer provider, int index) {
+        int x = this.chunkX(index);
+        int z = this.chunkZ(index);
+        if (this.contains(x, z)) {
+            provider.prepareGeneration(x, z);
+        }
+    }
+
+    private void generate(ChunkProviderServer provider, ChunkRegionLoader loader, int x, int z) throws IOException, ExceptionWorldConflict {
+        long start = timing.start();
+        try {
+            provider.batchScheduler.startBatch();
+            provider.batchScheduler.add(new ChunkCoordIntPair(x, z));
+            ProtoChunk protochunk = provider.batchScheduler.executeBatch().join();
+
+            // Loads of the world check the region files under the same lock, so either the
+            // world loaded or generated the chunk first, or it reads it from the save queue
+            synchronized (loader) {
+                provider.evictGenerated(x, z);
+                if (!provider.isLoaded(x, z) && !loader.chunkExists(x, z)) {
+                    loader.saveChunk(this.world, protochunk, true);
+                }
+            }
+            GENERATED.increment();
+        } finally {
+            timing.stop(start);
+        }
+    }
+
+    private void saveProgress() {
+        NBTTagCompound progress = new NBTTagCompound();
+        progress.setInt("CenterX", this.centerX);
+        progress.setInt("CenterZ", this.centerZ);
+        progress.setInt("Radius", this.radius);
+        progress.setInt("Index", this.index);
+        progress.setLong("Processed", this.processed.get());
+
+        File file = progressFile(this.world);
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                NBTCompressedStreamTools.a(progress, out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            LOGGER.error("Couldn't save pre-generation progress of " + this.world.getWorld().getName(), ex);
+        }
+    }
+
+    /**
+     * @return Progress, rate and time left, as reported to the console
+     */
+    public String describe() {
+        long processed = this.processed.get();
+        long total = this.getTotalChunks();
+        long left = this.getEstimatedSecondsLeft();
+        return String.format("Pre-generating %s: %d/%d chunks (%.2f%%), %.1f chunks/s, ETA %s",
+            this.world.getWorld().getName(), processed, total, total == 0 ? 100.0D : processed * 100.0D / total, this.getChunksPerSecond(),
+            left < 0 ? "unknown" : String.format("%d:%02d:%02d", left / 3600, left / 60 % 60, left % 60));
+    }
+
+    @Override
+    public org.bukkit.World getWorld() {
+        return this.world.getWorld();
+    }
+
+    @Override
+    public int getCenterX() {
+        return this.centerX;
+    }
+
+    @Override
+    public int getCenterZ() {
+        return this.centerZ;
+    }
+
+    @Override
+    public int getRadius() {
+        return this.radius;
+    }
+
+    @Override
+    public long getTotalChunks() {
+        long side = 2L * this.radius + 1;
+        return side * side;
+    }
+
+    @Override
+    public long getProcessedChunks() {
+        return this.processed.get();
+    }
+
+    @Override
+    public double getChunksPerSecond() {
+        double seconds = (System.nanoTime() - this.startedAt) / 1.0E9D;
+        return seconds <= 0.0D ? 0.0D : (this.processed.get() - this.processedBefore) / seconds;
+    }
+
+    @Override
+    public long getEstimatedSecondsLeft() {
+        double rate = this.getChunksPerSecond();
+        return rate <= 0.0D ? -1L : (long) ((this.getTotalChunks() - this.processed.get()) / rate);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    @Override
+    public void cancel() {
+        this.stop(true);
+    }
+}
@@ -0,0 +1,197 @@
+package net.minecraft.server;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+
+import co.aikar.timings.TimingsMetrics;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * Snapshot of the registered recipes, indexed by ingredient item.
+ * <p>
+ * Every item based recipe needs all of its ingredients in the grid, so it is filed under
+ * the items of its most selective ingredient and only considered when one of them is
+ * present. Recipes matched by code (dyeing, fireworks, repairs) are always considered.
+ * Priority follows the recipe map: recipes earlier in the map have a higher sequence and
+ * are tried first.
+ * <p>
+ * The index is immutable, the crafting manager drops it whenever recipes change and builds
+ * a new one on the next lookup.
+ */
+final class AkarinRecipeIndex {
+    private static final LongAdder LOOKUPS = TimingsMetrics.counter("crafting.recipe-index.lookups");
+    private static final LongAdder CANDIDATES = TimingsMetrics.counter("crafting.recipe-index.candidates");
+    private static final LongAdder CACHE_HITS = TimingsMetrics.counter("crafting.recipe-index.cache-hits");
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Reference2ObjectOpenHashMap<Item, Entry[]> byItem = new Reference2ObjectOpenHashMap<>();
+    private final Entry[] unindexed;
+    final int size;
+
+    private static final class Entry {
+        private final IRecipe recipe;
+        private final int sequence;
+        private final boolean itemOnly; // match depends on nothing but the items of the grid
+
+        Entry(IRecipe recipe, int sequence, boolean itemOnly) {
+            this.recipe = recipe;
+            this.sequence = sequence;
+            this.itemOnly = itemOnly;
+        }
+    }
+
+    /**
+     * Best item only match of a container's last lookup, reused while the grid holds the same items
+     */
+    static final class LastMatch {
+        private AkarinRecipeIndex index;
+        private Item[] items;
+        private Entry match;
+    }
+
+    /**
+     * @param recipes Recipes in lookup order
+     */
+    AkarinRecipeIndex(Collection<IRecipe> recipes) {
+        Reference2ObjectOpenHashMap<Item, List<Entry>> byItem = new Reference2ObjectOpenHashMap<>();
+        List<Entry> unindexed = Lists.newArrayList();
+        int sequence = recipes.size();
+
+        for (IRecipe irecipe : recipes) {
+            RecipeItemStack selective = null;
+            boolean itemOnly = irecipe instanceof ShapedRecipes || irecipe instanceof ShapelessRecipes || irecipe instanceof FurnaceRecipe;
+
+            for (RecipeItemStack ingredient : irecipe.e()) {
+                if (ingredient.d()) {
+                    continue;
+                }
+                ingredient.buildChoices();
+                itemOnly &= !ingredient.exact;
+                if (selective == null || ingredient.choices.length < selective.choices.length) {
+                    selective = ingredient;
+                }
+            }
+
+            Entry entry = new Entry(irecipe, sequence--, itemOnly);
+            if (selective == null || selective.choices.length == 0 || hasEmptyChoice(selective)) {
+                unindexed.add(entry);
+                continue;
+            }
+
+            for (ItemStack choice : selective.choices) {
+                List<Entry> entries = byItem.computeIfAbsent(choice.getItem(), item -> Lists.newArrayList());
+                // the same item may be listed twice, entries are added in sequence order
+                if (entries.isEmpty() || entries.get(entries.size() - 1) != entry) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        for (Reference2ObjectOpenHashMap.Entry<Item, List<Entry>> entry : byItem.reference2ObjectEntrySet()) {
+            this.byItem.put(entry.getKey(), entry.getValue().toArray(NO_ENTRIES));
+        }
+        this.unindexed = unindexed.toArray(NO_ENTRIES);
+        this.size = recipes.size();
+    }
+
+    private static boolean hasEmptyChoice(RecipeItemStack ingredient) {
+        for (ItemStack choice : ingredient.choices) {
+            if (choice.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the recipe a linear scan over the recipe map would find first
+     */
+    @Nullable
+    IRecipe find(IInventory iinventory, World world, @Nullable LastMatch last) {
+        LOOKUPS.increment();
+        int size = iinventory.getSize();
+        Item[] items = new Item[size];
+        for (int i = 0; i < size; ++i) {
+            items[i] = iinventory.getItem(i).getItem();
+        }
+
+        Entry match;
+        if (last != null && last.index == this && Arrays.equals(last.items, items)) {
+            CACHE_HITS.increment();
+            match = last.match;
+        } else {
+            match = null;
+            boolean itemOnly = true;
+            for (Entry entry : this.candidates(items)) {
+                CANDIDATES.increment();
+                itemOnly &= entry.itemOnly;
+                if (entry.recipe.a(iinventory, world)) {
+                    match = entry;
+                    break;
+                }
+            }
+
+            if (last != null) {
+                last.index = itemOnly ? this : null;
+                last.items = items;
+                last.match = match;
+            }
+        }
+
+        // recipes matched by code may still take priority
+        int sequence = match != null ? match.sequence : 0;
+        for (Entry entry : this.unindexed) {
+            if (entry.sequence <= sequence) {
+                break;
+            }
+            CANDIDATES.increment();
+            if (entry.recipe.a(iinventory, world)) {
+                return entry.recipe;
+            }
+        }
+
+        return match != null ? match.recipe : null;
+    }
+
+    private List<Entry> candidates(Item[] items) {
+        List<Entry> candidates = Lists.newArrayList();
+        int lists = 0;
+
+        for (int i = 0; i < items.length; ++i) {
+            Item item = items[i];
+            if (item == Items.AIR || indexOf(items, item) < i) {
+                continue;
+            }
+            Entry[] entries = this.byItem.get(item);
+            if (entries != null) {
+                candidates.addAll(Arrays.asList(entries));
+                ++lists;
+            }
+        }
+
+        if (lists > 1) {
+            candidates.sort((first, second) -> Integer.compare(second.sequence, first.sequence));
+            for (int i = candidates.size() - 1; i > 0; --i) {
+                if (candidates.get(i) == candidates.get(i - 1)) {
+                    candidates.remove(i);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static int indexOf(Item[] items, Item item) {
+        for (int i = 0; i < items.length; ++i) {
+            if (items[i] == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,356 @@
+package net.minecraft.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Compression of chunk data in the region files of one world. The codec id is written
+ * to the compression type byte in front of every chunk, so chunks written with different
+ * codecs live side by side and are always read back with the codec that wrote them.
+ * <p>
+ * The dictionary codec is raw deflate primed with a preset dictionary trained on the
+ * first chunks the world saves, kept next to the region files. Once written the
+ * dictionary never changes, chunks depend on it: every such chunk starts with the id of
+ * the dictionary it was written with, and reading it without that dictionary fails
+ * instead of handing back nothing, which would get the chunk generated again.
+ */
+public class AkarinRegionCompression {
+    public static final int GZIP = 1;
+    public static final int ZLIB = 2;
+    public static final int NONE = 3;
+    public static final int DEFLATE_DICTIONARY = 126;
+
+    private static final int DICTIONARY_SAMPLES = 64;
+    private static final int DICTIONARY_SAMPLE_SIZE = 256 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024; // the deflate window, older bytes are never referenced
+    private static final int SEGMENT_SIZE = 64;
+    private static final int DMER_SIZE = 8;
+    private static final int DMER_TABLE_BITS = 20;
+
+    public enum Codec {
+        ZLIB, DICTIONARY, NONE;
+
+        public static Codec byName(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                MinecraftServer.LOGGER.warn("Unknown chunk compression codec '" + name + "', using zlib");
+                return ZLIB;
+            }
+        }
+    }
+
+    private final Codec codec;
+    private final int level;
+    private final File dictionaryFile;
+    private volatile Dictionary dictionary;
+    private volatile boolean dictionaryLoaded;
+    private List<byte[]> samples = Lists.newArrayListWithCapacity(DICTIONARY_SAMPLES);
+
+    /**
+     * @param worldFolder Folder holding the world's region folder
+     * @param codec Codec new chunks are written with
+     * @param level Deflate level, or -1 to scale with the chunk size
+     */
+    public AkarinRegionCompression(File worldFolder, Codec codec, int level) {
+        this.codec = codec;
+        this.level = Math.min(level, 9);
+        this.dictionaryFile = new File(new File(worldFolder, "region"), "chunks.dict");
+    }
+
+    public Codec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * Compresses a chunk
+     *
+     * @return Codec id the data was written with
+     */
+    int compress(byte[] buf, int length, ByteArrayOutputStream out) throws IOException {
+        switch (this.codec) {
+            case NONE:
+                out.write(buf, 0, length);
+                return NONE;
+            case DICTIONARY:
+                Dictionary dictionary = this.sampleOrGetDictionary(buf, length);
+                if (dictionary != null) {
+                    Deflater deflater = new Deflater(this.getLevel(length), true);
+                    deflater.setDictionary(dictionary.bytes);
+                    writeInt(out, dictionary.id);
+                    deflate(deflater, buf, length, out);
+                    return DEFLATE_DICTIONARY;
+                }
+                // still sampling, write plain zlib until the dictionary exists
+            default:
+                deflate(new Deflater(this.getLevel(length)), buf, length, out);
+                return ZLIB;
+        }
+    }
+
+    /**
+     * Wraps compressed chunk data
+     *
+     * @return Decompressing stream, or null if the codec id is unknown
+     */
+    @Nullable
+    InputStream decompress(int id, InputStream in) throws IOException {
+        switch (id) {
+            case GZIP:
+                return new GZIPInputStream(in);
+            case ZLIB:
+                return new InflaterInputStream(in);
+            case NONE:
+                return in;
+            case DEFLATE_DICTIONARY:
+                int dictionaryId = readInt(in);
+                Dictionary dictionary = this.getDictionary();
+                if (dictionary == null) {
+                    throw new DictionaryException("Chunk was compressed with dictionary " + Integer.toHexString(dictionaryId) + " but " + this.dictionaryFile + " is missing");
+                } else if (dictionary.id != dictionaryId) {
+                    throw new DictionaryException("Chunk was compressed with dictionary " + Integer.toHexString(dictionaryId) + " but " + this.dictionaryFile + " is " + Integer.toHexString(dictionary.id));
+                }
+                Inflater inflater = new Inflater(true);
+                inflater.setDictionary(dictionary.bytes);
+                return new InflaterInputStream(in, inflater) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        this.inf.end();
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    private int getLevel(int length) {
+        if (this.level >= 0) {
+            return this.level;
+        }
+        // Paper - dynamic compression level
+        if (length > 1024 * 512) {
+            return 9;
+        } else if (length > 1024 * 128) {
+            return 8;
+        } else {
+            return 6;
+        }
+    }
+
+    private static void deflate(Deflater deflater, byte[] buf, int length, ByteArrayOutputStream out) {
+        try {
+            deflater.setInput(buf, 0, length);
+            deflater.finish();
+
+            byte[] buffer = new byte[1024 * (length > 1024 * 124 ? 32 : 16)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static int readInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; ++i) {
+            int b = in.read();
+            if (b == -1) {
+                throw new java.io.EOFException();
+            }
+            value = value << 8 | b;
+        }
+        return value;
+    }
+
+    @Nullable
+    private Dictionary getDictionary() throws IOException {
+        Dictionary dictionary = this.dictionary;
+        if (dictionary != null || this.dictionaryLoaded) {
+            return dictionary;
+        }
+
+        synchronized (this) {
+            if (!this.dictionaryLoaded) {
+                if (this.dictionaryFile.exists()) {
+                    this.dictionary = new Dictionary(Files.readAllBytes(this.dictionaryFile.toPath()));
+                    this.samples = null;
+                }
+                this.dictionaryLoaded = true;
+            }
+            return this.dictionary;
+        }
+    }
+
+    @Nullable
+    private Dictionary sampleOrGetDictionary(byte[] buf, int length) throws IOException {
+        Dictionary dictionary = this.getDictionary();
+        if (dictionary != null) {
+            return dictionary;
+        }
+
+        synchronized (this) {
+            if (this.dictionary != null) {
+                return this.dictionary;
+            }
+
+            byte[] sample = new byte[Math.min(length, DICTIONARY_SAMPLE_SIZE)];
+            System.arraycopy(buf, 0, sample, 0, sample.length);
+            this.samples.add(sample);
+            if (this.samples.size() < DICTIONARY_SAMPLES) {
+                return null;
+            }
+
+            dictionary = new Dictionary(train(this.samples));
+
+            File temp = new File(this.dictionaryFile.getParentFile(), this.dictionaryFile.getName() + ".tmp");
+            Files.write(temp.toPath(), dictionary.bytes);
+            Files.move(temp.toPath(), this.dictionaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            MinecraftServer.LOGGER.info("Built chunk compression dictionary " + this.dictionaryFile + " (" + Integer.toHexString(dictionary.id) + ") from " + this.samples.size() + " chunks");
+
+            this.dictionary = dictionary;
+            this.samples = null;
+            return dictionary;
+        }
+    }
+
+    /**
+     * Picks the segments of the samples whose content is shared by the most samples,
+     * a greedy cover of their 8 byte substrings. Segments are ordered best last, deflate
+     * reaches the end of the dictionary with the shortest distances.
+     */
+    static byte[] train(List<byte[]> samples) {
+        int[] frequency = new int[1 << DMER_TABLE_BITS];
+        int[] lastSample = new int[1 << DMER_TABLE_BITS];
+        java.util.Arrays.fill(lastSample, -1);
+        for (int sample = 0; sample < samples.size(); ++sample) {
+            byte[] data = samples.get(sample);
+            for (int pos = 0; pos + DMER_SIZE <= data.length; ++pos) {
+                int bucket = dmer(data, pos);
+                if (lastSample[bucket] != sample) {
+                    lastSample[bucket] = sample;
+                    ++frequency[bucket];
+                }
+            }
+        }
+
+        PriorityQueue<Segment> queue = new PriorityQueue<>((a, b) -> Integer.compare(b.score, a.score));
+        for (int sample = 0; sample < samples.size(); ++sample) {
+            byte[] data = samples.get(sample);
+            for (int pos = 0; pos + SEGMENT_SIZE <= data.length; pos += SEGMENT_SIZE / 2) {
+                int score = score(data, pos, frequency);
+                if (score > 0) {
+                    queue.add(new Segment(sample, pos, score));
+                }
+            }
+        }
+
+        List<Segment> chosen = Lists.newArrayList();
+        while (chosen.size() * SEGMENT_SIZE < DICTIONARY_SIZE && !queue.isEmpty()) {
+            Segment segment = queue.poll();
+            byte[] data = samples.get(segment.sample);
+            // substrings taken by segments chosen since it was scored no longer count
+            int score = score(data, segment.pos, frequency);
+            if (score < segment.score) {
+                segment.score = score;
+                if (score > 0) {
+                    queue.add(segment);
+                }
+                continue;
+            }
+
+            chosen.add(segment);
+            for (int pos = segment.pos; pos + DMER_SIZE <= segment.pos + SEGMENT_SIZE; ++pos) {
+                frequency[dmer(data, pos)] = 0;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(DICTIONARY_SIZE);
+        for (int i = chosen.size() - 1; i >= 0; --i) {
+            Segment segment = chosen.get(i);
+            out.write(samples.get(segment.sample), segment.pos, SEGMENT_SIZE);
+        }
+        if (out.size() == 0) {
+            // nothing repeats between the samples, the first one is as good as anything
+            byte[] first = samples.get(0);
+            out.write(first, 0, Math.min(first.length, DICTIONARY_SIZE));
+        }
+        return out.toByteArray();
+    }
+
+    private static int dmer(byte[] data, int pos) {
+        long value = 0L;
+        for (int i = 0; i < DMER_SIZE; ++i) {
+            value = value << 8 | (data[pos + i] & 0xFF);
+        }
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> (64 - DMER_TABLE_BITS));
+    }
+
+    private static int score(byte[] data, int start, int[] frequency) {
+        int score = 0;
+        for (int pos = start; pos + DMER_SIZE <= start + SEGMENT_SIZE; ++pos) {
+            int count = frequency[dmer(data, pos)];
+            if (count > 1) { // only what other chunks share helps them
+                score += count;
+            }
+        }
+        return score;
+    }
+
+    private static class Segment {
+        final int sample;
+        final int pos;
+        int score;
+
+        Segment(int sample, int pos, int score) {
+            this.sample = sample;
+            this.pos = pos;
+            this.score = score;
+        }
+    }
+
+    private static class Dictionary {
+        final byte[] bytes;
+        final int id;
+
+        Dictionary(byte[] bytes) {
+            this.bytes = bytes;
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+            this.id = (int) crc.getValue();
+        }
+    }
+
+    /**
+     * The dictionary a chunk was written with is missing or is not the one next to the region files
+     */
+    public static class DictionaryException extends IOException {
+        DictionaryException(String message) {
+            super(message);
+        }
+    }
+}
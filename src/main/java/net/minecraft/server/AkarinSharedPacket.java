@@ -0,0 +1,197 @@
+package net.minecraft.server;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+import javax.annotation.Nullable;
+
+import co.aikar.timings.TimingsMetrics;
+import io.akarin.server.core.AkarinGlobalConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * A play packet serialized once for a broadcast. Every target connection writes a
+ * retained duplicate of the same buffer straight past the encoder (and the compressor,
+ * once the compressed frame has been built), so N receivers cost one encode and at most
+ * one deflate. The broadcaster owns the initial reference and must {@link #release()} it
+ * once every target has been handed the packet.
+ */
+public final class AkarinSharedPacket implements Packet<PacketListenerPlayOut> {
+    private static final int MAX_PACKET_SIZE = 2097152;
+    private static final LongAdder ENCODES = TimingsMetrics.counter("network.shared-packets.encodes");
+    private static final LongAdder ENCODES_SAVED = TimingsMetrics.counter("network.shared-packets.encodes-saved");
+    private static final LongAdder BYTES_SAVED = TimingsMetrics.counter("network.shared-packets.bytes-saved");
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<byte[]> DEFLATE_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private final Packet<?> packet;
+    private final ByteBuf raw;
+    private final int compressionThreshold;
+    private ByteBuf compressed;
+    private int writes;
+
+    private AkarinSharedPacket(Packet<?> packet, ByteBuf raw, int compressionThreshold) {
+        this.packet = packet;
+        this.raw = raw;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Serializes the packet for sharing between connections
+     *
+     * @param packet Packet to broadcast
+     * @return Shared packet, or null if sharing is disabled or the packet must be encoded per connection
+     */
+    @Nullable
+    public static AkarinSharedPacket of(Packet<?> packet) {
+        if (!AkarinGlobalConfig.sharedBroadcastPackets || packet instanceof AkarinSharedPacket || !canShare(packet)) {
+            return null;
+        }
+
+        Integer id = EnumProtocol.PLAY.a(EnumProtocolDirection.CLIENTBOUND, packet);
+        if (id == null) {
+            return null;
+        }
+
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            PacketDataSerializer serializer = new PacketDataSerializer(buffer);
+            serializer.d(id);
+            packet.b(serializer);
+        } catch (Throwable throwable) {
+            // let the regular per connection path deal with, and report, broken packets
+            buffer.release();
+            return null;
+        }
+
+        if (buffer.readableBytes() > MAX_PACKET_SIZE) {
+            buffer.release();
+            return null;
+        }
+
+        ENCODES.increment();
+        return new AkarinSharedPacket(packet, buffer, MinecraftServer.getServer().aw());
+    }
+
+    private static boolean canShare(Packet<?> packet) {
+        // Typed packets are inspected per player, chunks are per player under anti-xray
+        return packet.getType() == io.akarin.server.core.PacketType.UNKNOWN && packet.canDispatchImmediately() && packet.getExtraPackets() == null && !(packet instanceof PacketPlayOutMapChunk);
+    }
+
+    public Packet<?> getPacket() {
+        return this.packet;
+    }
+
+    /**
+     * @return A retained duplicate of the uncompressed frame (packet id and payload)
+     */
+    ByteBuf retainRaw() {
+        this.onWrite(this.raw.readableBytes());
+        return this.raw.retainedDuplicate();
+    }
+
+    /**
+     * @return A retained duplicate of the frame as PacketCompressor would have produced it
+     */
+    synchronized ByteBuf retainCompressed() {
+        if (this.compressed == null) {
+            this.compressed = this.compress(this.compressionThreshold);
+        }
+
+        this.onWrite(this.compressed.readableBytes());
+        return this.compressed.retainedDuplicate();
+    }
+
+    private ByteBuf compress(int threshold) {
+        int length = this.raw.readableBytes();
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(length + 5);
+        PacketDataSerializer serializer = new PacketDataSerializer(buffer);
+
+        if (length < threshold) {
+            serializer.d(0);
+            serializer.writeBytes(this.raw, this.raw.readerIndex(), length);
+        } else {
+            byte[] input = new byte[length];
+            this.raw.getBytes(this.raw.readerIndex(), input);
+            serializer.d(length);
+
+            Deflater deflater = DEFLATER.get();
+            byte[] output = DEFLATE_BUFFER.get();
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int written = deflater.deflate(output);
+                serializer.writeBytes(output, 0, written);
+            }
+            deflater.reset();
+        }
+
+        return buffer;
+    }
+
+    private synchronized void onWrite(int bytes) {
+        if (this.writes++ > 0) {
+            ENCODES_SAVED.increment();
+            BYTES_SAVED.add(bytes);
+        }
+    }
+
+    /**
+     * Drops the broadcaster's reference, connections keep their own until written
+     */
+    public synchronized void release() {
+        this.raw.release();
+        if (this.compressed != null) {
+            this.compressed.release();
+            this.compressed = null;
+        }
+    }
+
+    /**
+     * Hands out the packet to broadcast targets. The first target gets the plain packet so
+     * single receiver broadcasts cost nothing extra, the rest share one encoded copy.
+     */
+    public static final class Broadcast {
+        private final Packet<?> packet;
+        private AkarinSharedPacket shared;
+        private int targets;
+
+        public Broadcast(Packet<?> packet) {
+            this.packet = packet;
+        }
+
+        public Packet<?> next() {
+            if (this.targets++ == 0) {
+                return this.packet;
+            }
+            if (this.targets == 2) {
+                this.shared = AkarinSharedPacket.of(this.packet);
+            }
+            return this.shared != null ? this.shared : this.packet;
+        }
+
+        public void release() {
+            if (this.shared != null) {
+                this.shared.release();
+                this.shared = null;
+            }
+        }
+    }
+
+    @Override
+    public void a(PacketDataSerializer packetdataserializer) throws IOException {
+        throw new UnsupportedOperationException("Shared packets are outbound only");
+    }
+
+    @Override
+    public void b(PacketDataSerializer packetdataserializer) throws IOException {
+        this.packet.b(packetdataserializer);
+    }
+
+    @Override
+    public void a(PacketListenerPlayOut packetlistenerplayout) {
+        throw new UnsupportedOperationException("Shared packets are outbound only");
+    }
+}
@@ -0,0 +1,207 @@
+package net.minecraft.server;
+
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+/**
+ * Chunk column grid of tracker entries and players, used by {@link EntityTracker}
+ * to only range check players and entries that can possibly see each other.
+ * Cells are keyed by {@link ChunkCoordIntPair#a(int, int)}, entries are placed
+ * by their last synced position since that is what the range check uses.
+ */
+public class AkarinTrackerGrid {
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    private final Long2ObjectOpenHashMap<ObjectOpenHashSet<EntityTrackerEntry>> entryCells = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<ObjectOpenHashSet<EntityPlayer>> playerCells = new Long2ObjectOpenHashMap<>();
+    private final Object2LongOpenHashMap<EntityPlayer> playerCell = new Object2LongOpenHashMap<>();
+    private final java.util.Map<EntityPlayer, ObjectOpenHashSet<EntityTrackerEntry>> trackingByPlayer = new java.util.HashMap<>();
+    // Vehicles and passengers are in range through each other, so they are always checked
+    private final ObjectOpenHashSet<EntityTrackerEntry> mounted = new ObjectOpenHashSet<>();
+    private int maxRange;
+
+    public AkarinTrackerGrid() {
+        this.playerCell.defaultReturnValue(NO_CELL);
+    }
+
+    private static long cellOf(double x, double z) {
+        return ChunkCoordIntPair.a(MathHelper.floor(x) >> 4, MathHelper.floor(z) >> 4);
+    }
+
+    private static long cellOf(EntityTrackerEntry entry) {
+        return cellOf((double) entry.xLoc / 4096.0D, (double) entry.zLoc / 4096.0D);
+    }
+
+    // Entries
+
+    public void addEntry(EntityTrackerEntry entry) {
+        entry.grid = this;
+        this.maxRange = Math.max(this.maxRange, entry.getRange());
+        this.moveEntry(entry, cellOf(entry));
+    }
+
+    public void updateEntry(EntityTrackerEntry entry) {
+        long cell = cellOf(entry);
+
+        if (cell != entry.gridCell) {
+            this.moveEntry(entry, cell);
+        }
+
+        Entity entity = entry.b();
+        if (entity.isPassenger() || entity.isVehicle()) {
+            this.mounted.add(entry);
+        } else {
+            this.mounted.remove(entry);
+        }
+    }
+
+    private void moveEntry(EntityTrackerEntry entry, long cell) {
+        if (entry.gridCell != NO_CELL) {
+            ObjectOpenHashSet<EntityTrackerEntry> old = this.entryCells.get(entry.gridCell);
+
+            if (old != null && old.remove(entry) && old.isEmpty()) {
+                this.entryCells.remove(entry.gridCell);
+            }
+        }
+
+        entry.gridCell = cell;
+        if (cell != NO_CELL) {
+            this.entryCells.computeIfAbsent(cell, (key) -> new ObjectOpenHashSet<>()).add(entry);
+        }
+    }
+
+    public void removeEntry(EntityTrackerEntry entry) {
+        this.moveEntry(entry, NO_CELL);
+        this.mounted.remove(entry);
+
+        for (EntityPlayer player : entry.trackedPlayers) {
+            this.onUntrack(player, entry);
+        }
+        entry.grid = null;
+    }
+
+    // Players
+
+    public void updatePlayer(EntityPlayer player) {
+        long cell = cellOf(player.locX, player.locZ);
+        long old = this.playerCell.put(player, cell);
+
+        if (old == cell) {
+            return;
+        }
+
+        if (old != NO_CELL) {
+            ObjectOpenHashSet<EntityPlayer> players = this.playerCells.get(old);
+
+            if (players != null && players.remove(player) && players.isEmpty()) {
+                this.playerCells.remove(old);
+            }
+        }
+
+        this.playerCells.computeIfAbsent(cell, (key) -> new ObjectOpenHashSet<>()).add(player);
+    }
+
+    public void updatePlayers(List<EntityHuman> players) {
+        for (int i = 0; i < players.size(); ++i) {
+            this.updatePlayer((EntityPlayer) players.get(i));
+        }
+    }
+
+    public void removePlayer(EntityPlayer player) {
+        long old = this.playerCell.removeLong(player);
+
+        if (old != NO_CELL) {
+            ObjectOpenHashSet<EntityPlayer> players = this.playerCells.get(old);
+
+            if (players != null && players.remove(player) && players.isEmpty()) {
+                this.playerCells.remove(old);
+            }
+        }
+        this.trackingByPlayer.remove(player);
+    }
+
+    // Tracking state, kept so a moving player can drop entries that are now out of range
+
+    void onTrack(EntityPlayer player, EntityTrackerEntry entry) {
+        this.trackingByPlayer.computeIfAbsent(player, (key) -> new ObjectOpenHashSet<>()).add(entry);
+    }
+
+    void onUntrack(EntityPlayer player, EntityTrackerEntry entry) {
+        Set<EntityTrackerEntry> entries = this.trackingByPlayer.get(player);
+
+        if (entries != null) {
+            entries.remove(entry);
+        }
+    }
+
+    public Set<EntityTrackerEntry> getTracking(EntityPlayer player) {
+        Set<EntityTrackerEntry> entries = this.trackingByPlayer.get(player);
+        return entries == null ? java.util.Collections.emptySet() : entries;
+    }
+
+    // Queries
+
+    /**
+     * Players that may be in range of the entry, plus every player it currently tracks.
+     */
+    public List<EntityHuman> nearbyPlayers(EntityTrackerEntry entry, List<EntityHuman> all) {
+        Entity entity = entry.b();
+
+        if (entity.isPassenger() || entity.isVehicle()) {
+            return all;
+        }
+
+        int range = entry.getRange();
+        double syncedX = (double) entry.xLoc / 4096.0D;
+        double syncedZ = (double) entry.zLoc / 4096.0D;
+        // the synced position may lag behind the entity, cover both
+        int minX = (MathHelper.floor(Math.min(syncedX, entity.locX)) - range >> 4) - 1;
+        int maxX = (MathHelper.floor(Math.max(syncedX, entity.locX)) + range >> 4) + 1;
+        int minZ = (MathHelper.floor(Math.min(syncedZ, entity.locZ)) - range >> 4) - 1;
+        int maxZ = (MathHelper.floor(Math.max(syncedZ, entity.locZ)) + range >> 4) + 1;
+
+        ObjectOpenHashSet<EntityPlayer> result = new ObjectOpenHashSet<>(entry.trackedPlayers);
+        for (int x = minX; x <= maxX; ++x) {
+            for (int z = minZ; z <= maxZ; ++z) {
+                ObjectOpenHashSet<EntityPlayer> players = this.playerCells.get(ChunkCoordIntPair.a(x, z));
+
+                if (players != null) {
+                    result.addAll(players);
+                }
+            }
+        }
+
+        return Lists.newArrayList(result);
+    }
+
+    /**
+     * Entries the player may be in range of, plus every entry currently tracking the player.
+     */
+    public Set<EntityTrackerEntry> nearbyEntries(EntityPlayer player) {
+        int range = Math.min(this.maxRange, Math.max(0, (player.getViewDistance() - 1) * 16));
+        int minX = (MathHelper.floor(player.locX) - range >> 4) - 1;
+        int maxX = (MathHelper.floor(player.locX) + range >> 4) + 1;
+        int minZ = (MathHelper.floor(player.locZ) - range >> 4) - 1;
+        int maxZ = (MathHelper.floor(player.locZ) + range >> 4) + 1;
+
+        ObjectOpenHashSet<EntityTrackerEntry> result = new ObjectOpenHashSet<>(this.getTracking(player));
+        result.addAll(this.mounted);
+        for (int x = minX; x <= maxX; ++x) {
+            for (int z = minZ; z <= maxZ; ++z) {
+                ObjectOpenHashSet<EntityTrackerEntry> entries = this.entryCells.get(ChunkCoordIntPair.a(x, z));
+
+                if (entries != null) {
+                    result.addAll(entries);
+                }
+            }
+        }
+
+        return result;
+    }
+}
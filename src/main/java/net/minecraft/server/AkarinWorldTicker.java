@@ -0,0 +1,135 @@
+package net.minecraft.server;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BooleanSupplier;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import co.aikar.timings.ThreadTimings;
+import io.akarin.server.core.AkarinGlobalConfig;
+
+/**
+ * Ticks worlds concurrently, one task per world, with the main thread waiting for all of
+ * them before the cross-world phases of the tick (connections, player list, scheduler).
+ * <p>
+ * Dimension changes are deferred to after the barrier. If a world tick touches the chunks
+ * of another world, e.g. a plugin teleporting an entity from an event, the ticker falls
+ * back to sequential ticking for the rest of the server's life.
+ */
+public class AkarinWorldTicker {
+    private static final ForkJoinPool pool = new ForkJoinPool(AkarinGlobalConfig.parallelWorldTickingThreads, WorldTickThread::new, null, false);
+    private static final Queue<DimensionChange> deferred = new ConcurrentLinkedQueue<>();
+    private static volatile boolean tripped;
+    static volatile boolean parallelPhase;
+
+    public static final class WorldTickThread extends ForkJoinWorkerThread implements ThreadTimings.ParallelThread {
+        private WorldServer world;
+
+        WorldTickThread(ForkJoinPool pool) {
+            super(pool);
+            this.setName("Akarin World Tick Thread - " + this.getPoolIndex());
+        }
+    }
+
+    private static final class DimensionChange {
+        private final Entity entity;
+        private final World from;
+        private final DimensionManager to;
+
+        DimensionChange(Entity entity, DimensionManager to) {
+            this.entity = entity;
+            this.from = entity.world;
+            this.to = to;
+        }
+    }
+
+    /**
+     * @return Whether the current thread is ticking a world, and so acts as the main thread
+     */
+    public static boolean isWorldTickThread() {
+        return parallelPhase && Thread.currentThread() instanceof WorldTickThread;
+    }
+
+    static boolean shouldTickParallel(Iterable<WorldServer> worlds) {
+        return AkarinGlobalConfig.parallelWorldTicking && !tripped && Iterables.size(worlds) > 1;
+    }
+
+    static void tickWorlds(MinecraftServer server, Iterable<WorldServer> worlds, BooleanSupplier booleansupplier) {
+        List<ForkJoinTask<?>> tasks = Lists.newArrayList();
+        parallelPhase = true;
+        try {
+            for (WorldServer world : worlds) {
+                tasks.add(pool.submit(() -> {
+                    WorldTickThread thread = (WorldTickThread) Thread.currentThread();
+                    thread.world = world;
+                    try {
+                        server.tickWorld(world, booleansupplier);
+                    } finally {
+                        thread.world = null;
+                    }
+                }));
+            }
+
+            RuntimeException failure = null;
+            for (ForkJoinTask<?> task : tasks) {
+                try {
+                    task.join();
+                } catch (RuntimeException exception) {
+                    if (failure == null) {
+                        failure = exception;
+                    } else {
+                        failure.addSuppressed(exception);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            parallelPhase = false;
+        }
+
+        DimensionChange change;
+        while ((change = deferred.poll()) != null) {
+            if (!change.entity.dead && change.entity.world == change.from) {
+                change.entity.a(change.to);
+            }
+        }
+    }
+
+    /**
+     * Queues a dimension change requested while worlds tick in parallel
+     *
+     * @return Whether the change was deferred to after the world tick barrier
+     */
+    static boolean deferDimensionChange(Entity entity, DimensionManager to) {
+        if (!isWorldTickThread()) {
+            return false;
+        }
+        deferred.add(new DimensionChange(entity, to));
+        return true;
+    }
+
+    /**
+     * Trips the fallback if a world tick reaches into another world
+     */
+    static void checkAccess(World world) {
+        Thread thread = Thread.currentThread();
+
+        if (thread instanceof WorldTickThread) {
+            WorldServer ticking = ((WorldTickThread) thread).world;
+
+            if (ticking != null && ticking != world && !tripped) {
+                tripped = true;
+                MinecraftServer.LOGGER.warn("World " + ticking.getWorldData().getName() + " accessed world " + world.getWorldData().getName() + " while ticking in parallel, "
+                    + "falling back to sequential world ticking. This is usually a plugin teleporting or spawning across worlds from an event.", new Throwable());
+            }
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class BlockDaylightDetector extends BlockTileEntity {
 
             i = MathHelper.clamp(i, 0, 15);
             if ((Integer) iblockdata.get(BlockDaylightDetector.POWER) != i) {
-                i = org.bukkit.craftbukkit.event.CraftEventFactory.callRedstoneChange(world, blockposition, ((Integer) iblockdata.get(POWER)), i).getNewCurrent(); // CraftBukkit - Call BlockRedstoneEvent
+                i = org.bukkit.craftbukkit.event.CraftEventFactory.handleRedstoneChange(world, blockposition, ((Integer) iblockdata.get(POWER)), i); // CraftBukkit - Call BlockRedstoneEvent // Akarin
                 world.setTypeAndData(blockposition, (IBlockData) iblockdata.set(BlockDaylightDetector.POWER, i), 3);
             }
 
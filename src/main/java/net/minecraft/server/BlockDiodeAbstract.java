@@ -32,14 +32,14 @@ public abstract class BlockDiodeAbstract extends BlockFacingHorizontal {
 
             if (flag && !flag1) {
                 // CraftBukkit start
-                if (CraftEventFactory.callRedstoneChange(world, blockposition, 15, 0).getNewCurrent() != 0) {
+                if (CraftEventFactory.handleRedstoneChange(world, blockposition, 15, 0) != 0) { // Akarin
                     return;
                 }
                 // CraftBukkit end
                 world.setTypeAndData(blockposition, (IBlockData) iblockdata.set(BlockDiodeAbstract.c, false), 2);
             } else if (!flag) {
                 // CraftBukkit start
-                if (CraftEventFactory.callRedstoneChange(world, blockposition, 0, 15).getNewCurrent() != 15) {
+                if (CraftEventFactory.handleRedstoneChange(world, blockposition, 0, 15) != 15) { // Akarin
                     return;
                 }
                 // CraftBukkit end
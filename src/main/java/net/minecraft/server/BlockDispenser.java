@@ -11,7 +11,6 @@ public class BlockDispenser extends BlockTileEntity {
     public static final Map<Item, IDispenseBehavior> REGISTRY = (Map) SystemUtils.a((new Object2ObjectOpenHashMap()), (object2objectopenhashmap) -> { // CraftBukkit - decompile error
         object2objectopenhashmap.defaultReturnValue(new DispenseBehaviorItem());
     });
-    public static boolean eventFired = false; // CraftBukkit
 
     public static void a(IMaterial imaterial, IDispenseBehavior idispensebehavior) {
         BlockDispenser.REGISTRY.put(imaterial.getItem(), idispensebehavior);
@@ -57,7 +56,7 @@ public class BlockDispenser extends BlockTileEntity {
             IDispenseBehavior idispensebehavior = this.a(itemstack);
 
             if (idispensebehavior != IDispenseBehavior.NONE) {
-                eventFired = false; // CraftBukkit - reset event status
+                world.dispenserEventFired = false; // CraftBukkit - reset event status // Akarin
                 tileentitydispenser.setItem(i, idispensebehavior.dispense(sourceblock, itemstack));
             }
 
@@ -9,7 +9,7 @@ public class BlockLeaves extends Block {
 
     public static final BlockStateInteger DISTANCE = BlockProperties.ab;
     public static final BlockStateBoolean PERSISTENT = BlockProperties.s;
-    protected static boolean c;
+    protected static final boolean c = false; // Akarin - never written on the server, final so parallel world ticks share no mutable state
 
     public BlockLeaves(Block.Info block_info) {
         super(block_info);
@@ -28,14 +28,14 @@ public class BlockObserver extends BlockDirectional {
     public void a(IBlockData iblockdata, World world, BlockPosition blockposition, Random random) {
         if ((Boolean) iblockdata.get(BlockObserver.b)) {
             // CraftBukkit start
-            if (CraftEventFactory.callRedstoneChange(world, blockposition, 15, 0).getNewCurrent() != 0) {
+            if (CraftEventFactory.handleRedstoneChange(world, blockposition, 15, 0) != 0) { // Akarin
                 return;
             }
             // CraftBukkit end
             world.setTypeAndData(blockposition, (IBlockData) iblockdata.set(BlockObserver.b, false), 2);
         } else {
             // CraftBukkit start
-            if (CraftEventFactory.callRedstoneChange(world, blockposition, 0, 15).getNewCurrent() != 15) {
+            if (CraftEventFactory.handleRedstoneChange(world, blockposition, 0, 15) != 15) { // Akarin
                 return;
             }
             // CraftBukkit end
@@ -105,7 +105,7 @@ public class BlockPoweredRail extends BlockMinecartTrackAbstract {
         if (flag1 != flag) {
             // CraftBukkit start
             int power = flag ? 15 : 0;
-            int newPower = CraftEventFactory.callRedstoneChange(world, blockposition, power, 15 - power).getNewCurrent();
+            int newPower = CraftEventFactory.handleRedstoneChange(world, blockposition, power, 15 - power); // Akarin
             if (newPower == power) {
                 return;
             }
@@ -121,14 +121,14 @@ public class BlockRedstoneComparator extends BlockDiodeAbstract implements ITile
 
             if (flag1 && !flag) {
                 // CraftBukkit start
-                if (CraftEventFactory.callRedstoneChange(world, blockposition, 15, 0).getNewCurrent() != 0) {
+                if (CraftEventFactory.handleRedstoneChange(world, blockposition, 15, 0) != 0) { // Akarin
                     return;
                 }
                 // CraftBukkit end
                 world.setTypeAndData(blockposition, (IBlockData) iblockdata.set(BlockRedstoneComparator.c, false), 2);
             } else if (!flag1 && flag) {
                 // CraftBukkit start
-                if (CraftEventFactory.callRedstoneChange(world, blockposition, 0, 15).getNewCurrent() != 15) {
+                if (CraftEventFactory.handleRedstoneChange(world, blockposition, 0, 15) != 15) { // Akarin
                     return;
                 }
                 // CraftBukkit end
@@ -36,7 +36,7 @@ public class BlockRedstoneLamp extends Block {
                     world.getBlockTickList().a(blockposition, this, 4);
                 } else {
                     // CraftBukkit start
-                    if (CraftEventFactory.callRedstoneChange(world, blockposition, 0, 15).getNewCurrent() != 15) {
+                    if (CraftEventFactory.handleRedstoneChange(world, blockposition, 0, 15) != 15) { // Akarin
                         return;
                     }
                     // CraftBukkit end
@@ -51,7 +51,7 @@ public class BlockRedstoneLamp extends Block {
         if (!world.isClientSide) {
             if ((Boolean) iblockdata.get(BlockRedstoneLamp.a) && !world.isBlockIndirectlyPowered(blockposition)) {
                 // CraftBukkit start
-                if (CraftEventFactory.callRedstoneChange(world, blockposition, 15, 0).getNewCurrent() != 0) {
+                if (CraftEventFactory.handleRedstoneChange(world, blockposition, 15, 0) != 0) { // Akarin
                     return;
                 }
                 // CraftBukkit end
@@ -1,9 +1,7 @@
 package net.minecraft.server;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 import org.bukkit.event.block.BlockRedstoneEvent; // CraftBukkit
@@ -11,7 +9,6 @@ import org.bukkit.event.block.BlockRedstoneEvent; // CraftBukkit
 public class BlockRedstoneTorch extends BlockTorch {
 
     public static final BlockStateBoolean LIT = BlockProperties.o;
-    private static final Map<IBlockAccess, List<BlockRedstoneTorch.RedstoneUpdateInfo>> b = new java.util.WeakHashMap(); // Spigot
 
     protected BlockRedstoneTorch(Block.Info block_info) {
         super(block_info);
@@ -61,10 +58,10 @@ public class BlockRedstoneTorch extends BlockTorch {
     }
 
     public static void a(IBlockData iblockdata, World world, BlockPosition blockposition, Random random, boolean flag) {
-        List list = (List) BlockRedstoneTorch.b.get(world);
+        List list = world.redstoneTorchUpdates; // Akarin
 
         // Paper start
-        if (list != null) {
+        if (!list.isEmpty()) { // Akarin
             int index = 0;
             while (index < list.size() && world.getTime() - ((BlockRedstoneTorch.RedstoneUpdateInfo) list.get(index)).getTime() > 60L) {
                 index++;
@@ -151,12 +148,7 @@ public class BlockRedstoneTorch extends BlockTorch {
     }
 
     private static boolean a(World world, BlockPosition blockposition, boolean flag) {
-        List<BlockRedstoneTorch.RedstoneUpdateInfo> list = (List) BlockRedstoneTorch.b.get(world);
-
-        if (list == null) {
-            list = Lists.newArrayList();
-            BlockRedstoneTorch.b.put(world, list);
-        }
+        List<BlockRedstoneTorch.RedstoneUpdateInfo> list = world.redstoneTorchUpdates; // Akarin
 
         if (flag) {
             ((List) list).add(new BlockRedstoneTorch.RedstoneUpdateInfo(blockposition.h(), world.getTime()));
@@ -24,11 +24,12 @@ public class BlockRedstoneWire extends Block {
     public static final BlockStateInteger POWER = BlockProperties.al;
     public static final Map<EnumDirection, BlockStateEnum<BlockPropertyRedstoneSide>> q = Maps.newEnumMap(ImmutableMap.of(EnumDirection.NORTH, BlockRedstoneWire.NORTH, EnumDirection.EAST, BlockRedstoneWire.EAST, EnumDirection.SOUTH, BlockRedstoneWire.SOUTH, EnumDirection.WEST, BlockRedstoneWire.WEST));
     protected static final VoxelShape[] r = new VoxelShape[] { Block.a(3.0D, 0.0D, 3.0D, 13.0D, 1.0D, 13.0D), Block.a(3.0D, 0.0D, 3.0D, 13.0D, 1.0D, 16.0D), Block.a(0.0D, 0.0D, 3.0D, 13.0D, 1.0D, 13.0D), Block.a(0.0D, 0.0D, 3.0D, 13.0D, 1.0D, 16.0D), Block.a(3.0D, 0.0D, 0.0D, 13.0D, 1.0D, 13.0D), Block.a(3.0D, 0.0D, 0.0D, 13.0D, 1.0D, 16.0D), Block.a(0.0D, 0.0D, 0.0D, 13.0D, 1.0D, 13.0D), Block.a(0.0D, 0.0D, 0.0D, 13.0D, 1.0D, 16.0D), Block.a(3.0D, 0.0D, 3.0D, 16.0D, 1.0D, 13.0D), Block.a(3.0D, 0.0D, 3.0D, 16.0D, 1.0D, 16.0D), Block.a(0.0D, 0.0D, 3.0D, 16.0D, 1.0D, 13.0D), Block.a(0.0D, 0.0D, 3.0D, 16.0D, 1.0D, 16.0D), Block.a(3.0D, 0.0D, 0.0D, 16.0D, 1.0D, 13.0D), Block.a(3.0D, 0.0D, 0.0D, 16.0D, 1.0D, 16.0D), Block.a(0.0D, 0.0D, 0.0D, 16.0D, 1.0D, 13.0D), Block.a(0.0D, 0.0D, 0.0D, 16.0D, 1.0D, 16.0D)};
-    public boolean canProvidePower() { return this.s; } // Paper - OBFHELPER
-    public void setCanProvidePower(boolean value) { this.s = value; } // Paper - OBFHELPER
-    private boolean s = true;
-    private Set<BlockPosition> getBlocksNeedingUpdate() { return this.t; } // Paper - OBFHELPER
-    private final Set<BlockPosition> t = Sets.newHashSet();
+    // Akarin start - power flag and pending updates live on the world, worlds may tick on their own threads
+    public boolean canProvidePower(World world) { return world.redstoneWireCanProvidePower; } // Paper - OBFHELPER
+    public void setCanProvidePower(World world, boolean value) { world.redstoneWireCanProvidePower = value; } // Paper - OBFHELPER
+    private static boolean canProvidePower(IBlockAccess iblockaccess) { return !(iblockaccess instanceof World) || ((World) iblockaccess).redstoneWireCanProvidePower; } // only cleared while the world itself computes power
+    private Set<BlockPosition> getBlocksNeedingUpdate(World world) { return world.redstoneWireUpdates; } // Paper - OBFHELPER
+    // Akarin end
 
     public BlockRedstoneWire(Block.Info block_info) {
         super(block_info);
@@ -161,7 +162,6 @@ public class BlockRedstoneWire extends Block {
 
     // Paper start - Optimize redstone
     // The bulk of the new functionality is found in RedstoneWireTurbo.java
-    RedstoneWireTurbo turbo = new RedstoneWireTurbo(this);
 
     /*
      * Modified version of pre-existing updateSurroundingRedstone, which is called from
@@ -170,6 +170,12 @@ public class BlockRedstoneWire extends Block {
      */
     private IBlockData updateSurroundingRedstone(World worldIn, BlockPosition pos, IBlockData state, BlockPosition source) {
         if (worldIn.paperConfig.useEigencraftRedstone) {
+            // Akarin start
+            RedstoneWireTurbo turbo = worldIn.redstoneWireTurbo;
+            if (turbo == null) {
+                turbo = worldIn.redstoneWireTurbo = new RedstoneWireTurbo(this);
+            }
+            // Akarin end
             return turbo.updateSurroundingRedstone(worldIn, pos, state, source);
         }
         return a(worldIn, pos, state);
@@ -188,9 +194,9 @@ public class BlockRedstoneWire extends Block {
         int i = state.get(POWER).intValue();
         int j = 0;
         j = this.getPower(j, worldIn.getType(pos2));
-        this.setCanProvidePower(false);
+        this.setCanProvidePower(worldIn, false); // Akarin
         int k = worldIn.isBlockIndirectlyGettingPowered(pos1);
-        this.setCanProvidePower(true);
+        this.setCanProvidePower(worldIn, true); // Akarin
 
         if (!worldIn.paperConfig.useEigencraftRedstone) {
             // This code is totally redundant to if statements just below the loop.
@@ -259,10 +265,10 @@ public class BlockRedstoneWire extends Block {
             if (!worldIn.paperConfig.useEigencraftRedstone) {
                 // The new search algorithm keeps track of blocks needing updates in its own data structures,
                 // so only add anything to blocksNeedingUpdate if we're using the vanilla update algorithm.
-                this.getBlocksNeedingUpdate().add(pos1);
+                this.getBlocksNeedingUpdate(worldIn).add(pos1);
 
                 for (EnumDirection enumfacing1 : EnumDirection.values()) {
-                    this.getBlocksNeedingUpdate().add(pos1.shift(enumfacing1));
+                    this.getBlocksNeedingUpdate(worldIn).add(pos1.shift(enumfacing1));
                 }
             }
         }
@@ -272,9 +278,9 @@ public class BlockRedstoneWire extends Block {
     // Paper end
     private IBlockData a(World world, BlockPosition blockposition, IBlockData iblockdata) {
         iblockdata = this.b(world, blockposition, iblockdata);
-        List<BlockPosition> list = Lists.newArrayList(this.t);
+        List<BlockPosition> list = Lists.newArrayList(world.redstoneWireUpdates); // Akarin
 
-        this.t.clear();
+        world.redstoneWireUpdates.clear(); // Akarin
         Iterator iterator = list.iterator();
 
         while (iterator.hasNext()) {
@@ -292,10 +298,10 @@ public class BlockRedstoneWire extends Block {
         byte b0 = 0;
         int j = this.getPower(b0, iblockdata);
 
-        this.s = false;
+        world.redstoneWireCanProvidePower = false; // Akarin
         int k = world.u(blockposition);
 
-        this.s = true;
+        world.redstoneWireCanProvidePower = true; // Akarin
         if (k > 0 && k > j - 1) {
             j = k;
         }
@@ -336,10 +342,7 @@ public class BlockRedstoneWire extends Block {
 
         // CraftBukkit start
         if (i != j) {
-            BlockRedstoneEvent event = new BlockRedstoneEvent(world.getWorld().getBlockAt(blockposition.getX(), blockposition.getY(), blockposition.getZ()), i, j);
-            world.getServer().getPluginManager().callEvent(event);
-
-            j = event.getNewCurrent();
+            j = org.bukkit.craftbukkit.event.CraftEventFactory.handleRedstoneChange(world, blockposition, i, j); // Akarin
         }
         // CraftBukkit end
 
@@ -349,14 +352,14 @@ public class BlockRedstoneWire extends Block {
                 world.setTypeAndData(blockposition, iblockdata, 2);
             }
 
-            this.t.add(blockposition);
+            world.redstoneWireUpdates.add(blockposition); // Akarin
             EnumDirection[] aenumdirection = EnumDirection.values();
             int i1 = aenumdirection.length;
 
             for (int j1 = 0; j1 < i1; ++j1) {
                 EnumDirection enumdirection1 = aenumdirection[j1];
 
-                this.t.add(blockposition.shift(enumdirection1));
+                world.redstoneWireUpdates.add(blockposition.shift(enumdirection1)); // Akarin
             }
         }
 
@@ -476,11 +479,11 @@ public class BlockRedstoneWire extends Block {
     }
 
     public int b(IBlockData iblockdata, IBlockAccess iblockaccess, BlockPosition blockposition, EnumDirection enumdirection) {
-        return !this.s ? 0 : iblockdata.a(iblockaccess, blockposition, enumdirection);
+        return !canProvidePower(iblockaccess) ? 0 : iblockdata.a(iblockaccess, blockposition, enumdirection); // Akarin
     }
 
     public int a(IBlockData iblockdata, IBlockAccess iblockaccess, BlockPosition blockposition, EnumDirection enumdirection) {
-        if (!this.s) {
+        if (!canProvidePower(iblockaccess)) { // Akarin
             return 0;
         } else {
             int i = (Integer) iblockdata.get(BlockRedstoneWire.POWER);
@@ -544,7 +547,7 @@ public class BlockRedstoneWire extends Block {
     }
 
     public boolean isPowerSource(IBlockData iblockdata) {
-        return this.s;
+        return true; // Akarin - only false while World#u computes power, which never asks for it
     }
 
     public TextureType c() {
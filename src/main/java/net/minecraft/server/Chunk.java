@@ -12,9 +12,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 
-import io.akarin.server.core.AkarinAsyncExecutor;
 import io.akarin.server.core.AkarinCreatureSpanwner;
-import io.akarin.server.core.AkarinGlobalConfig;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.shorts.ShortList;
@@ -68,6 +66,7 @@ public class Chunk implements IChunkAccess {
     private boolean v;public boolean hasEntities() { return v; } // Paper - OBFHELPER
     private long lastSaved;
     private volatile boolean x; public boolean isModified() { return x; } // Paper - OBFHELPER // Akarin - volatile
+    public volatile int modificationVersion; // Akarin - bumped whenever blocks, light or tile entities change, see PlayerChunk chunk packet cache
     private int y;
     private long z;
     private int A;
@@ -114,6 +113,17 @@ public class Chunk implements IChunkAccess {
     private final int[] itemCounts = new int[16];
     private final int[] inventoryEntityCounts = new int[16];
     // Paper end
+    // Akarin start
+    public int blockChanges; // bumped on every block or tile entity change, lets hoppers cache their targets
+
+    public int getItemCount(int section) {
+        return this.itemCounts[section];
+    }
+
+    public int getInventoryEntityCount(int section) {
+        return this.inventoryEntityCounts[section];
+    }
+    // Akarin end
     public boolean areNeighborsLoaded(final int radius) {
         switch (radius) {
             case 2:
@@ -233,7 +243,7 @@ public class Chunk implements IChunkAccess {
             }
         }
 
-        this.x = true;
+        this.x = true; ++this.modificationVersion; // Akarin
         this.a(ChunkStatus.FULLCHUNK);
         this.needsDecoration = true; // CraftBukkit
     }
@@ -295,11 +305,11 @@ public class Chunk implements IChunkAccess {
             }
         }
 
-        this.x = true;
+        this.x = true; ++this.modificationVersion; // Akarin
         // Akarin start
         };
-        if (AkarinGlobalConfig.enableAsyncLighting)
-            AkarinAsyncExecutor.scheduleAsyncTask(runnable);
+        if (this.world.lightingEngine != null)
+            this.world.lightingEngine.queueChunk(this, AkarinLightingEngine.INIT_LIGHTING, runnable);
         else
             runnable.run();
         // Akarin end
@@ -377,7 +387,7 @@ public class Chunk implements IChunkAccess {
                 this.world.updateBrightness(EnumSkyBlock.SKY, new BlockPosition(i, i1, j), this); // Paper
             }
 
-            this.x = true;
+            this.x = true; ++this.modificationVersion; // Akarin
         }
 
     }
@@ -448,7 +458,7 @@ public class Chunk implements IChunkAccess {
                 this.a(j1, k1, i2, j2);
             }
 
-            this.x = true;
+            this.x = true; ++this.modificationVersion; // Akarin
         }
     }
 
@@ -569,6 +579,7 @@ public class Chunk implements IChunkAccess {
             }
 
             chunksection.setType(i, j & 15, k, iblockdata);
+            ++this.blockChanges; // Akarin
             ((HeightMap) this.heightMap.get(HeightMap.Type.MOTION_BLOCKING)).a(i, j, k, iblockdata);
             ((HeightMap) this.heightMap.get(HeightMap.Type.MOTION_BLOCKING_NO_LEAVES)).a(i, j, k, iblockdata);
             ((HeightMap) this.heightMap.get(HeightMap.Type.OCEAN_FLOOR)).a(i, j, k, iblockdata);
@@ -620,7 +631,7 @@ public class Chunk implements IChunkAccess {
                     }
                 }
 
-                this.x = true;
+                this.x = true; ++this.modificationVersion; // Akarin
                 return iblockdata1;
             }
         }
@@ -676,7 +687,7 @@ public class Chunk implements IChunkAccess {
                 chunksection.b(j, k & 15, l, i);
             }
 
-            this.x = true;
+            this.x = true; ++this.modificationVersion; // Akarin
         }
     }
 
@@ -887,6 +898,7 @@ public class Chunk implements IChunkAccess {
     }
 
     public void a(BlockPosition blockposition, TileEntity tileentity) {
+        ++this.blockChanges; // Akarin
         tileentity.setWorld(this.world);
         tileentity.setPosition(blockposition);
         if (this.getType(blockposition).getBlock() instanceof ITileEntity) {
@@ -927,6 +939,7 @@ public class Chunk implements IChunkAccess {
 
     public void removeTileEntity(BlockPosition blockposition) { this.d(blockposition); } // Paper - OBFHELPER
     public void d(BlockPosition blockposition) {
+        ++this.blockChanges; // Akarin
         if (this.i) {
             TileEntity tileentity = (TileEntity) this.tileEntities.remove(blockposition);
 
@@ -1102,7 +1115,7 @@ public class Chunk implements IChunkAccess {
     }
 
     public void markDirty() {
-        this.x = true;
+        this.x = true; ++this.modificationVersion; // Akarin
     }
 
     public void a(@Nullable Entity entity, AxisAlignedBB axisalignedbb, List<Entity> list, Predicate<? super Entity> predicate) {
@@ -1548,8 +1561,8 @@ public class Chunk implements IChunkAccess {
     // Paper start
     public void runOrQueueLightUpdate(Runnable runnable) {
         // Akarin start
-        if (AkarinGlobalConfig.enableAsyncLighting) {
-            AkarinAsyncExecutor.scheduleAsyncTask(runnable);
+        if (this.world.lightingEngine != null) {
+            this.world.lightingEngine.queueChunk(this, runnable);
             return;
         }
         // Akarin end
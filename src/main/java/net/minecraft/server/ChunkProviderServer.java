@@ -134,8 +134,25 @@ public class ChunkProviderServer implements IChunkProvider {
     }
     // Paper end
 
+    // Akarin start
+    void prepareGeneration(int x, int z) {
+        if (this.chunkScheduler.stageWorkers != null) {
+            this.chunkScheduler.stageWorkers.prepareArea(x, z);
+        }
+    }
+
+    /**
+     * Drops a generated proto chunk from the scheduler, later loads read it from the chunk
+     * loader instead of turning the cached one into a chunk of the world
+     */
+    void evictGenerated(int x, int z) {
+        this.chunkScheduler.progressCache.remove(ChunkCoordIntPair.a(x, z));
+    }
+    // Akarin end
+
     @Nullable
     public Chunk getChunkAt(int i, int j, boolean flag, boolean flag1) {
+        if (AkarinWorldTicker.parallelPhase) AkarinWorldTicker.checkAccess(this.world); // Akarin
         IChunkLoader ichunkloader = this.chunkLoader;
         Chunk chunk;
         // Paper start - do already loaded checks before synchronize
@@ -171,6 +188,7 @@ public class ChunkProviderServer implements IChunkProvider {
                     });
                 } catch (Exception exception) {
                     ChunkProviderServer.a.error("Couldn't load chunk", exception);
+                    if (exception instanceof AkarinRegionCompression.DictionaryException) throw new IllegalStateException("Refusing to generate over a chunk that can't be decompressed", exception); // Akarin
                 }
             }
         }
@@ -180,6 +198,7 @@ public class ChunkProviderServer implements IChunkProvider {
             return chunk;
         } else if (flag1) {
             try (co.aikar.timings.Timing timing = world.timings.chunkGeneration.startTiming(true)) { // Paper // Akarin
+                this.prepareGeneration(i, j); // Akarin
                 this.batchScheduler.b();
                 this.batchScheduler.a(new ChunkCoordIntPair(i, j));
                 CompletableFuture<ProtoChunk> completablefuture = this.batchScheduler.c();
@@ -444,6 +463,7 @@ public class ChunkProviderServer implements IChunkProvider {
         }
         save = event.isSaveChunk();
         chunk.lightingQueue.processUnload(); // Paper
+        if (this.world.lightingEngine != null) this.world.lightingEngine.flushChunk(chunk); // Akarin - save with its light complete
 
         // Update neighbor counts
         for (int x = -2; x < 3; x++) {
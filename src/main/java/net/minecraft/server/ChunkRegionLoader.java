@@ -143,6 +143,8 @@ public class ChunkRegionLoader implements IChunkLoader, IAsyncChunkSaver {
         return false;
     }
 
+    public File getWorldFolder() { return this.actualWorld; } // Akarin
+
     public boolean chunkExists(int x, int z) {
         // Paper start
         if (this.saveMap.containsKey(ChunkCoordIntPair.asLong(x, z))) {
@@ -167,7 +169,7 @@ public class ChunkRegionLoader implements IChunkLoader, IAsyncChunkSaver {
         if (nbttagcompound != null) {
             return nbttagcompound;
         } else {
-            NBTTagCompound nbttagcompound1 = RegionFileCache.read(this.c, i, j);
+            NBTTagCompound nbttagcompound1 = generatoraccess != null && io.akarin.server.core.AkarinGlobalConfig.streamingChunkReader ? AkarinChunkStreamReader.read(this.c, i, j, generatoraccess) : RegionFileCache.read(this.c, i, j); // Akarin
 
             if (nbttagcompound1 == null) {
                 return null;
@@ -949,6 +951,11 @@ public class ChunkRegionLoader implements IChunkLoader, IAsyncChunkSaver {
     }
 
     private ChunkSection[] a(IWorldReader iworldreader, NBTTagList nbttaglist) {
+        // Akarin start - already decoded by AkarinChunkStreamReader
+        if (nbttaglist instanceof AkarinChunkStreamReader.DecodedSections) {
+            return ((AkarinChunkStreamReader.DecodedSections) nbttaglist).sections;
+        }
+        // Akarin end
         boolean flag = true;
         ChunkSection[] achunksection = new ChunkSection[16];
         boolean flag1 = iworldreader.o().g();
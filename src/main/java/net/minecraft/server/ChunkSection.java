@@ -8,8 +8,8 @@ public class ChunkSection {
     private int tickingBlockCount;
     private int e;
     final DataPaletteBlock<IBlockData> blockIds; // Paper - package
-    private NibbleArray emittedLight;
-    private NibbleArray skyLight;
+    private volatile NibbleArray emittedLight; // Akarin - volatile
+    private volatile NibbleArray skyLight; // Akarin - volatile
 
     // Paper start - Anti-Xray - Support default constructor
     public ChunkSection(int i, boolean flag) {
@@ -19,7 +19,7 @@ public class ChunkSection {
 
     public ChunkSection(int i, boolean flag, IChunkAccess chunk, IWorldReader world, boolean initializeBlocks) { // Paper - Anti-Xray
         this.yPos = i;
-        this.blockIds = new DataPaletteBlock<>(ChunkSection.GLOBAL_PALETTE, Block.REGISTRY_ID, GameProfileSerializer::d, GameProfileSerializer::a, Blocks.AIR.getBlockData(), world instanceof GeneratorAccess ? ((GeneratorAccess) world).getMinecraftWorld().chunkPacketBlockController.getPredefinedBlockData(world, chunk, this, flag, initializeBlocks) : null, initializeBlocks); // Paper - Anti-Xray - Add predefined block data
+        this.blockIds = new DataPaletteBlock<>(ChunkSection.GLOBAL_PALETTE, Block.REGISTRY_ID, AkarinChunkStreamReader::readBlockData, GameProfileSerializer::a, Blocks.AIR.getBlockData(), world instanceof GeneratorAccess ? ((GeneratorAccess) world).getMinecraftWorld().chunkPacketBlockController.getPredefinedBlockData(world, chunk, this, flag, initializeBlocks) : null, initializeBlocks); // Paper - Anti-Xray - Add predefined block data // Akarin - palette entries decoded by the stream reader
         this.emittedLight = new NibbleArray();
         if (flag) {
             this.skyLight = new NibbleArray();
@@ -95,21 +95,33 @@ public class ChunkSection {
         return this.yPos;
     }
 
-    public synchronized void a(int i, int j, int k, int l) { // Akarin - synchronized
-        this.skyLight.a(i, j, k, l);
+    // Akarin start - lock free light reads
+    // Two nibbles share a byte, so writers still lock the array they update. Readers only
+    // load a single byte and never block, at worst they see a light level a moment early.
+    public void a(int i, int j, int k, int l) {
+        NibbleArray nibblearray = this.skyLight;
+
+        synchronized (nibblearray) {
+            nibblearray.a(i, j, k, l);
+        }
     }
 
-    public synchronized int c(int i, int j, int k) { // Akarin - synchronized
+    public int c(int i, int j, int k) {
         return this.skyLight.a(i, j, k);
     }
 
-    public synchronized void b(int i, int j, int k, int l) { // Akarin - synchronized
-        this.emittedLight.a(i, j, k, l);
+    public void b(int i, int j, int k, int l) {
+        NibbleArray nibblearray = this.emittedLight;
+
+        synchronized (nibblearray) {
+            nibblearray.a(i, j, k, l);
+        }
     }
 
-    public synchronized int d(int i, int j, int k) { // Akarin - synchronized
+    public int d(int i, int j, int k) {
         return this.emittedLight.a(i, j, k);
     }
+    // Akarin end
 
     public void recalcBlockCounts() {
         this.nonEmptyBlockCount = 0;
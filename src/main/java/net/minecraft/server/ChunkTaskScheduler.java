@@ -25,6 +25,7 @@ public class ChunkTaskScheduler extends Scheduler<ChunkCoordIntPair, ChunkStatus
         }
     };
     private final Long2ObjectMap<java.util.concurrent.CompletableFuture<Scheduler.a>> pendingSchedulers = new it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap<>(); // Paper
+    @Nullable final AkarinChunkStageWorkers stageWorkers; // Akarin
 
     public ChunkTaskScheduler(int i, World world, ChunkGenerator<?> chunkgenerator, IChunkLoader ichunkloader, IAsyncTaskHandler iasynctaskhandler) {
         super("WorldGen", i, ChunkStatus.FINALIZED, () -> {
@@ -36,6 +37,7 @@ public class ChunkTaskScheduler extends Scheduler<ChunkCoordIntPair, ChunkStatus
         this.d = chunkgenerator;
         this.e = ichunkloader;
         this.f = iasynctaskhandler;
+        this.stageWorkers = io.akarin.server.core.AkarinGlobalConfig.worldGenerationThreads > 0 && !(chunkgenerator instanceof org.bukkit.craftbukkit.generator.CustomChunkGenerator) ? new AkarinChunkStageWorkers(world, ichunkloader, this) : null; // Akarin - plugin generators run as they are
     }
 
     // CraftBukkit start
@@ -86,6 +88,12 @@ public class ChunkTaskScheduler extends Scheduler<ChunkCoordIntPair, ChunkStatus
                     protochunk.setLastSaved(this.c.getTime());
                     return new Scheduler.a(chunkcoordintpair, protochunk, protochunk.i());
                 } else {
+                    // Akarin start - start from the base stage the workers prepared
+                    ProtoChunk prepared = this.stageWorkers != null ? this.stageWorkers.take(chunkcoordintpair) : null;
+                    if (prepared != null) {
+                        return new Scheduler.a(chunkcoordintpair, prepared, prepared.i());
+                    }
+                    // Akarin end
                     return new Scheduler.a(chunkcoordintpair, new ProtoChunk(chunkcoordintpair, ChunkConverter.a, this.getWorld()), ChunkStatus.EMPTY); // Paper - Anti-Xray
                 }
                 // Paper start
@@ -22,14 +22,42 @@ public class CraftingManager implements IResourcePackListener {
     public static final int b = ".json".length();
     public it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap<MinecraftKey, IRecipe> recipes = new it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap<>(); // CraftBukkit
     private boolean e;
+    private volatile AkarinRecipeIndex index; // Akarin
 
     public CraftingManager() {}
 
+    // Akarin start - indexed recipe lookup
+    /**
+     * Drops the recipe index, must be called whenever recipes are removed
+     */
+    public void invalidateRecipeIndex() {
+        this.index = null;
+    }
+
+    @Nullable
+    private IRecipe findRecipe(IInventory iinventory, World world) {
+        AkarinRecipeIndex index = this.index;
+        if (index == null || index.size != this.recipes.size()) {
+            index = new AkarinRecipeIndex(this.recipes.values());
+            this.index = index;
+        }
+
+        AkarinRecipeIndex.LastMatch last = null;
+        if (iinventory instanceof InventoryCrafting) {
+            last = ((InventoryCrafting) iinventory).lastRecipeMatch;
+        } else if (iinventory instanceof TileEntityFurnace) {
+            last = ((TileEntityFurnace) iinventory).lastRecipeMatch;
+        }
+        return index.find(iinventory, world, last);
+    }
+    // Akarin end
+
     public void a(IResourceManager iresourcemanager) {
         Gson gson = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
 
         this.e = false;
         this.recipes.clear();
+        this.invalidateRecipeIndex(); // Akarin
         Iterator iterator = iresourcemanager.a("recipes", (s) -> {
             return s.endsWith(".json");
         }).iterator();
@@ -86,10 +114,18 @@ public class CraftingManager implements IResourcePackListener {
             throw new IllegalStateException("Duplicate recipe ignored with ID " + irecipe.getKey());
         } else {
             this.recipes.putAndMoveToFirst(irecipe.getKey(), irecipe); // CraftBukkit - SPIGOT-4638: last recipe gets priority
+            this.invalidateRecipeIndex(); // Akarin
         }
     }
 
     public ItemStack craft(IInventory iinventory, World world) {
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.recipeIndex) {
+            IRecipe irecipe = this.findRecipe(iinventory, world);
+            iinventory.setCurrentRecipe(irecipe);
+            return irecipe != null ? irecipe.craftItem(iinventory) : ItemStack.a;
+        }
+        // Akarin end
         Iterator iterator = this.recipes.values().iterator();
 
         IRecipe irecipe;
@@ -109,6 +145,13 @@ public class CraftingManager implements IResourcePackListener {
 
     @Nullable
     public IRecipe b(IInventory iinventory, World world) {
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.recipeIndex) {
+            IRecipe irecipe = this.findRecipe(iinventory, world);
+            iinventory.setCurrentRecipe(irecipe);
+            return irecipe;
+        }
+        // Akarin end
         Iterator iterator = this.recipes.values().iterator();
 
         IRecipe irecipe;
@@ -127,6 +170,14 @@ public class CraftingManager implements IResourcePackListener {
     }
 
     public NonNullList<ItemStack> c(IInventory iinventory, World world) {
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.recipeIndex) {
+            IRecipe irecipe = this.findRecipe(iinventory, world);
+            if (irecipe != null) {
+                return irecipe.b(iinventory);
+            }
+        } else {
+        // Akarin end
         Iterator iterator = this.recipes.values().iterator();
 
         while (iterator.hasNext()) {
@@ -136,6 +187,7 @@ public class CraftingManager implements IResourcePackListener {
                 return irecipe.b(iinventory);
             }
         }
+        } // Akarin
 
         NonNullList<ItemStack> nonnulllist = NonNullList.a(iinventory.getSize(), ItemStack.a);
 
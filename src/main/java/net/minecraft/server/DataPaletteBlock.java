@@ -208,8 +208,14 @@ public class DataPaletteBlock<T> implements DataPaletteExpandable<T> {
     }
 
     public void a(NBTTagCompound nbttagcompound, String s, String s1) {
+        // Akarin start - split for AkarinChunkStreamReader, which passes a reused states array
+        long[] along = nbttagcompound.o(s1);
+        this.a(nbttagcompound.getList(s, 10), along, along.length);
+    }
+
+    void a(NBTTagList nbttaglist, long[] along, int length) {
+        // Akarin end
         this.b();
-        NBTTagList nbttaglist = nbttagcompound.getList(s, 10);
         // Paper - Anti-Xray - TODO: Should this.predefinedObjects.length just be added here (faster) or should the contents be compared to calculate the size (less RAM)?
         int i = Math.max(4, MathHelper.d(nbttaglist.size() + (this.predefinedObjects == null ? 0 : this.predefinedObjects.length))); // Paper - Anti-Xray - Calculate the size with predefined objects
 
@@ -219,22 +225,21 @@ public class DataPaletteBlock<T> implements DataPaletteExpandable<T> {
 
         this.h.a(nbttaglist);
         this.addPredefinedObjects(); // Paper - Anti-Xray - Add predefined objects
-        long[] along = nbttagcompound.o(s1);
-        int j = along.length * 64 / 4096;
+        int j = length * 64 / 4096; // Akarin
 
         if (this.h == this.b) {
             DataPalette<T> datapalette = new DataPaletteHash<>(this.d, i, this.c, this.e, this.f);
 
             datapalette.a(nbttaglist);
-            DataBits databits = new DataBits(i, 4096, along);
+            DataBits databits = new DataBits(i, 4096, length == along.length ? along : Arrays.copyOf(along, length)); // Akarin
 
             for (int k = 0; k < 4096; ++k) {
                 this.a.a(k, this.b.a(datapalette.a(databits.a(k))));
             }
         } else if (j == this.i) {
-            System.arraycopy(along, 0, this.a.a(), 0, along.length);
+            System.arraycopy(along, 0, this.a.a(), 0, length); // Akarin
         } else {
-            DataBits databits1 = new DataBits(j, 4096, along);
+            DataBits databits1 = new DataBits(j, 4096, length == along.length ? along : Arrays.copyOf(along, length)); // Akarin
 
             for (int l = 0; l < 4096; ++l) {
                 this.a.a(l, databits1.a(l));
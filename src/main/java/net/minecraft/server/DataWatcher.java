@@ -9,10 +9,10 @@ import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.EncoderException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nullable;
@@ -26,7 +26,11 @@ public class DataWatcher {
     private static final Logger a = LogManager.getLogger();
     private static final Map<Class<? extends Entity>, Integer> b = HashObjIntMaps.newMutableMap(255); private static final HashObjIntMap<Class<? extends Entity>> entityTypeToIdMap() { return (HashObjIntMap<Class<? extends Entity>>) b; }// Akarin
     private final Entity c;
-    private final Map<Integer, DataWatcher.Item<?>> d = new ConcurrentHashMap<Integer, DataWatcher.Item<?>>(255); // Paper // Akarin
+    // Akarin start - items indexed by id, republished on registration so async readers see them
+    private static final DataWatcher.Item<?>[] NO_ITEMS = new DataWatcher.Item<?>[0];
+    private volatile DataWatcher.Item<?>[] d = NO_ITEMS;
+    private final AtomicLongArray dirty = new AtomicLongArray(4); // one bit per id, 255 ids
+    // Akarin end
     private final ReadWriteLock e = new ReentrantReadWriteLock();
     private boolean f = true;
     private boolean g;
@@ -85,7 +89,7 @@ public class DataWatcher {
 
         if (i > 254) {
             throw new IllegalArgumentException("Data value id is too big with " + i + "! (Max is " + 254 + ")");
-        } else if (this.d.containsKey(i)) {
+        } else if (i < this.d.length && this.d[i] != null) { // Akarin
             throw new IllegalArgumentException("Duplicate id value for " + i + "!");
         } else if (DataWatcherRegistry.b(datawatcherobject.b()) < 0) {
             throw new IllegalArgumentException("Unregistered serializer " + datawatcherobject.b() + " for " + i + "!");
@@ -98,7 +102,16 @@ public class DataWatcher {
         DataWatcher.Item<T> datawatcher_item = new DataWatcher.Item<>(datawatcherobject, t0);
 
         //this.e.writeLock().lock(); // Akarin
-        this.d.put(datawatcherobject.a(), datawatcher_item);
+        // Akarin start
+        int i = datawatcherobject.a();
+        DataWatcher.Item<?>[] items = this.d;
+        if (i >= items.length) {
+            items = Arrays.copyOf(items, Math.min(Math.max(i + 1, items.length * 2), 255));
+        }
+        items[i] = datawatcher_item;
+        this.d = items; // publish
+        this.markDirtyBit(i); // new items start dirty
+        // Akarin end
         this.f = false;
         //this.e.writeLock().unlock(); // Akarin
     }
@@ -109,7 +122,11 @@ public class DataWatcher {
         DataWatcher.Item datawatcher_item;
 
         try {
-            datawatcher_item = (DataWatcher.Item) this.d.get(datawatcherobject.a());
+            // Akarin start
+            DataWatcher.Item<?>[] items = this.d;
+            int i = datawatcherobject.a();
+            datawatcher_item = i < items.length ? items[i] : null;
+            // Akarin end
         } catch (Throwable throwable) {
             CrashReport crashreport = CrashReport.a(throwable, "Getting synched entity data");
             CrashReportSystemDetails crashreportsystemdetails = crashreport.a("Synched entity data");
@@ -133,6 +150,7 @@ public class DataWatcher {
             datawatcher_item.a(t0);
             this.c.a(datawatcherobject);
             datawatcher_item.a(true);
+            this.markDirtyBit(datawatcherobject.a()); // Akarin
             this.g = true;
         }
 
@@ -141,10 +159,22 @@ public class DataWatcher {
     // CraftBukkit start - add method from above
     public <T> void markDirty(DataWatcherObject<T> datawatcherobject) {
         this.b(datawatcherobject).a(true);
+        this.markDirtyBit(datawatcherobject.a()); // Akarin
         this.g = true;
     }
     // CraftBukkit end
 
+    // Akarin start
+    private void markDirtyBit(int i) {
+        long bit = 1L << (i & 63);
+        int word = i >> 6;
+        long bits;
+        do {
+            bits = this.dirty.get(word);
+        } while ((bits & bit) == 0 && !this.dirty.compareAndSet(word, bits, bits | bit));
+    }
+    // Akarin end
+
     public boolean a() {
         return this.g;
     }
@@ -167,20 +197,31 @@ public class DataWatcher {
 
         if (this.g) {
             //this.e.readLock().lock(); // Akarin
-            Iterator iterator = this.d.values().iterator();
+            // Akarin start - scan the dirty bits
+            DataWatcher.Item<?>[] items = this.d;
 
-            while (iterator.hasNext()) {
-                DataWatcher.Item<?> datawatcher_item = (DataWatcher.Item) iterator.next();
+            for (int word = 0; word < 4; ++word) {
+                if (this.dirty.get(word) == 0L) {
+                    continue;
+                }
+                long bits = this.dirty.getAndSet(word, 0L);
 
-                if (datawatcher_item.c()) {
-                    datawatcher_item.a(false);
-                    if (list == null) {
-                        list = Lists.newArrayList();
-                    }
+                while (bits != 0L) {
+                    int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    DataWatcher.Item<?> datawatcher_item = i < items.length ? items[i] : null;
+
+                    if (datawatcher_item != null && datawatcher_item.c()) {
+                        datawatcher_item.a(false);
+                        if (list == null) {
+                            list = Lists.newArrayList();
+                        }
 
-                    list.add(datawatcher_item.d());
+                        list.add(datawatcher_item.d());
+                    }
                 }
             }
+            // Akarin end
 
             //this.e.readLock().unlock(); // Akarin
         }
@@ -191,13 +232,13 @@ public class DataWatcher {
 
     public void a(PacketDataSerializer packetdataserializer) throws IOException {
         //this.e.readLock().lock(); // Akarin
-        Iterator iterator = this.d.values().iterator();
-
-        while (iterator.hasNext()) {
-            DataWatcher.Item<?> datawatcher_item = (DataWatcher.Item) iterator.next();
-
-            a(packetdataserializer, datawatcher_item);
+        // Akarin start
+        for (DataWatcher.Item<?> datawatcher_item : this.d) {
+            if (datawatcher_item != null) {
+                a(packetdataserializer, datawatcher_item);
+            }
         }
+        // Akarin end
 
         //this.e.readLock().unlock(); // Akarin
         packetdataserializer.writeByte(255);
@@ -211,12 +252,18 @@ public class DataWatcher {
 
         DataWatcher.Item datawatcher_item;
 
-        for (Iterator iterator = this.d.values().iterator(); iterator.hasNext(); list.add(datawatcher_item.d())) {
-            datawatcher_item = (DataWatcher.Item) iterator.next();
+        // Akarin start
+        for (DataWatcher.Item<?> item : this.d) {
+            if (item == null) {
+                continue;
+            }
+            datawatcher_item = item;
             if (list == null) {
                 list = Lists.newArrayList();
             }
+            list.add(datawatcher_item.d());
         }
+        // Akarin end
 
         //this.e.readLock().unlock(); // Akarin
         return list;
@@ -270,13 +317,16 @@ public class DataWatcher {
     public void e() {
         this.g = false;
         //this.e.readLock().lock(); // Akarin
-        Iterator iterator = this.d.values().iterator();
-
-        while (iterator.hasNext()) {
-            DataWatcher.Item<?> datawatcher_item = (DataWatcher.Item) iterator.next();
-
-            datawatcher_item.a(false);
+        // Akarin start
+        for (int word = 0; word < 4; ++word) {
+            this.dirty.set(word, 0L);
+        }
+        for (DataWatcher.Item<?> datawatcher_item : this.d) {
+            if (datawatcher_item != null) {
+                datawatcher_item.a(false);
+            }
         }
+        // Akarin end
 
         //this.e.readLock().unlock(); // Akarin
     }
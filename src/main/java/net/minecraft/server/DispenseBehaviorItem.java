@@ -60,7 +60,7 @@ public class DispenseBehaviorItem implements IDispenseBehavior {
         CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
         BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(entityitem.motX, entityitem.motY, entityitem.motZ));
-        if (!BlockDispenser.eventFired) {
+        if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
             world.getServer().getPluginManager().callEvent(event);
         }
 
@@ -122,7 +122,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(0, 0, 0));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -172,7 +172,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(d0, d1, d2));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -224,7 +224,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(d3, d4, d5));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -282,7 +282,7 @@ public class DispenserRegistry {
                     CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                     BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(x, y, z));
-                    if (!BlockDispenser.eventFired) {
+                    if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                         world.getServer().getPluginManager().callEvent(event);
                     }
 
@@ -351,7 +351,7 @@ public class DispenserRegistry {
                         CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                         BlockDispenseEvent event = new BlockDispenseEvent(bukkitBlock, craftItem.clone(), new org.bukkit.util.Vector(blockposition.getX(), blockposition.getY(), blockposition.getZ()));
-                        if (!BlockDispenser.eventFired) {
+                        if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                             world.getServer().getPluginManager().callEvent(event);
                         }
 
@@ -397,7 +397,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(bukkitBlock, craftItem.clone(), new org.bukkit.util.Vector(0, 0, 0));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -453,7 +453,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(0, 0, 0));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -515,7 +515,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector((double) blockposition.getX() + 0.5D, (double) blockposition.getY(), (double) blockposition.getZ() + 0.5D));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                    world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -567,7 +567,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(bukkitBlock, craftItem.clone(), new org.bukkit.util.Vector(blockposition.getX(), blockposition.getY(), blockposition.getZ()));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -614,7 +614,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(bukkitBlock, craftItem.clone(), new org.bukkit.util.Vector(blockposition.getX(), blockposition.getY(), blockposition.getZ()));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     world.getServer().getPluginManager().callEvent(event);
                 }
 
@@ -847,7 +847,7 @@ public class DispenserRegistry {
                 CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack);
 
                 BlockDispenseEvent event = new BlockDispenseEvent(bukkitBlock, craftItem.clone(), new org.bukkit.util.Vector(blockposition.getX(), blockposition.getY(), blockposition.getZ()));
-                if (!BlockDispenser.eventFired) {
+                if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                     isourceblock.getWorld().getServer().getPluginManager().callEvent(event);
                 }
 
@@ -922,7 +922,7 @@ public class DispenserRegistry {
             CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
             BlockDispenseEvent event = new BlockDispenseEvent(block, craftItem.clone(), new org.bukkit.util.Vector(d0, d1 + d3, d2));
-            if (!BlockDispenser.eventFired) {
+            if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                 world.getServer().getPluginManager().callEvent(event);
             }
 
@@ -93,8 +93,8 @@ public abstract class Entity implements INamableTileEntity, ICommandListener, Ke
     protected static final Logger i = LogManager.getLogger();
     private static final List<ItemStack> a = Collections.emptyList();
     private static final AxisAlignedBB b = new AxisAlignedBB(0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D);
-    private static double c = 1.0D;
-    private static int entityCount = 1; // Paper - MC-111480 - ID 0 is treated as special for DataWatchers, start 1
+    private static final double c = 1.0D; // Akarin - never written on the server, final so parallel world ticks share no mutable state
+    private static final java.util.concurrent.atomic.AtomicInteger entityCount = new java.util.concurrent.atomic.AtomicInteger(1); // Paper - MC-111480 - ID 0 is treated as special for DataWatchers, start 1 // Akarin - atomic, worlds may tick in parallel
     private final EntityTypes<?> g; public EntityTypes<?> getEntityType() { return g; } // Paper - OBFHELPER
     private int id;
     public boolean j; public boolean blocksEntitySpawning() { return j; } // Paper - OBFHELPER
@@ -204,7 +204,7 @@ public abstract class Entity implements INamableTileEntity, ICommandListener, Ke
     // CraftBukkit end
 
     public Entity(EntityTypes<?> entitytypes, World world) {
-        this.id = Entity.entityCount++;
+        this.id = Entity.entityCount.getAndIncrement(); // Akarin
         this.passengers = Lists.newArrayList();
         this.boundingBox = Entity.b;
         this.width = 0.6F;
@@ -2600,6 +2600,7 @@ public abstract class Entity implements INamableTileEntity, ICommandListener, Ke
 
     @Nullable
     public Entity a(DimensionManager dimensionmanager) {
+        if (AkarinWorldTicker.deferDimensionChange(this, dimensionmanager)) return null; // Akarin
         if (!this.world.isClientSide && !this.dead) {
             //this.world.methodProfiler.enter("changeDimension"); // Akarin - remove caller
             MinecraftServer minecraftserver = this.bK();
@@ -678,6 +678,7 @@ public class EntityPlayer extends EntityHuman implements ICrafting {
 
     @Nullable
     public Entity a(DimensionManager dimensionmanager) {
+        if (AkarinWorldTicker.deferDimensionChange(this, dimensionmanager)) return this; // Akarin
         if (this.isSleeping()) return this; // CraftBukkit - SPIGOT-3154
         // this.worldChangeInvuln = true; // CraftBukkit - Moved down and into PlayerList#changeDimension
         if (this.dimension == DimensionManager.OVERWORLD && dimensionmanager == DimensionManager.NETHER) {
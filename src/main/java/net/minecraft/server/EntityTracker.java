@@ -15,6 +15,7 @@ public class EntityTracker {
     private final Set<EntityTrackerEntry> c = Sets.newHashSet();
     public final IntHashMap<EntityTrackerEntry> trackedEntities = new IntHashMap<>();
     private int trackingDistance;
+    private final AkarinTrackerGrid grid = io.akarin.server.core.AkarinGlobalConfig.spatialEntityTracker ? new AkarinTrackerGrid() : null; // Akarin
 
     public EntityTracker(WorldServer worldserver) {
         this.world = worldserver;
@@ -27,9 +28,10 @@ public class EntityTracker {
 
     public void track(Entity entity) {
         if (entity instanceof EntityPlayer) {
+            if (this.grid != null) this.grid.updatePlayer((EntityPlayer) entity); // Akarin
             this.addEntity(entity, 512, 2);
             EntityPlayer entityplayer = (EntityPlayer) entity;
-            Iterator iterator = this.c.iterator();
+            Iterator iterator = this.grid != null ? this.grid.nearbyEntries(entityplayer).iterator() : this.c.iterator(); // Akarin
 
             while (iterator.hasNext()) {
                 EntityTrackerEntry entitytrackerentry = (EntityTrackerEntry) iterator.next();
@@ -116,6 +118,12 @@ public class EntityTracker {
 
             this.c.add(entitytrackerentry);
             this.trackedEntities.a(entity.getId(), entitytrackerentry);
+            // Akarin start
+            if (this.grid != null) {
+                this.grid.addEntry(entitytrackerentry);
+                entitytrackerentry.scanPlayers(this.grid.nearbyPlayers(entitytrackerentry, this.world.players));
+            } else
+            // Akarin end
             entitytrackerentry.scanPlayers(this.world.players);
         } catch (Throwable throwable) {
             CrashReport crashreport = CrashReport.a(throwable, "Adding entity to track");
@@ -147,25 +155,33 @@ public class EntityTracker {
         //org.spigotmc.AsyncCatcher.catchOp( "entity untrack"); // Spigot // Akarin
         if (entity instanceof EntityPlayer) {
             EntityPlayer entityplayer = (EntityPlayer) entity;
-            Iterator iterator = this.c.iterator();
+            Iterator iterator = this.grid != null ? new java.util.ArrayList<>(this.grid.getTracking(entityplayer)).iterator() : this.c.iterator(); // Akarin
 
             while (iterator.hasNext()) {
                 EntityTrackerEntry entitytrackerentry = (EntityTrackerEntry) iterator.next();
 
                 entitytrackerentry.a(entityplayer);
             }
+            if (this.grid != null) this.grid.removePlayer(entityplayer); // Akarin
         }
 
         EntityTrackerEntry entitytrackerentry1 = (EntityTrackerEntry) this.trackedEntities.d(entity.getId());
 
         if (entitytrackerentry1 != null) {
             this.c.remove(entitytrackerentry1);
+            if (this.grid != null) this.grid.removeEntry(entitytrackerentry1); // Akarin
             entitytrackerentry1.a();
         }
 
     }
 
     public void updatePlayers() {
+        // Akarin start
+        if (this.grid != null) {
+            this.updatePlayersGrid();
+            return;
+        }
+        // Akarin end
         List<EntityPlayer> list = Lists.newArrayList();
         Iterator iterator = this.c.iterator();
         world.timings.tracker1.startTimingUnsafe(); // Paper
@@ -200,15 +216,63 @@ public class EntityTracker {
 
     }
 
+    // Akarin start - only range check players and entries sharing nearby grid cells
+    private void updatePlayersGrid() {
+        List<EntityPlayer> list = Lists.newArrayList();
+        world.timings.tracker1.startTimingUnsafe();
+        this.grid.updatePlayers(this.world.players);
+        Iterator iterator = this.c.iterator();
+
+        while (iterator.hasNext()) {
+            EntityTrackerEntry entitytrackerentry = (EntityTrackerEntry) iterator.next();
+
+            entitytrackerentry.track(this.world.players);
+            this.grid.updateEntry(entitytrackerentry);
+            if (entitytrackerentry.b) {
+                Entity entity = entitytrackerentry.b();
+
+                if (entity instanceof EntityPlayer) {
+                    list.add((EntityPlayer) entity);
+                }
+            }
+        }
+        world.timings.tracker1.stopTimingUnsafe();
+
+        world.timings.tracker2.startTimingUnsafe();
+        for (int i = 0; i < list.size(); ++i) {
+            EntityPlayer entityplayer = list.get(i);
+
+            for (EntityTrackerEntry entitytrackerentry1 : this.grid.nearbyEntries(entityplayer)) {
+                if (entitytrackerentry1.b() != entityplayer) {
+                    entitytrackerentry1.updatePlayer(entityplayer);
+                }
+            }
+        }
+        world.timings.tracker2.stopTimingUnsafe();
+    }
+    // Akarin end
+
     public void updatePlayer(EntityPlayer entityplayer) { a(entityplayer); } // Paper - OBFHELPER
     public void a(EntityPlayer entityplayer) {
+        // Akarin start
         Iterator iterator = this.c.iterator();
+        if (this.grid != null) {
+            this.grid.updatePlayer(entityplayer);
+            Set<EntityTrackerEntry> nearby = this.grid.nearbyEntries(entityplayer);
+            EntityTrackerEntry self = this.trackedEntities.get(entityplayer.getId());
+
+            if (self != null) {
+                nearby.add(self);
+            }
+            iterator = nearby.iterator();
+        }
+        // Akarin end
 
         while (iterator.hasNext()) {
             EntityTrackerEntry entitytrackerentry = (EntityTrackerEntry) iterator.next();
 
             if (entitytrackerentry.b() == entityplayer) {
-                entitytrackerentry.scanPlayers(this.world.players);
+                entitytrackerentry.scanPlayers(this.grid != null ? this.grid.nearbyPlayers(entitytrackerentry, this.world.players) : this.world.players); // Akarin
             } else {
                 entitytrackerentry.updatePlayer(entityplayer);
             }
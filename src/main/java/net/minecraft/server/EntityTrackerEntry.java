@@ -21,9 +21,9 @@ public class EntityTrackerEntry {
     private final int e;
     private int f;
     private final int g;
-    private long xLoc;
+    long xLoc; // Akarin - private -> package-private
     private long yLoc;
-    private long zLoc;
+    long zLoc; // Akarin - private -> package-private
     private int yRot;
     private int xRot;
     private int headYaw;
@@ -46,6 +46,14 @@ public class EntityTrackerEntry {
     // their first update (which is forced to have absolute coordinates), false afterward.
     public java.util.Map<EntityPlayer, Boolean> trackedPlayerMap = new java.util.HashMap<EntityPlayer, Boolean>();
     public Set<EntityPlayer> trackedPlayers = trackedPlayerMap.keySet();
+    // Akarin start
+    AkarinTrackerGrid grid;
+    long gridCell = Long.MIN_VALUE;
+
+    public int getRange() {
+        return this.e;
+    }
+    // Akarin end
 
     /**
      * Requested in https://github.com/PaperMC/Paper/issues/1537 to allow intercepting packets
@@ -87,7 +95,7 @@ public class EntityTrackerEntry {
             this.s = this.tracker.locZ;
             this.isMoving = true;
             this.b = true;
-            this.scanPlayers(list);
+            this.scanPlayers(this.grid != null ? this.grid.nearbyPlayers(this, list) : list); // Akarin
         }
 
         List<Entity> list1 = this.tracker.bP();
@@ -317,12 +325,15 @@ public class EntityTrackerEntry {
 
     public void broadcast(Packet<?> packet) {
         Iterator iterator = this.trackedPlayers.iterator();
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
 
+        try { // Akarin
         while (iterator.hasNext()) {
             EntityPlayer entityplayer = (EntityPlayer) iterator.next();
 
-            entityplayer.playerConnection.sendPacket(packet);
+            entityplayer.playerConnection.sendPacket(broadcast.next()); // Akarin
         }
+        } finally { broadcast.release(); } // Akarin
 
     }
 
@@ -351,6 +362,7 @@ public class EntityTrackerEntry {
             this.tracker.c(entityplayer);
             entityplayer.c(this.tracker);
             this.trackedPlayers.remove(entityplayer);
+            if (this.grid != null) this.grid.onUntrack(entityplayer, this); // Akarin
         }
 
     }
@@ -371,6 +383,7 @@ public class EntityTrackerEntry {
                     entityplayer.removeQueue.remove(Integer.valueOf(this.tracker.getId()));
                     // CraftBukkit end
                     this.trackedPlayerMap.put(entityplayer, true); // Paper
+                    if (this.grid != null) this.grid.onTrack(entityplayer, this); // Akarin
                     Packet<?> packet = this.e();
 
                     entityplayer.playerConnection.sendPacket(packet);
@@ -458,6 +471,7 @@ public class EntityTrackerEntry {
                 }
             } else if (this.trackedPlayers.contains(entityplayer)) {
                 this.trackedPlayers.remove(entityplayer);
+                if (this.grid != null) this.grid.onUntrack(entityplayer, this); // Akarin
                 this.tracker.c(entityplayer);
                 entityplayer.c(this.tracker);
                 updatePassengers(entityplayer); // Paper
@@ -645,6 +659,7 @@ public class EntityTrackerEntry {
         //org.spigotmc.AsyncCatcher.catchOp( "player tracker clear"); // Spigot // Akarin
         if (this.trackedPlayers.contains(entityplayer)) {
             this.trackedPlayers.remove(entityplayer);
+            if (this.grid != null) this.grid.onUntrack(entityplayer, this); // Akarin
             this.tracker.c(entityplayer);
             entityplayer.c(this.tracker);
             updatePassengers(entityplayer); // Paper
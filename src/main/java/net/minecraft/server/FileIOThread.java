@@ -18,7 +18,8 @@ public class FileIOThread implements Runnable {
     private volatile long e;
     private volatile boolean f;
     // Akarin start
-    private final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(io.akarin.server.core.AkarinGlobalConfig.fileIOThreads, new com.google.common.util.concurrent.ThreadFactoryBuilder().setUncaughtExceptionHandler(new ThreadNamedUncaughtExceptionHandler(FileIOThread.a)).setNameFormat("Akarin File IO Thread - %1$d").setPriority(1).build());
+    private final java.util.concurrent.ThreadPoolExecutor executor = (java.util.concurrent.ThreadPoolExecutor) java.util.concurrent.Executors.newFixedThreadPool(io.akarin.server.core.AkarinGlobalConfig.fileIOThreads, new com.google.common.util.concurrent.ThreadFactoryBuilder().setUncaughtExceptionHandler(new ThreadNamedUncaughtExceptionHandler(FileIOThread.a)).setNameFormat("Akarin File IO Thread - %1$d").setPriority(1).build());
+    private final co.aikar.timings.ThreadTimings.Section writeTiming = co.aikar.timings.ThreadTimings.executor("Akarin File IO", () -> executor.getQueue().size());
 
     @lombok.SneakyThrows
     private void writeChunk(IAsyncChunkSaver iasyncchunksaver)  {
@@ -88,7 +89,7 @@ public class FileIOThread implements Runnable {
         //    ++this.d;
         //    this.c.add(iasyncchunksaver);
         //}
-        executor.execute(() -> writeChunk(iasyncchunksaver));
+        executor.execute(co.aikar.timings.ThreadTimings.wrap(writeTiming, () -> writeChunk(iasyncchunksaver)));
         // Akarin end
     }
 
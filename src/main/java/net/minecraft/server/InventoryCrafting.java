@@ -21,6 +21,7 @@ public class InventoryCrafting implements IInventory, AutoRecipeOutput {
     // CraftBukkit start - add fields
     public List<HumanEntity> transaction = new java.util.ArrayList<HumanEntity>();
     private IRecipe currentRecipe;
+    final AkarinRecipeIndex.LastMatch lastRecipeMatch = new AkarinRecipeIndex.LastMatch(); // Akarin
     public IInventory resultInventory;
     private EntityHuman owner;
     private int maxStack = MAX_STACK;
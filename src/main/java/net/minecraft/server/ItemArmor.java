@@ -40,7 +40,7 @@ public class ItemArmor extends Item {
             CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
             BlockDispenseArmorEvent event = new BlockDispenseArmorEvent(block, craftItem.clone(), (org.bukkit.craftbukkit.entity.CraftLivingEntity) entityliving.bukkitEntity);
-            if (!BlockDispenser.eventFired) {
+            if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                 world.getServer().getPluginManager().callEvent(event);
             }
 
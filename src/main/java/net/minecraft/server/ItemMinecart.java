@@ -49,7 +49,7 @@ public class ItemMinecart extends Item {
             CraftItemStack craftItem = CraftItemStack.asCraftMirror(itemstack1);
 
             BlockDispenseEvent event = new BlockDispenseEvent(block2, craftItem.clone(), new org.bukkit.util.Vector(d0, d1 + d3, d2));
-            if (!BlockDispenser.eventFired) {
+            if (!isourceblock.getWorld().dispenserEventFired) { // Akarin
                 world.getServer().getPluginManager().callEvent(event);
             }
 
@@ -547,6 +547,7 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
 
         for (WorldServer world : com.google.common.collect.Lists.newArrayList(this.getWorlds())) { // Paper - avoid como if 1 world triggers another world
             this.server.getPluginManager().callEvent(new org.bukkit.event.world.WorldLoadEvent(world.getWorld()));
+            AkarinPregenerator.resume(world); // Akarin
         }
         // CraftBukkit end
         MinecraftServer.LOGGER.info("Time elapsed: {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
@@ -645,6 +646,7 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
             if (hasStopped) return;
             hasStopped = true;
         }
+        AkarinPregenerator.stopAll(); // Akarin - saves their progress
         PaperAsyncChunkProvider.stop(this); // Paper
         // CraftBukkit end
         MinecraftServer.LOGGER.info("Stopping server");
@@ -664,6 +666,7 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
             this.playerList.u(isRestarting); // Paper
             try { Thread.sleep(100); } catch (InterruptedException ex) {} // CraftBukkit - SPIGOT-625 - give server at least a chance to send packets
         }
+        AkarinPlayerDataWriter.flushAll(); // Akarin
 
         MinecraftServer.LOGGER.info("Saving worlds");
         Iterator iterator = this.getWorlds().iterator();
@@ -1063,76 +1066,26 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
         // Akarin end
 
         // WorldServer worldserver; // CraftBukkit - dropped down
-        long i;
+        // long i; // Akarin - moved into tickWorld
 
         // CraftBukkit - dropTickTime
+        boolean parallel = AkarinWorldTicker.shouldTickParallel(this.getWorlds()); // Akarin
         for (Iterator iterator = this.getWorlds().iterator(); iterator.hasNext();) {
              WorldServer worldserver = (WorldServer) iterator.next();
             PaperAsyncChunkProvider.processMainThreadQueue(worldserver); // Paper
-            worldserver.hasPhysicsEvent =  org.bukkit.event.block.BlockPhysicsEvent.getHandlerList().getRegisteredListeners().length > 0; // Paper
-            TileEntityHopper.skipHopperEvents = worldserver.paperConfig.disableHopperMoveEvents || org.bukkit.event.inventory.InventoryMoveItemEvent.getHandlerList().getRegisteredListeners().length == 0; // Paper
-            i = SystemUtils.getMonotonicNanos();
-            if (true || worldserver.worldProvider.getDimensionManager() == DimensionManager.OVERWORLD || this.getAllowNether()) { // CraftBukkit
-                // Akarin start
-                /*
-                this.methodProfiler.a(() -> {
-                    return "dim-" + worldserver.worldProvider.getDimensionManager().getDimensionID();
-                });
-                */
-                // Akarin end
-                /* Drop global time updates
-                if (this.ticks % 20 == 0) {
-                    //this.methodProfiler.enter(* // Akarin - remove caller
-                    this.playerList.a((Packet) (new PacketPlayOutUpdateTime(worldserver.getTime(), worldserver.getDayTime(), worldserver.getGameRules().getBoolean("doDaylightCycle"))), worldserver.worldProvider.getDimensionManager());
-                    //this.methodProfiler.exit(); // Akarin
-                }
-                // CraftBukkit end */
-
-                //this.methodProfiler.enter(* // Akarin - remove caller
-
-                CrashReport crashreport;
-
-                try {
-                    worldserver.timings.doTick.startTimingUnsafe(); // Spigot // Akarin
-                    worldserver.doTick(booleansupplier);
-                    worldserver.timings.doTick.stopTimingUnsafe(); // Spigot // Akarin
-                } catch (Throwable throwable) {
-                    // Spigot Start
-                    try {
-                    crashreport = CrashReport.a(throwable, "Exception ticking world");
-                    } catch (Throwable t){
-                        throw new RuntimeException("Error generating crash report", t);
-                    }
-                    // Spigot End
-                    worldserver.a(crashreport);
-                    throw new ReportedException(crashreport);
-                }
-
-                try {
-                    worldserver.timings.tickEntities.startTimingUnsafe(); // Spigot // Akarin
-                    worldserver.tickEntities();
-                    worldserver.timings.tickEntities.stopTimingUnsafe(); // Spigot // Akarin
-                } catch (Throwable throwable1) {
-                    // Spigot Start
-                    try {
-                    crashreport = CrashReport.a(throwable1, "Exception ticking world entities");
-                    } catch (Throwable t){
-                        throw new RuntimeException("Error generating crash report", t);
-                    }
-                    // Spigot End
-                    worldserver.a(crashreport);
-                    throw new ReportedException(crashreport);
-                }
-
-                //this.methodProfiler.exit(); // Akarin
-                //this.methodProfiler.enter(* // Akarin - remove caller
-                if (playerList.players.size() > 0) worldserver.getTracker().updatePlayers(); // Paper - No players, why spend time tracking them? (See patch)
-                //this.methodProfiler.exit(); // Akarin
-                //this.methodProfiler.exit(); // Akarin
-                worldserver.explosionDensityCache.clear(); // Paper - Optimize explosions
+            worldserver.hasPhysicsEvent =  org.bukkit.event.block.BlockPhysicsEvent.getHandlerList().hasListeners(); // Paper // Akarin
+            worldserver.skipHopperEvents = worldserver.paperConfig.disableHopperMoveEvents || !org.bukkit.event.inventory.InventoryMoveItemEvent.getHandlerList().hasListeners(); // Paper // Akarin
+            // Akarin start - tick worlds after the main thread work of every world is done
+            if (!parallel) {
+                this.tickWorld(worldserver, booleansupplier);
             }
         }
 
+        if (parallel) {
+            AkarinWorldTicker.tickWorlds(this, this.getWorlds(), booleansupplier);
+        }
+        // Akarin end
+
         //this.methodProfiler.exitEnter("connection"); // Akarin
         MinecraftTimings.connectionTimer.startTimingUnsafe(); // Spigot // Akarin
         this.getServerConnection().c();
@@ -1156,6 +1109,71 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
         //this.methodProfiler.exit(); // Akarin
     }
 
+    // Akarin - moved out of the world loop
+    void tickWorld(WorldServer worldserver, BooleanSupplier booleansupplier) {
+        long i = SystemUtils.getMonotonicNanos();
+        if (true || worldserver.worldProvider.getDimensionManager() == DimensionManager.OVERWORLD || this.getAllowNether()) { // CraftBukkit
+            // Akarin start
+            /*
+            this.methodProfiler.a(() -> {
+                return "dim-" + worldserver.worldProvider.getDimensionManager().getDimensionID();
+            });
+            */
+            // Akarin end
+            /* Drop global time updates
+            if (this.ticks % 20 == 0) {
+                //this.methodProfiler.enter(* // Akarin - remove caller
+                this.playerList.a((Packet) (new PacketPlayOutUpdateTime(worldserver.getTime(), worldserver.getDayTime(), worldserver.getGameRules().getBoolean("doDaylightCycle"))), worldserver.worldProvider.getDimensionManager());
+                //this.methodProfiler.exit(); // Akarin
+            }
+            // CraftBukkit end */
+
+            //this.methodProfiler.enter(* // Akarin - remove caller
+
+            CrashReport crashreport;
+
+            try {
+                worldserver.timings.doTick.startTimingUnsafe(); // Spigot // Akarin
+                worldserver.doTick(booleansupplier);
+                worldserver.timings.doTick.stopTimingUnsafe(); // Spigot // Akarin
+            } catch (Throwable throwable) {
+                // Spigot Start
+                try {
+                crashreport = CrashReport.a(throwable, "Exception ticking world");
+                } catch (Throwable t){
+                    throw new RuntimeException("Error generating crash report", t);
+                }
+                // Spigot End
+                worldserver.a(crashreport);
+                throw new ReportedException(crashreport);
+            }
+
+            try {
+                worldserver.timings.tickEntities.startTimingUnsafe(); // Spigot // Akarin
+                worldserver.tickEntities();
+                worldserver.timings.tickEntities.stopTimingUnsafe(); // Spigot // Akarin
+            } catch (Throwable throwable1) {
+                // Spigot Start
+                try {
+                crashreport = CrashReport.a(throwable1, "Exception ticking world entities");
+                } catch (Throwable t){
+                    throw new RuntimeException("Error generating crash report", t);
+                }
+                // Spigot End
+                worldserver.a(crashreport);
+                throw new ReportedException(crashreport);
+            }
+
+            //this.methodProfiler.exit(); // Akarin
+            //this.methodProfiler.enter(* // Akarin - remove caller
+            if (playerList.players.size() > 0) worldserver.getTracker().updatePlayers(); // Paper - No players, why spend time tracking them? (See patch)
+            //this.methodProfiler.exit(); // Akarin
+            //this.methodProfiler.exit(); // Akarin
+            worldserver.explosionDensityCache.clear(); // Paper - Optimize explosions
+        }
+        worldserver.lastTickNanos = SystemUtils.getMonotonicNanos() - i; // Akarin
+    }
+
     public boolean getAllowNether() {
         return true;
     }
@@ -1728,7 +1746,7 @@ public abstract class MinecraftServer implements IAsyncTaskHandler, IMojangStati
     }
 
     public boolean isMainThread() {
-        return ThreadAssertion.isMainThread() || Thread.currentThread() == this.serverThread; // Akarin
+        return ThreadAssertion.isMainThread() || Thread.currentThread() == this.serverThread || AkarinWorldTicker.isWorldTickThread(); // Akarin
     }
 
     public int aw() {
@@ -400,6 +400,7 @@ public class NBTTagCompound implements NBTBase {
     }
 
     private static String b(DataInput datainput, NBTReadLimiter nbtreadlimiter) throws IOException {
+        if (io.akarin.server.core.AkarinGlobalConfig.sharedNBTKeys) return AkarinNBTKeys.read(datainput); // Akarin
         return datainput.readUTF();
     }
 
@@ -19,6 +19,13 @@ public class NBTTagList extends NBTList<NBTBase> {
 
     public NBTTagList() {}
 
+    // Akarin start - lists decoded by AkarinChunkStreamReader
+    NBTTagList(byte type, List<NBTBase> list) {
+        this.type = type;
+        this.list = list;
+    }
+    // Akarin end
+
     public void write(DataOutput dataoutput) throws IOException {
         if (this.list.isEmpty()) {
             this.type = 0;
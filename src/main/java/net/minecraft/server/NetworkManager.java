@@ -250,6 +250,10 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
     // Akarin start
     private final void dispatchPacket(Packet<?> packet, @Nullable GenericFutureListener<? extends Future<? super Void>> genericFutureListener) { this.b(packet, genericFutureListener); } // Paper - OBFHELPER
     private final void b(Packet<?> packet, @Nullable GenericFutureListener<? extends Future<? super Void>> genericfuturelistener) {
+        if (packet instanceof AkarinSharedPacket) {
+            this.dispatchShared((AkarinSharedPacket) packet, genericfuturelistener);
+            return;
+        }
         if (!packet.canDispatchImmediately())
             this.pendingChunkQueue.add((PacketPlayOutMapChunk) packet);
         // Akarin end
@@ -267,6 +271,7 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
                 this.setProtocol(enumprotocol);
             }
 
+            this.drainBatchQueue(); // Akarin - keep order with batched packets
             ChannelFuture channelfuture = this.channel.writeAndFlush(packet);
 
             if (genericfuturelistener != null) {
@@ -274,7 +279,12 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
             }
 
             channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        // Akarin start - queue for the per tick flush instead of one task and flush per packet
+        } else if (AkarinGlobalConfig.flushConsolidation && enumprotocol == enumprotocol1) {
+            this.queueForFlush(packet, genericfuturelistener);
+        // Akarin end
         } else {
+            this.scheduleFlush(); // Akarin - keep order with batched packets
             this.channel.eventLoop().execute(() -> {
                 if (enumprotocol != enumprotocol1) {
                     this.setProtocol(enumprotocol);
@@ -303,6 +313,163 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
 
     }
 
+    // Akarin start - write the pre-encoded frame past the encoder, or past the compressor when present
+    private void dispatchShared(AkarinSharedPacket shared, @Nullable GenericFutureListener<? extends Future<? super Void>> genericfuturelistener) {
+        if (this.channel.attr(NetworkManager.c).get() != EnumProtocol.PLAY) {
+            this.dispatchPacket(shared.getPacket(), genericfuturelistener);
+            return;
+        }
+
+        io.netty.channel.ChannelPipeline pipeline = this.channel.pipeline();
+        ChannelHandlerContext compressor = pipeline.context("compress");
+        ChannelHandlerContext context = compressor != null ? compressor : pipeline.context("encoder");
+        if (context == null) {
+            this.dispatchPacket(shared.getPacket(), genericfuturelistener);
+            return;
+        }
+
+        if (AkarinGlobalConfig.flushConsolidation && !this.channel.eventLoop().inEventLoop()) {
+            // the broadcaster releases the shared copy right away, take our reference now
+            io.netty.buffer.ByteBuf buffer = compressor != null ? shared.retainCompressed() : shared.retainRaw();
+            this.queueForFlush(new NetworkManager.QueuedBuffer(buffer, compressor != null, genericfuturelistener));
+            return;
+        }
+
+        this.drainBatchQueue();
+        this.writeShared(shared, context, compressor != null, genericfuturelistener, true);
+    }
+
+    private void writeShared(AkarinSharedPacket shared, ChannelHandlerContext context, boolean compressed, @Nullable GenericFutureListener<? extends Future<? super Void>> genericfuturelistener, boolean flush) {
+        io.netty.buffer.ByteBuf buffer = compressed ? shared.retainCompressed() : shared.retainRaw();
+        ChannelFuture channelfuture = flush ? context.writeAndFlush(buffer) : context.write(buffer);
+
+        if (genericfuturelistener != null) {
+            channelfuture.addListener(genericfuturelistener);
+        }
+
+        channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+    }
+    // Akarin end
+
+    // Akarin start - flush consolidation
+    private static final java.util.concurrent.atomic.LongAdder BATCH_FLUSHES = co.aikar.timings.TimingsMetrics.counter("network.flush-consolidation.flushes");
+    private static final java.util.concurrent.atomic.LongAdder BATCH_PACKETS = co.aikar.timings.TimingsMetrics.counter("network.flush-consolidation.packets");
+    private final ConcurrentLinkedQueue<Object> batchQueue = new ConcurrentLinkedQueue<>(); // Packet, QueuedPacket when a listener is attached, or QueuedBuffer
+    private final java.util.concurrent.atomic.AtomicInteger batchQueueSize = new java.util.concurrent.atomic.AtomicInteger();
+    private final java.util.concurrent.atomic.AtomicBoolean flushScheduled = new java.util.concurrent.atomic.AtomicBoolean();
+    private volatile boolean flushNextQueued = true; // nothing was waiting at the end of the last tick, don't hold the next packet for a whole tick
+    private final Runnable flushTask = () -> {
+        this.flushScheduled.set(false);
+        this.drainBatchQueue();
+    };
+
+    private void queueForFlush(Packet<?> packet, @Nullable GenericFutureListener<? extends Future<? super Void>> genericfuturelistener) {
+        this.queueForFlush(genericfuturelistener == null ? packet : new NetworkManager.QueuedPacket(packet, genericfuturelistener));
+    }
+
+    private void queueForFlush(Object queued) {
+        this.batchQueue.add(queued);
+        int queuedPackets = this.batchQueueSize.incrementAndGet();
+        if (!this.isConnected()) {
+            // lost a race with handleDisconnection, which may have drained the queue before we added to it
+            this.releaseBatchQueue();
+            return;
+        }
+
+        if (queuedPackets >= AkarinGlobalConfig.flushConsolidationMaxPackets) {
+            this.scheduleFlush();
+        } else if (this.flushNextQueued) {
+            this.flushNextQueued = false;
+            this.scheduleFlush();
+        }
+    }
+
+    /**
+     * Flushes what was queued during this tick, called once per tick for every connection
+     */
+    public void flushTick() {
+        this.flushNextQueued = this.batchQueue.isEmpty();
+        this.scheduleFlush();
+    }
+
+    private void releaseBatchQueue() {
+        Object queued;
+        while ((queued = this.batchQueue.poll()) != null) {
+            this.batchQueueSize.decrementAndGet();
+            if (queued instanceof NetworkManager.QueuedBuffer) {
+                ((NetworkManager.QueuedBuffer) queued).buffer.release();
+            }
+        }
+    }
+
+    /**
+     * Hands the packets queued during this tick to the event loop, to be written with a single flush
+     */
+    public void scheduleFlush() {
+        if (!this.batchQueue.isEmpty() && this.channel != null && this.flushScheduled.compareAndSet(false, true)) {
+            this.channel.eventLoop().execute(this.flushTask);
+        }
+    }
+
+    private void drainBatchQueue() {
+        if (this.batchQueue.isEmpty()) {
+            return;
+        }
+
+        io.netty.channel.ChannelPipeline pipeline = this.channel.pipeline();
+        ChannelHandlerContext compressor = pipeline.context("compress");
+        io.netty.channel.ChannelOutboundBuffer outbound = this.channel.unsafe().outboundBuffer();
+        int written = 0;
+        Object queued;
+
+        while ((queued = this.batchQueue.poll()) != null) {
+            this.batchQueueSize.decrementAndGet();
+            ChannelFuture channelfuture;
+            GenericFutureListener<? extends Future<? super Void>> genericfuturelistener;
+
+            if (queued instanceof NetworkManager.QueuedBuffer) {
+                NetworkManager.QueuedBuffer buffer = (NetworkManager.QueuedBuffer) queued;
+                ChannelHandlerContext target = buffer.compressed ? compressor : pipeline.context("encoder");
+
+                if (target == null) {
+                    // compression was toggled since queueing, the frame no longer fits the pipeline
+                    buffer.buffer.release();
+                    continue;
+                }
+
+                channelfuture = target.write(buffer.buffer);
+                genericfuturelistener = buffer.listener;
+            } else if (queued instanceof NetworkManager.QueuedPacket) {
+                channelfuture = this.channel.write(((NetworkManager.QueuedPacket) queued).getPacket());
+                genericfuturelistener = ((NetworkManager.QueuedPacket) queued).getGenericFutureListener();
+            } else {
+                channelfuture = this.channel.write(queued);
+                genericfuturelistener = null;
+            }
+
+            if (genericfuturelistener != null) {
+                channelfuture.addListener(genericfuturelistener);
+            }
+
+            channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            ++written;
+
+            if (outbound != null && outbound.totalPendingWriteBytes() >= AkarinGlobalConfig.flushConsolidationMaxBytes) {
+                this.channel.flush();
+                BATCH_FLUSHES.increment();
+                BATCH_PACKETS.add(written);
+                written = 0;
+            }
+        }
+
+        if (written > 0) {
+            this.channel.flush();
+            BATCH_FLUSHES.increment();
+            BATCH_PACKETS.add(written);
+        }
+    }
+    // Akarin end
+
     // Paper start - Async-Anti-Xray - Stop dispatching further packets and return false if the peeked packet is a chunk packet which is not ready
     public boolean sendPacketQueue() { return this.o(); } // OBFHELPER // void -> boolean // Akarin - public
     private boolean o() { // void -> boolean
@@ -450,6 +617,7 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
                     this.i().a(new ChatMessage("multiplayer.disconnect.generic", new Object[0]));
                 }
                 this.packetQueue.clear(); // Free up packet queue.
+                this.releaseBatchQueue(); // Akarin
                 // Paper start - Add PlayerConnectionCloseEvent
                 final PacketListener packetListener = this.i();
                 if (packetListener instanceof PlayerConnection) {
@@ -487,6 +655,21 @@ public class NetworkManager extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    // Akarin start
+    static class QueuedBuffer {
+        final io.netty.buffer.ByteBuf buffer;
+        final boolean compressed;
+        @Nullable
+        final GenericFutureListener<? extends Future<? super Void>> listener;
+
+        QueuedBuffer(io.netty.buffer.ByteBuf buffer, boolean compressed, @Nullable GenericFutureListener<? extends Future<? super Void>> listener) {
+            this.buffer = buffer;
+            this.compressed = compressed;
+            this.listener = listener;
+        }
+    }
+    // Akarin end
+
     // Spigot Start
     public SocketAddress getRawAddress()
     {
@@ -403,6 +403,7 @@ public class PaperAsyncChunkProvider extends ChunkProviderServer {
 
             try {
                 CompletableFuture<Chunk> pending = new CompletableFuture<>();
+                prepareGeneration(x, z); // Akarin
                 batchScheduler.startBatch();
                 batchScheduler.add(new ChunkCoordIntPair(x, z));
 
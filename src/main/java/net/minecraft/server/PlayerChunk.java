@@ -162,7 +162,7 @@ public class PlayerChunk {
             this.h = 0;
             this.done = true;
             if (!this.players.isEmpty()) {
-                Packet<?> packet = new PacketPlayOutMapChunk(this.chunk, 65535);
+                Packet<?> packet = this.getFullChunkPacket(); // Akarin
                 Iterator iterator = this.players.iterator();
 
                 while (iterator.hasNext()) {
@@ -179,12 +179,64 @@ public class PlayerChunk {
 
     public void sendChunk(EntityPlayer entityplayer) {
         if (this.done) {
+            // Akarin start - reuse the packet built for the previous player while the chunk is unchanged
+            PacketPlayOutMapChunk packet = this.getCachedChunkPacket();
+            if (packet == null) {
             this.chunk.world.chunkPacketBlockController.onChunkPacketCreate(this.chunk, '\uffff', true); // Paper - Anti-Xray - Load nearby chunks if necessary
-            entityplayer.playerConnection.sendPacket(new PacketPlayOutMapChunk(this.chunk, 65535));
+                packet = this.getFullChunkPacket();
+            }
+            entityplayer.playerConnection.sendPacket(packet);
+            // Akarin end
             this.playerChunkMap.getWorld().getTracker().a(entityplayer, this.chunk);
         }
     }
 
+    // Akarin start
+    private static final java.util.concurrent.atomic.LongAdder CHUNK_PACKET_HITS = co.aikar.timings.TimingsMetrics.counter("chunk-packet-cache.hits");
+    private static final java.util.concurrent.atomic.LongAdder CHUNK_PACKET_MISSES = co.aikar.timings.TimingsMetrics.counter("chunk-packet-cache.misses");
+    private PacketPlayOutMapChunk cachedChunkPacket;
+    private int cachedChunkPacketVersion;
+
+    @Nullable
+    private PacketPlayOutMapChunk getCachedChunkPacket() {
+        if (this.cachedChunkPacket != null && this.cachedChunkPacketVersion == this.chunk.modificationVersion) {
+            CHUNK_PACKET_HITS.increment();
+            this.playerChunkMap.touchChunkPacket(this);
+            return this.cachedChunkPacket;
+        }
+        this.dropCachedChunkPacket();
+        return null;
+    }
+
+    void dropCachedChunkPacket() {
+        if (this.cachedChunkPacket != null) {
+            this.cachedChunkPacket = null;
+            this.playerChunkMap.forgetChunkPacket(this);
+        }
+    }
+
+    private PacketPlayOutMapChunk getFullChunkPacket() {
+        if (this.chunk.world.lightingEngine != null) {
+            this.chunk.world.lightingEngine.flushChunk(this.chunk); // pending light would change the chunk
+        }
+        PacketPlayOutMapChunk packet = this.getCachedChunkPacket();
+        if (packet != null) {
+            return packet;
+        }
+
+        // read the version first, a change while serializing must invalidate the result
+        int version = this.chunk.modificationVersion;
+        packet = new PacketPlayOutMapChunk(this.chunk, 65535);
+        if (io.akarin.server.core.AkarinGlobalConfig.chunkPacketCache) {
+            CHUNK_PACKET_MISSES.increment();
+            this.cachedChunkPacket = packet;
+            this.cachedChunkPacketVersion = version;
+            this.playerChunkMap.touchChunkPacket(this);
+        }
+        return packet;
+    }
+    // Akarin end
+
     public void c() {
         long i = this.playerChunkMap.getWorld().getTime();
 
@@ -196,6 +248,7 @@ public class PlayerChunk {
     }
 
     public void a(int i, int j, int k) {
+        this.dropCachedChunkPacket(); // Akarin - the chunk is changing, the next full packet would be stale anyway
         if (this.done) {
             if (this.dirtyCount == 0) {
                 this.playerChunkMap.a(this);
@@ -247,6 +300,7 @@ public class PlayerChunk {
                     // Paper - Anti-Xray - Loading chunks here could cause a ConcurrentModificationException #1104
                     // Paper - Anti-Xray - TODO: Check if this is still the case for 1.13
                     //this.chunk.world.chunkPacketBlockController.onChunkPacketCreate(this.chunk, this.h, true); // Paper - Anti-Xray - Load nearby chunks if necessary
+                    if (this.chunk.world.lightingEngine != null) this.chunk.world.lightingEngine.flushChunk(this.chunk); // Akarin
                     this.a((Packet) (new PacketPlayOutMapChunk(this.chunk, this.h)));
                 } else {
                     this.a((Packet) (new PacketPlayOutMultiBlockChange(this.dirtyCount, this.dirtyBlocks, this.chunk)));
@@ -463,12 +463,36 @@ public class PlayerChunkMap {
         this.f.add(playerchunk);
     }
 
+    // Akarin start - bounds the full chunk packets PlayerChunks keep, least recently sent are dropped first
+    private final it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet<PlayerChunk> cachedChunkPackets = new it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet<>();
+
+    void touchChunkPacket(PlayerChunk playerchunk) {
+        PlayerChunk evicted = null;
+        synchronized (this.cachedChunkPackets) {
+            this.cachedChunkPackets.addAndMoveToLast(playerchunk);
+            if (this.cachedChunkPackets.size() > io.akarin.server.core.AkarinGlobalConfig.chunkPacketCacheSize) {
+                evicted = this.cachedChunkPackets.first();
+            }
+        }
+        if (evicted != null) {
+            evicted.dropCachedChunkPacket();
+        }
+    }
+
+    void forgetChunkPacket(PlayerChunk playerchunk) {
+        synchronized (this.cachedChunkPackets) {
+            this.cachedChunkPackets.remove(playerchunk);
+        }
+    }
+    // Akarin end
+
     public void b(PlayerChunk playerchunk) {
         org.spigotmc.AsyncCatcher.catchOp("Async Player Chunk Remove"); // Paper
         ChunkCoordIntPair chunkcoordintpair = playerchunk.a();
         long i = d(chunkcoordintpair.x, chunkcoordintpair.z);
 
         playerchunk.c();
+        playerchunk.dropCachedChunkPacket(); // Akarin
         this.e.remove(i);
         this.i.remove(playerchunk);
         this.f.remove(playerchunk);
@@ -126,6 +126,7 @@ public class PlayerConnection implements PacketListenerPlayIn, ITickable {
 
     private final org.bukkit.craftbukkit.CraftServer server;
     public boolean processedDisconnect;
+    final AkarinInboundPacketQueue inboundQueue = new AkarinInboundPacketQueue(this); // Akarin
     private int lastTick = MinecraftServer.currentTick;
     private int allowedPlayerTicks = 1;
     private int lastDropTick = MinecraftServer.currentTick;
@@ -148,6 +149,12 @@ public class PlayerConnection implements PacketListenerPlayIn, ITickable {
     }
     // CraftBukkit end
 
+    // Akarin start
+    void addCoalescedMovePackets(int count) {
+        this.receivedMovePackets += count;
+    }
+    // Akarin end
+
     public void tick() {
         this.syncPosition();
         this.player.playerTick();
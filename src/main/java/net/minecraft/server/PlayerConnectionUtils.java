@@ -7,6 +7,12 @@ public class PlayerConnectionUtils {
 
     public static <T extends PacketListener> void ensureMainThread(Packet<T> packet, T t0, IAsyncTaskHandler iasynctaskhandler) throws CancelledPacketHandleException {
         if (!iasynctaskhandler.isMainThread()) {
+            // Akarin start - per connection queue
+            if (io.akarin.server.core.AkarinGlobalConfig.inboundPacketQueues && t0 instanceof PlayerConnection) {
+                ((PlayerConnection) t0).inboundQueue.offer(packet);
+                throw CancelledPacketHandleException.INSTANCE;
+            }
+            // Akarin end
             Timing timing = MinecraftTimings.getPacketTiming(packet); // Paper
 
             iasynctaskhandler.ensuresMainThread(() -> {
@@ -346,6 +346,23 @@ public abstract class PlayerList {
     protected void savePlayerFile(EntityPlayer entityplayer) {
         if (!entityplayer.getBukkitEntity().isPersistent()) return; // CraftBukkit
         entityplayer.lastSave = MinecraftServer.currentTick; // Paper
+        // Akarin start - snapshot here, write off the main thread
+        if (io.akarin.server.core.AkarinGlobalConfig.asyncPlayerDataSaving && this.playerFileData instanceof WorldNBTStorage) {
+            MinecraftTimings.playerDataSnapshotTimer.startTimingIfSync();
+            AkarinPlayerDataWriter.Snapshot snapshot = ((WorldNBTStorage) this.playerFileData).snapshot(entityplayer);
+            ServerStatisticManager statistics = (ServerStatisticManager) entityplayer.getStatisticManager();
+            if (statistics != null) {
+                snapshot.stats(statistics.getFile(), statistics.snapshot());
+            }
+            AdvancementDataPlayer advancements = (AdvancementDataPlayer) entityplayer.getAdvancementData();
+            if (advancements != null) {
+                snapshot.advancements(advancements.getFile(), advancements.snapshot());
+            }
+            AkarinPlayerDataWriter.submit(snapshot);
+            MinecraftTimings.playerDataSnapshotTimer.stopTimingIfSync();
+            return;
+        }
+        // Akarin end
         this.playerFileData.save(entityplayer);
         ServerStatisticManager serverstatisticmanager = (ServerStatisticManager) entityplayer.getStatisticManager(); // CraftBukkit
 
@@ -1059,43 +1076,55 @@ public abstract class PlayerList {
     }
 
     public void sendAll(Packet<?> packet) {
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
+        try { // Akarin
         for (EntityHuman player : this.players) { // Akarin - iterate safety
-            ((EntityPlayer) player).playerConnection.sendPacket(packet); // Akarin
+            ((EntityPlayer) player).playerConnection.sendPacket(broadcast.next()); // Akarin
         }
+        } finally { broadcast.release(); } // Akarin
 
     }
 
     // CraftBukkit start - add a world/entity limited version
     public void sendAll(Packet packet, EntityHuman entityhuman) {
         AkarinAsyncExecutor.scheduleAsyncTask(() -> { // Akarin
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
+        try { // Akarin
         for (int i = 0; i < this.players.size(); ++i) {
             EntityPlayer entityplayer =  this.players.get(i);
             if (entityhuman != null && entityhuman instanceof EntityPlayer && !entityplayer.getBukkitEntity().canSee(((EntityPlayer) entityhuman).getBukkitEntity())) {
                 continue;
             }
-            ((EntityPlayer) this.players.get(i)).playerConnection.sendPacket(packet);
+            ((EntityPlayer) this.players.get(i)).playerConnection.sendPacket(broadcast.next()); // Akarin
         }
+        } finally { broadcast.release(); } // Akarin
         }); // Akarin
     }
 
     public void sendAll(Packet packet, World world) {
         AkarinAsyncExecutor.scheduleAsyncTask(() -> { // Akarin
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
+        try { // Akarin
         for (EntityHuman player : world.players) { // Akarin - iterate safety
-            ((EntityPlayer) player).playerConnection.sendPacket(packet); // Akarin
+            ((EntityPlayer) player).playerConnection.sendPacket(broadcast.next()); // Akarin
         }
+        } finally { broadcast.release(); } // Akarin
         }); // Akarin
 
     }
     // CraftBukkit end
 
     public void a(Packet<?> packet, DimensionManager dimensionmanager) {
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
+        try { // Akarin
         for (int i = 0; i < this.players.size(); ++i) {
             EntityPlayer entityplayer = (EntityPlayer) this.players.get(i);
 
             if (entityplayer.dimension == dimensionmanager) {
-                entityplayer.playerConnection.sendPacket(packet);
+                entityplayer.playerConnection.sendPacket(broadcast.next()); // Akarin
             }
         }
+        } finally { broadcast.release(); } // Akarin
 
     }
 
@@ -1236,6 +1265,8 @@ public abstract class PlayerList {
         }
 
         List<? extends EntityHuman> players1 = world == null ? players : world.players;
+        AkarinSharedPacket.Broadcast broadcast = new AkarinSharedPacket.Broadcast(packet); // Akarin
+        try { // Akarin
         for (EntityHuman entity : players1) { // Akarin - iterate safety
             //EntityHuman entity = players1.get(j); // Akarin
             if (!(entity instanceof EntityPlayer)) continue;
@@ -1254,10 +1285,11 @@ public abstract class PlayerList {
                 double d6 = d2 - entityplayer.locZ;
 
                 if (d4 * d4 + d5 * d5 + d6 * d6 < d3 * d3) {
-                    entityplayer.playerConnection.sendPacket(packet);
+                    entityplayer.playerConnection.sendPacket(broadcast.next()); // Akarin
                 }
             }
         }
+        } finally { broadcast.release(); } // Akarin
 
     }
 
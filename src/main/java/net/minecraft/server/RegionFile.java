@@ -1,7 +1,6 @@
 package net.minecraft.server;
 
 import com.destroystokyo.paper.exception.ServerInternalException;
-import com.google.common.collect.Lists;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
@@ -11,9 +10,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.List;
 import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.InflaterInputStream;
 import javax.annotation.Nullable;
 
@@ -29,13 +26,43 @@ public class RegionFile {
     private RandomAccessFile c;private RandomAccessFile getDataFile() { return c; } // Paper - OBFHELPER
     private final int[] d = new int[1024];private int[] offsets = d; // Paper - OBFHELPER
     private final int[] e = new int[1024];private int[] timestamps = e; // Paper - OBFHELPER
-    private List<Boolean> f;
+    // Akarin start - List<Boolean> f -> bitmap of used sectors
+    private java.util.BitSet usedSectors;
+    private int sectorCount;
+    // Akarin end
     private int g;
     private long h;
+    // Akarin start - concurrent region I/O
+    private static final int LOCK_STRIPES = 16;
+    private final boolean concurrent = io.akarin.server.core.AkarinGlobalConfig.concurrentRegionIO;
+    private final java.util.concurrent.locks.ReentrantReadWriteLock[] stripes;
+    private java.nio.channels.FileChannel channel;
+    private volatile boolean closed;
+    volatile int lastAccess = MinecraftServer.currentTick;
+    // Akarin end
+
+    // Akarin start
+    private final AkarinRegionCompression compression;
 
     public RegionFile(File file) {
+        this(file, new AkarinRegionCompression(file.getAbsoluteFile().getParentFile().getParentFile(), AkarinRegionCompression.Codec.ZLIB, -1));
+    }
+
+    public RegionFile(File file, AkarinRegionCompression compression) {
+        this.compression = compression;
+        // Akarin end
         this.b = file;
         this.g = 0;
+        // Akarin start
+        if (this.concurrent) {
+            this.stripes = new java.util.concurrent.locks.ReentrantReadWriteLock[LOCK_STRIPES];
+            for (int stripe = 0; stripe < LOCK_STRIPES; ++stripe) {
+                this.stripes[stripe] = new java.util.concurrent.locks.ReentrantReadWriteLock();
+            }
+        } else {
+            this.stripes = null;
+        }
+        // Akarin end
 
         try {
             if (file.exists()) {
@@ -43,6 +70,7 @@ public class RegionFile {
             }
 
             this.c = new RandomAccessFile(file, "rw");
+            this.channel = this.c.getChannel(); // Akarin
             if (this.c.length() < 8192L) { // Paper - headers should be 8192
                 this.c.write(RegionFile.a);
                 this.c.write(RegionFile.a);
@@ -58,16 +86,13 @@ public class RegionFile {
             }
 
             i = (int) this.c.length() / 4096;
-            this.f = Lists.newArrayListWithCapacity(i);
+            // Akarin start
+            this.sectorCount = i;
+            this.usedSectors = new java.util.BitSet(i);
+            this.usedSectors.set(0, 2);
 
             int j;
-
-            for (j = 0; j < i; ++j) {
-                this.f.add(true);
-            }
-
-            this.f.set(0, false);
-            this.f.set(1, false);
+            // Akarin end
             this.c.seek(0L);
 
             int k;
@@ -87,18 +112,16 @@ public class RegionFile {
                 // Spigot start
                 int length = k & 255;
                 if (length == 255) {
-                    if ((k >> 8) <= this.f.size()) {
+                    if ((k >> 8) <= this.sectorCount) { // Akarin
                          // We're maxed out, so we need to read the proper length from the section
                         this.c.seek((k >> 8) * 4096);
                         length = (this.c.readInt() + 4) / 4096 + 1;
                         this.c.seek(j * 4 + 4); // Go back to where we were
                     }
                 }
-                if (k > 0 && (k >> 8) > 1 && (k >> 8) + (length) <= this.f.size()) { // Paper >= 1 as 0/1 are the headers, and negative isnt valid
-                    for (int l = 0; l < (length); ++l) {
-                        // Spigot end
-                        this.f.set((k >> 8) + l, false);
-                    }
+                if (k > 0 && (k >> 8) > 1 && (k >> 8) + (length) <= this.sectorCount) { // Paper >= 1 as 0/1 are the headers, and negative isnt valid // Akarin
+                    // Spigot end
+                    this.usedSectors.set(k >> 8, (k >> 8) + length); // Akarin
                 }
                 // Spigot start
                 else if (k != 0) { // Paper
@@ -120,7 +143,91 @@ public class RegionFile {
     }
 
     @Nullable
-    public synchronized DataInputStream getReadStream(int i, int j) { return a(i, j); } @Nullable public synchronized DataInputStream a(int i, int j) { // Paper - OBFHELPER
+    public DataInputStream getReadStream(int i, int j) { return a(i, j); } @Nullable public DataInputStream a(int i, int j) { // Paper - OBFHELPER // Akarin - synchronize only the legacy path
+        // Akarin start
+        if (this.concurrent) {
+            return this.readConcurrent(i, j);
+        }
+        synchronized (this) {
+            return this.readSynchronized(i, j);
+        }
+    }
+
+    /**
+     * Reads a chunk with positional reads under its lock stripe, so chunks of the same
+     * region are read in parallel and only wait for a writer of the same stripe.
+     */
+    @Nullable
+    private DataInputStream readConcurrent(int i, int j) {
+        if (this.e(i, j)) {
+            return null;
+        }
+
+        int index = i + j * 32;
+        java.util.concurrent.locks.Lock lock = this.stripes[index & (LOCK_STRIPES - 1)].readLock();
+        lock.lock();
+        try {
+            if (this.closed) {
+                return null;
+            }
+
+            int k = this.d[index];
+            if (k == 0) {
+                return null;
+            }
+
+            int l = k >> 8;
+            int i1 = k & 255;
+            long position = (long) l * 4096L;
+            java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(5);
+            this.readFully(header, position);
+            header.flip();
+            int j1 = header.getInt();
+            byte b0 = header.get();
+
+            if (i1 == 255) {
+                i1 = (j1 + 4) / 4096 + 1;
+            }
+            if (position + (long) i1 * 4096L > this.channel.size()) {
+                return null;
+            }
+            if (j1 > 4096 * i1) {
+                org.bukkit.Bukkit.getLogger().log(java.util.logging.Level.SEVERE, "Invalid chunk: ({0}, {1}) Offset: {2} Invalid Size: {3}>{4} {5}", new Object[]{i, j, l, j1, i1 * 4096, this.b});
+                return null;
+            } else if (j1 <= 0) {
+                org.bukkit.Bukkit.getLogger().log(java.util.logging.Level.SEVERE, "Invalid chunk: ({0}, {1}) Offset: {2} Invalid Size: {3} {4}", new Object[]{i, j, l, j1, this.b});
+                return null;
+            }
+
+            byte[] abyte = new byte[j1 - 1];
+            this.readFully(java.nio.ByteBuffer.wrap(abyte), position + 5L);
+            java.io.InputStream in = this.compression.decompress(b0, new ByteArrayInputStream(abyte));
+            return in != null ? new DataInputStream(new BufferedInputStream(in)) : null;
+        } catch (AkarinRegionCompression.DictionaryException e) {
+            com.destroystokyo.paper.util.SneakyThrow.sneaky(e); // never read as missing, it would be generated again
+            return null;
+        } catch (IOException ioexception) {
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void readFully(java.nio.ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) == -1) {
+                throw new java.io.EOFException();
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    @Nullable
+    private DataInputStream readSynchronized(int i, int j) {
+        // Akarin end
         if (this.e(i, j)) {
             return null;
         } else {
@@ -139,7 +246,7 @@ public class RegionFile {
                     }
                     // Spigot end
 
-                    if (l + i1 > this.f.size()) {
+                    if (l + i1 > this.sectorCount) { // Akarin
                         return null;
                     } else {
                         this.c.seek((long) (l * 4096));
@@ -153,22 +260,20 @@ public class RegionFile {
                             return null;
                         } else {
                             byte b0 = this.c.readByte();
-                            byte[] abyte;
-
-                            if (b0 == 1) {
-                                abyte = new byte[j1 - 1];
-                                this.c.read(abyte);
-                                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(abyte))));
-                            } else if (b0 == 2) {
-                                abyte = new byte[j1 - 1];
-                                this.c.read(abyte);
-                                return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(abyte))));
-                            } else {
-                                return null;
-                            }
+                            // Akarin start - codec by compression type
+                            byte[] abyte = new byte[j1 - 1];
+                            this.c.read(abyte);
+                            java.io.InputStream in = this.compression.decompress(b0, new ByteArrayInputStream(abyte));
+                            return in != null ? new DataInputStream(new BufferedInputStream(in)) : null;
+                            // Akarin end
                         }
                     }
                 }
+            // Akarin start
+            } catch (AkarinRegionCompression.DictionaryException e) {
+                com.destroystokyo.paper.util.SneakyThrow.sneaky(e); // never read as missing, it would be generated again
+                return null;
+            // Akarin end
             } catch (IOException ioexception) {
                 return null;
             }
@@ -187,7 +292,7 @@ public class RegionFile {
                 int l = k >> 8;
                 int i1 = k & 255;
 
-                if (l + i1 > this.f.size()) {
+                if (l + i1 > this.sectorCount) { // Akarin
                     return false;
                 } else {
                     try {
@@ -209,6 +314,16 @@ public class RegionFile {
     }
 
     protected synchronized void a(int i, int j, byte[] abyte, int k) {
+        this.a(i, j, abyte, k, AkarinRegionCompression.ZLIB); // Akarin
+    }
+
+    protected synchronized void a(int i, int j, byte[] abyte, int k, int codec) { // Akarin - add codec
+        // Akarin start - readers of this stripe must not see the sectors while they move
+        java.util.concurrent.locks.Lock lock = this.concurrent ? this.stripes[(i + j * 32) & (LOCK_STRIPES - 1)].writeLock() : null;
+        if (lock != null) {
+            lock.lock();
+        }
+        // Akarin end
         try {
             int l = this.getOffset(i, j);
             int i1 = l >> 8;
@@ -230,57 +345,37 @@ public class RegionFile {
             }
 
             if (i1 != 0 && j1 == k1) {
-                this.a(i1, abyte, k);
+                this.a(i1, abyte, k, codec); // Akarin
             } else {
-                int l1;
-
-                for (l1 = 0; l1 < j1; ++l1) {
-                    this.f.set(i1 + l1, true);
+                // Akarin start
+                if (i1 != 0) {
+                    this.usedSectors.clear(i1, i1 + j1);
                 }
 
-                l1 = this.f.indexOf(true);
-                int i2 = 0;
+                int l1 = this.findFreeSectors(k1);
                 int j2;
 
                 if (l1 != -1) {
-                    for (j2 = l1; j2 < this.f.size(); ++j2) {
-                        if (i2 != 0) {
-                            if ((Boolean) this.f.get(j2)) {
-                                ++i2;
-                            } else {
-                                i2 = 0;
-                            }
-                        } else if ((Boolean) this.f.get(j2)) {
-                            l1 = j2;
-                            i2 = 1;
-                        }
-
-                        if (i2 >= k1) {
-                            break;
-                        }
-                    }
-                }
-
-                if (i2 >= k1) {
                     i1 = l1;
                     this.a(i, j, l1 << 8 | (k1 > 255 ? 255 : k1)); // Spigot
+                    this.usedSectors.set(i1, i1 + k1);
+                    // Akarin end
 
-                    for (j2 = 0; j2 < k1; ++j2) {
-                        this.f.set(i1 + j2, false);
-                    }
-
-                    this.a(i1, abyte, k);
+                    this.a(i1, abyte, k, codec); // Akarin
                 } else {
                     this.c.seek(this.c.length());
-                    i1 = this.f.size();
+                    i1 = this.sectorCount; // Akarin
 
                     for (j2 = 0; j2 < k1; ++j2) {
                         this.c.write(RegionFile.a);
-                        this.f.add(false);
                     }
+                    // Akarin start
+                    this.sectorCount += k1;
+                    this.usedSectors.set(i1, i1 + k1);
+                    // Akarin end
 
                     this.g += 4096 * k1;
-                    this.a(i1, abyte, k);
+                    this.a(i1, abyte, k, codec); // Akarin
                     this.a(i, j, i1 << 8 | (k1 > 255 ? 255 : k1)); // Spigot
                 }
             }
@@ -288,14 +383,127 @@ public class RegionFile {
             this.b(i, j, (int) (SystemUtils.getTimeMillis() / 1000L));
         } catch (IOException ioexception) {
             com.destroystokyo.paper.util.SneakyThrow.sneaky(ioexception); // Paper - we want the upper try/catch to retry this
+        } finally { if (lock != null) lock.unlock(); } // Akarin
+
+    }
+
+    // Akarin start
+    /**
+     * First fit search for a run of free sectors
+     *
+     * @return First sector of the run, or -1 if the file has to grow
+     */
+    private int findFreeSectors(int count) {
+        int start = this.usedSectors.nextClearBit(2);
+
+        while (start + count <= this.sectorCount) {
+            int end = this.usedSectors.nextSetBit(start);
+
+            if (end == -1 || end > this.sectorCount) {
+                end = this.sectorCount;
+            }
+            if (end - start >= count) {
+                return start;
+            }
+            start = this.usedSectors.nextClearBit(end);
         }
 
+        return -1;
     }
 
-    private void a(int i, byte[] abyte, int j) throws IOException {
+    /**
+     * Rewrites the region with every chunk packed at the front, in file order. The
+     * copy is written and synced to a temporary file first, then moved over the region,
+     * so a crash at any point leaves either the old or the new file intact.
+     *
+     * @return Bytes reclaimed
+     */
+    public synchronized long compact() throws IOException {
+        if (this.concurrent) {
+            for (java.util.concurrent.locks.ReentrantReadWriteLock stripe : this.stripes) {
+                stripe.writeLock().lock();
+            }
+        }
+        try {
+            if (this.closed) {
+                return 0L;
+            }
+
+            Integer[] order = new Integer[1024];
+            int[] lengths = new int[1024];
+            for (int index = 0; index < 1024; ++index) {
+                order[index] = index;
+                int k = this.d[index];
+
+                if (k != 0) {
+                    int length = k & 255;
+                    if (length == 255) {
+                        this.c.seek((long) (k >> 8) * 4096L);
+                        length = (this.c.readInt() + 4) / 4096 + 1;
+                    }
+                    lengths[index] = length;
+                }
+            }
+            java.util.Arrays.sort(order, java.util.Comparator.comparingInt(index -> this.d[index] >> 8));
+
+            int[] offsets = new int[1024];
+            int next = 2;
+            File temp = new File(this.b.getPath() + ".compact");
+            try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+                out.setLength(0L);
+                out.seek(8192L);
+                for (int index : order) {
+                    int k = this.d[index];
+                    int length = lengths[index];
+
+                    if (k == 0) {
+                        continue;
+                    }
+
+                    byte[] data = new byte[length * 4096];
+                    this.c.seek((long) (k >> 8) * 4096L);
+                    this.c.readFully(data);
+                    out.write(data);
+                    offsets[index] = next << 8 | (k & 255);
+                    next += length;
+                }
+
+                java.nio.ByteBuffer header = java.nio.ByteBuffer.allocate(8192);
+                header.asIntBuffer().put(offsets).put(this.e);
+                out.seek(0L);
+                out.write(header.array());
+                out.getChannel().force(true);
+            }
+
+            long reclaimed = ((long) this.sectorCount - next) * 4096L;
+            this.c.close();
+            try {
+                java.nio.file.Files.move(temp.toPath(), this.b.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // on failure this reopens the untouched original
+                this.c = new RandomAccessFile(this.b, "rw");
+                this.channel = this.c.getChannel();
+            }
+
+            System.arraycopy(offsets, 0, this.d, 0, 1024);
+            this.sectorCount = next;
+            this.usedSectors.clear();
+            this.usedSectors.set(0, next);
+            return reclaimed;
+        } finally {
+            if (this.concurrent) {
+                for (java.util.concurrent.locks.ReentrantReadWriteLock stripe : this.stripes) {
+                    stripe.writeLock().unlock();
+                }
+            }
+        }
+    }
+    // Akarin end
+
+    private void a(int i, byte[] abyte, int j, int codec) throws IOException { // Akarin - add codec
         this.c.seek((long) (i * 4096));
         this.c.writeInt(j + 1);
-        this.c.writeByte(2);
+        this.c.writeByte(codec); // Akarin
         this.c.write(abyte, 0, j);
     }
 
@@ -308,6 +516,17 @@ public class RegionFile {
     }
 
     public boolean d(int i, int j) {
+        // Akarin start
+        if (this.concurrent) {
+            java.util.concurrent.locks.Lock lock = this.stripes[(i + j * 32) & (LOCK_STRIPES - 1)].readLock();
+            lock.lock();
+            try {
+                return this.d[i + j * 32] != 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+        // Akarin end
         return this.getOffset(i, j) != 0;
     }
 
@@ -323,10 +542,28 @@ public class RegionFile {
         this.c.writeInt(k);
     }
 
-    public void close() throws IOException {
+    public synchronized void close() throws IOException { // Akarin - exclusive with compact
+        // Akarin start - wait for in flight concurrent reads
+        if (this.concurrent) {
+            for (java.util.concurrent.locks.ReentrantReadWriteLock stripe : this.stripes) {
+                stripe.writeLock().lock();
+            }
+        }
+        try {
+            this.closed = true;
+        // Akarin end
         if (this.c != null) {
             this.c.close();
         }
+        // Akarin start
+        } finally {
+            if (this.concurrent) {
+                for (java.util.concurrent.locks.ReentrantReadWriteLock stripe : this.stripes) {
+                    stripe.writeLock().unlock();
+                }
+            }
+        }
+        // Akarin end
 
     }
 
@@ -496,36 +733,13 @@ public class RegionFile {
             // Paper start - apply dynamic compression
             int origLength = this.count;
             byte[] buf = this.buf;
-            DirectByteArrayOutputStream out = compressData(buf, origLength);
+            DirectByteArrayOutputStream out = new DirectByteArrayOutputStream(origLength); // Akarin
+            int codec = RegionFile.this.compression.compress(buf, origLength, out); // Akarin - pluggable codecs
             byte[] bytes = out.getBuffer();
             int length = out.size();
 
-            RegionFile.this.a(this.b, this.c, bytes, length); // Paper - change to bytes/length
+            RegionFile.this.a(this.b, this.c, bytes, length, codec); // Paper - change to bytes/length // Akarin - add codec
             // Paper end
         }
     }
-
-    private static DirectByteArrayOutputStream compressData(byte[] buf, int length) throws IOException {
-        final java.util.zip.Deflater deflater;
-        if (length > 1024 * 512) {
-            deflater = new java.util.zip.Deflater(9);
-        } else if (length > 1024 * 128) {
-            deflater = new java.util.zip.Deflater(8);
-        } else {
-            deflater = new java.util.zip.Deflater(6);
-        }
-
-
-        deflater.setInput(buf, 0, length);
-        deflater.finish();
-
-        DirectByteArrayOutputStream out = new DirectByteArrayOutputStream(length);
-        byte[] buffer = new byte[1024 * (length > 1024 * 124 ? 32 : 16)];
-        while (!deflater.finished()) {
-            out.write(buffer, 0, deflater.deflate(buffer));
-        }
-        out.close();
-        deflater.end();
-        return out;
-    }
 }
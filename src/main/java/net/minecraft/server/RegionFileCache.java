@@ -15,9 +15,47 @@ import java.util.LinkedHashMap; // Paper
 public class RegionFileCache {
 
     public static final Map<File, RegionFile> cache = new LinkedHashMap(PaperConfig.regionFileCacheSize, 0.75f, true); // Paper - HashMap -> LinkedHashMap
+    // Akarin start - lock free lookup of open regions, mirrors cache and is only written under the class lock
+    private static final java.util.concurrent.ConcurrentHashMap<File, RegionFile> openRegions = new java.util.concurrent.ConcurrentHashMap<>();
 
-    public static synchronized RegionFile getRegionFile(File file, int i, int j) { return a(file, i, j); } // Paper - OBFHELPER
-    public static synchronized RegionFile a(File file, int i, int j) {
+    @Nullable
+    private static RegionFile getOpenRegion(File file, int i, int j) {
+        if (!io.akarin.server.core.AkarinGlobalConfig.concurrentRegionIO) {
+            return null;
+        }
+        RegionFile regionfile = openRegions.get(getRegionFileName(file, i, j));
+        if (regionfile != null) {
+            regionfile.lastAccess = MinecraftServer.currentTick;
+        }
+        return regionfile;
+    }
+
+    public static synchronized void forget(File file) {
+        openRegions.remove(file);
+    }
+
+    private static final Map<File, AkarinRegionCompression> compressions = new java.util.concurrent.ConcurrentHashMap<>();
+
+    /**
+     * Sets the codec new chunks of the world are written with, regions already open keep their codec
+     */
+    public static void setCompression(File file, AkarinRegionCompression compression) {
+        compressions.put(file.getAbsoluteFile(), compression);
+    }
+
+    private static AkarinRegionCompression getCompression(File file) {
+        return compressions.computeIfAbsent(file.getAbsoluteFile(), (folder) -> new AkarinRegionCompression(folder, AkarinRegionCompression.Codec.ZLIB, -1));
+    }
+    // Akarin end
+
+    public static RegionFile getRegionFile(File file, int i, int j) { return a(file, i, j); } // Paper - OBFHELPER
+    // Akarin start
+    public static RegionFile a(File file, int i, int j) {
+        RegionFile regionfile = getOpenRegion(file, i, j);
+        return regionfile != null ? regionfile : openRegion(file, i, j);
+    }
+    private static synchronized RegionFile openRegion(File file, int i, int j) {
+    // Akarin end
         File file1 = new File(file, "region");
         File file2 = new File(file1, "r." + (i >> 5) + "." + (j >> 5) + ".mca");
         RegionFile regionfile = (RegionFile) RegionFileCache.cache.get(file2);
@@ -33,15 +71,22 @@ public class RegionFileCache {
                 trimCache();
             }
 
-            RegionFile regionfile1 = new RegionFile(file2);
+            RegionFile regionfile1 = new RegionFile(file2, getCompression(file)); // Akarin
 
             RegionFileCache.cache.put(file2, regionfile1);
+            if (io.akarin.server.core.AkarinGlobalConfig.concurrentRegionIO) openRegions.put(file2, regionfile1); // Akarin
             return regionfile1;
         }
     }
 
     // CraftBukkit start
-    public static synchronized RegionFile b(File file, int i, int j) {
+    // Akarin start
+    public static RegionFile b(File file, int i, int j) {
+        RegionFile regionfile = getOpenRegion(file, i, j);
+        return regionfile != null ? regionfile : openExistingRegion(file, i, j);
+    }
+    private static synchronized RegionFile openExistingRegion(File file, int i, int j) {
+    // Akarin end
         File file1 = new File(file, "region");
         File file2 = new File(file1, "r." + (i >> 5) + "." + (j >> 5) + ".mca");
         RegionFile regionfile = (RegionFile) RegionFileCache.cache.get(file2);
@@ -53,9 +98,10 @@ public class RegionFileCache {
                 a();
             }
 
-            RegionFile regionfile1 = new RegionFile(file2);
+            RegionFile regionfile1 = new RegionFile(file2, getCompression(file)); // Akarin
 
             RegionFileCache.cache.put(file2, regionfile1);
+            if (io.akarin.server.core.AkarinGlobalConfig.concurrentRegionIO) openRegions.put(file2, regionfile1); // Akarin
             return regionfile1;
         } else {
             return null;
@@ -65,19 +111,29 @@ public class RegionFileCache {
 
     // Paper Start
     private static synchronized void trimCache() {
-        Iterator<Map.Entry<File, RegionFile>> itr = RegionFileCache.cache.entrySet().iterator();
+        // Akarin start - lock free hits do not reorder the cache, evict by last access instead
+        java.util.List<Map.Entry<File, RegionFile>> entries = new java.util.ArrayList<>(RegionFileCache.cache.entrySet());
+        if (io.akarin.server.core.AkarinGlobalConfig.concurrentRegionIO) {
+            entries.sort(java.util.Comparator.comparingInt(entry -> entry.getValue().lastAccess));
+        }
+        Iterator<Map.Entry<File, RegionFile>> itr = entries.iterator();
+        // Akarin end
         int count = RegionFileCache.cache.size() - PaperConfig.regionFileCacheSize;
         while (count-- >= 0 && itr.hasNext()) {
+            // Akarin start
+            Map.Entry<File, RegionFile> entry = itr.next();
+            openRegions.remove(entry.getKey());
             try {
-                itr.next().getValue().close();
+                entry.getValue().close();
+            // Akarin end
             } catch (IOException ioexception) {
                 ioexception.printStackTrace();
                 ServerInternalException.reportInternalException(ioexception);
             }
-            itr.remove();
+            RegionFileCache.cache.remove(entry.getKey()); // Akarin
         }
     }
-    public static synchronized File getRegionFileName(File file, int i, int j) {
+    public static File getRegionFileName(File file, int i, int j) { // Akarin - no shared state, remove synchronization
         File file1 = new File(file, "region");
         return new File(file1, "r." + (i >> 5) + "." + (j >> 5) + ".mca");
     }
@@ -222,6 +278,7 @@ public class RegionFileCache {
         }
 
         RegionFileCache.cache.clear();
+        openRegions.clear(); // Akarin
     }
 
     @Nullable
@@ -237,6 +294,11 @@ public class RegionFileCache {
 
         DataInputStream datainputstream = regionfile.a(i & 31, j & 31);
 
+        // Akarin start - the region was evicted while we were reading it, open it again
+        if (datainputstream == null && regionfile.isClosed()) {
+            datainputstream = a(file, i, j).a(i & 31, j & 31);
+        }
+        // Akarin end
         if (datainputstream == null) {
             return null;
         }
@@ -244,6 +306,22 @@ public class RegionFileCache {
         return NBTCompressedStreamTools.a(datainputstream);
     }
 
+    // Akarin start - raw chunk data for AkarinChunkStreamReader, null when missing or oversized
+    @Nullable
+    static DataInputStream getChunkStream(File file, int i, int j) throws IOException {
+        RegionFile regionfile = a(file, i, j);
+        if (regionfile.isOversized(i, j)) {
+            return null;
+        }
+
+        DataInputStream datainputstream = regionfile.a(i & 31, j & 31);
+        if (datainputstream == null && regionfile.isClosed()) {
+            datainputstream = a(file, i, j).a(i & 31, j & 31);
+        }
+        return datainputstream;
+    }
+    // Akarin end
+
     @Nullable
     public static void write(File file, int i, int j, NBTTagCompound nbttagcompound) throws IOException {
         int attempts = 0; Exception laste = null; while (attempts++ < 5) { try { // Paper
@@ -176,6 +176,15 @@ public class ServerConnection {
                 }
             }
 
+            // Akarin start - one flush per connection for everything queued this tick
+            if (io.akarin.server.core.AkarinGlobalConfig.flushConsolidation) {
+                for (NetworkManager networkmanager : this.g) {
+                    if (networkmanager.isConnected()) {
+                        networkmanager.flushTick();
+                    }
+                }
+            }
+            // Akarin end
         }
     }
 
@@ -55,6 +55,17 @@ public class ServerStatisticManager extends StatisticManager {
 
     }
 
+    // Akarin start
+    @Nullable
+    String snapshot() {
+        return org.spigotmc.SpigotConfig.disableStatSaving ? null : this.b();
+    }
+
+    File getFile() {
+        return this.d;
+    }
+    // Akarin end
+
     public void a() {
         if ( org.spigotmc.SpigotConfig.disableStatSaving ) return; // Spigot
         try {
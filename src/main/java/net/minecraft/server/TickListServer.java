@@ -22,6 +22,10 @@ public class TickListServer<T> implements TickList<T> {
     protected final HashTreeSet<NextTickListEntry> nextTickList = new HashTreeSet<>(); // CraftBukkit - HashTreeSet
     private final WorldServer f;
     private final List<NextTickListEntry<T>> g = Lists.newArrayList();
+    // Akarin start - index pending ticks by chunk so chunk save/unload only touches that chunk's entries
+    private final it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap<it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<NextTickListEntry<T>>> pendingByChunk = new it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap<>();
+    private final Set<NextTickListEntry<T>> gHash = new it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<>();
+    // Akarin end
     private final Consumer<NextTickListEntry<T>> h;
 
     public TickListServer(WorldServer worldserver, Predicate<T> predicate, Function<T, MinecraftKey> function, Function<MinecraftKey, T> function1, Consumer<NextTickListEntry<T>> consumer, String timingsType) { // Paper
@@ -65,8 +69,10 @@ public class TickListServer<T> implements TickList<T> {
                 }
 
                 this.nextTickList.remove(nextticklistentry);
+                this.removeFromChunkIndex(nextticklistentry); // Akarin
                 // this.nextTickListHash.remove(nextticklistentry); // CraftBukkit - use nextTickList
                 this.g.add(nextticklistentry);
+                this.gHash.add(nextticklistentry); // Akarin
             }
             timingCleanup.stopTimingUnsafe(); // Paper // Akarin
 
@@ -78,6 +84,7 @@ public class TickListServer<T> implements TickList<T> {
             while (iterator.hasNext()) {
                 nextticklistentry = (NextTickListEntry) iterator.next();
                 iterator.remove();
+                this.gHash.remove(nextticklistentry); // Akarin
                 boolean flag = false;
 
                 if (this.f.areChunksLoadedBetween(nextticklistentry.a.a(0, 0, 0), nextticklistentry.a.a(0, 0, 0))) {
@@ -97,12 +104,13 @@ public class TickListServer<T> implements TickList<T> {
 
             //this.f.methodProfiler.exit(); // Akarin
             this.g.clear();
+            this.gHash.clear(); // Akarin
             timingTicking.stopTimingUnsafe(); // Paper // Akarin
         }
     }
 
     public boolean b(BlockPosition blockposition, T t0) {
-        return this.g.contains(new NextTickListEntry<>(blockposition, t0));
+        return this.gHash.contains(new NextTickListEntry<>(blockposition, t0)); // Akarin - hash lookup
     }
 
     public List<NextTickListEntry<T>> a(Chunk chunk, boolean flag) {
@@ -118,26 +126,62 @@ public class TickListServer<T> implements TickList<T> {
     public List<NextTickListEntry<T>> a(StructureBoundingBox structureboundingbox, boolean flag) {
         List<NextTickListEntry<T>> list = null;
 
-        for (int i = 0; i < 2; ++i) {
-            Iterator iterator;
+        // Akarin start - only visit the chunks overlapping the box instead of every pending tick
+        int minChunkX = structureboundingbox.a >> 4;
+        int maxChunkX = (structureboundingbox.d - 1) >> 4;
+        int minChunkZ = structureboundingbox.c >> 4;
+        int maxChunkZ = (structureboundingbox.f - 1) >> 4;
 
-            if (i == 0) {
-                iterator = this.nextTickList.iterator();
-            } else {
-                iterator = this.g.iterator();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; ++chunkX) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; ++chunkZ) {
+                long key = ChunkCoordIntPair.a(chunkX, chunkZ);
+                it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<NextTickListEntry<T>> pending = this.pendingByChunk.get(key);
+
+                if (pending == null) {
+                    continue;
+                }
+
+                Iterator<NextTickListEntry<T>> iterator = pending.iterator();
+
+                while (iterator.hasNext()) {
+                    NextTickListEntry<T> nextticklistentry = iterator.next();
+
+                    if (isInside(structureboundingbox, nextticklistentry.a)) {
+                        if (flag) {
+                            iterator.remove();
+                            this.nextTickList.remove(nextticklistentry);
+                        }
+
+                        if (list == null) {
+                            list = Lists.newArrayList();
+                        }
+
+                        list.add(nextticklistentry);
+                    }
+                }
+
+                if (flag && pending.isEmpty()) {
+                    this.pendingByChunk.remove(key);
+                }
             }
+        }
+
+        // the chunk index is unordered, restore the order of the time-ordered set so entries are saved and rescheduled as before
+        if (list != null && list.size() > 1) {
+            Collections.sort((List) list);
+        }
+
+        // Entries being ticked right now are only present while a() runs, so this is empty on chunk save/unload
+        if (!this.g.isEmpty()) {
+            Iterator<NextTickListEntry<T>> iterator = this.g.iterator();
 
             while (iterator.hasNext()) {
-                NextTickListEntry<T> nextticklistentry = (NextTickListEntry) iterator.next();
-                BlockPosition blockposition = nextticklistentry.a;
+                NextTickListEntry<T> nextticklistentry = iterator.next();
 
-                if (blockposition.getX() >= structureboundingbox.a && blockposition.getX() < structureboundingbox.d && blockposition.getZ() >= structureboundingbox.c && blockposition.getZ() < structureboundingbox.f) {
+                if (isInside(structureboundingbox, nextticklistentry.a)) {
                     if (flag) {
-                        if (i == 0) {
-                            // this.nextTickListHash.remove(nextticklistentry); // CraftBukkit - removed
-                        }
-
                         iterator.remove();
+                        this.gHash.remove(nextticklistentry);
                     }
 
                     if (list == null) {
@@ -148,10 +192,38 @@ public class TickListServer<T> implements TickList<T> {
                 }
             }
         }
+        // Akarin end
 
         return (List) (list == null ? Collections.emptyList() : list);
     }
 
+    // Akarin start
+    private static boolean isInside(StructureBoundingBox structureboundingbox, BlockPosition blockposition) {
+        return blockposition.getX() >= structureboundingbox.a && blockposition.getX() < structureboundingbox.d && blockposition.getZ() >= structureboundingbox.c && blockposition.getZ() < structureboundingbox.f;
+    }
+
+    private void addToChunkIndex(NextTickListEntry<T> nextticklistentry) {
+        long key = ChunkCoordIntPair.a(nextticklistentry.a.getX() >> 4, nextticklistentry.a.getZ() >> 4);
+        it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<NextTickListEntry<T>> pending = this.pendingByChunk.get(key);
+
+        if (pending == null) {
+            pending = new it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<>();
+            this.pendingByChunk.put(key, pending);
+        }
+
+        pending.add(nextticklistentry);
+    }
+
+    private void removeFromChunkIndex(NextTickListEntry<T> nextticklistentry) {
+        long key = ChunkCoordIntPair.a(nextticklistentry.a.getX() >> 4, nextticklistentry.a.getZ() >> 4);
+        it.unimi.dsi.fastutil.objects.ObjectOpenHashSet<NextTickListEntry<T>> pending = this.pendingByChunk.get(key);
+
+        if (pending != null && pending.remove(nextticklistentry) && pending.isEmpty()) {
+            this.pendingByChunk.remove(key);
+        }
+    }
+    // Akarin end
+
     public void a(StructureBoundingBox structureboundingbox, BlockPosition blockposition) {
         List<NextTickListEntry<T>> list = this.a(structureboundingbox, false);
         Iterator iterator = list.iterator();
@@ -228,6 +300,7 @@ public class TickListServer<T> implements TickList<T> {
         // CraftBukkit - use nextTickList
         if (!this.nextTickList.contains(nextticklistentry)) {
             this.nextTickList.add(nextticklistentry);
+            this.addToChunkIndex(nextticklistentry); // Akarin
         }
 
     }
@@ -52,7 +52,7 @@ public abstract class TileEntity implements KeyedObject { // Paper
     public void setCurrentChunk(Chunk chunk) {
         this.currentChunk = chunk != null ? new java.lang.ref.WeakReference<>(chunk) : null;
     }
-    static boolean IGNORE_TILE_UPDATES = false;
+    static final ThreadLocal<Boolean> IGNORE_TILE_UPDATES = ThreadLocal.withInitial(() -> Boolean.FALSE); // Akarin - set around a single setItem call, per ticking thread
     // Paper end
 
     @Nullable
@@ -125,7 +125,7 @@ public abstract class TileEntity implements KeyedObject { // Paper
 
     public void update() {
         if (this.world != null) {
-            if (IGNORE_TILE_UPDATES) return; // Paper
+            if (IGNORE_TILE_UPDATES.get()) return; // Paper // Akarin
             this.f = this.world.getType(this.position);
             this.world.b(this.position, this);
             if (!this.f.isAir()) {
@@ -225,7 +225,7 @@ public class TileEntityChest extends TileEntityLootable { // Paper - Remove ITic
                 int newPower = Math.max(0, Math.min(15, this.f));
 
                 if (oldPower != newPower) {
-                    org.bukkit.craftbukkit.event.CraftEventFactory.callRedstoneChange(world, position, oldPower, newPower);
+                    org.bukkit.craftbukkit.event.CraftEventFactory.handleRedstoneChange(world, position, oldPower, newPower); // Akarin
                 }
             }
             // CraftBukkit end
@@ -245,7 +245,7 @@ public class TileEntityChest extends TileEntityLootable { // Paper - Remove ITic
                 int newPower = Math.max(0, Math.min(15, this.f));
 
                 if (oldPower != newPower) {
-                    org.bukkit.craftbukkit.event.CraftEventFactory.callRedstoneChange(world, position, oldPower, newPower);
+                    org.bukkit.craftbukkit.event.CraftEventFactory.handleRedstoneChange(world, position, oldPower, newPower); // Akarin
                 }
             }
             // CraftBukkit end
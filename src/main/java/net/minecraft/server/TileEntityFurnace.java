@@ -104,6 +104,7 @@ public class TileEntityFurnace extends TileEntityContainer implements IWorldInve
 
     // CraftBukkit start - add fields and methods
     private int maxStack = MAX_STACK;
+    final AkarinRecipeIndex.LastMatch lastRecipeMatch = new AkarinRecipeIndex.LastMatch(); // Akarin
     public List<HumanEntity> transaction = new java.util.ArrayList<HumanEntity>();
 
     public List<ItemStack> getContents() {
@@ -24,6 +24,13 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
     // CraftBukkit start - add fields and methods
     public List<HumanEntity> transaction = new java.util.ArrayList<HumanEntity>();
     private int maxStack = MAX_STACK;
+    // Akarin start - cached hopper mode
+    private final AkarinHopperCache.Target pushTarget = new AkarinHopperCache.Target();
+    private final AkarinHopperCache.Target pullSource = new AkarinHopperCache.Target();
+    private final AkarinHopperCache.FailedMove failedPush = new AkarinHopperCache.FailedMove();
+    private final AkarinHopperCache.FailedMove failedPull = new AkarinHopperCache.FailedMove();
+    private boolean pushCancelled;
+    // Akarin end
 
     public List<ItemStack> getContents() {
         return this.items;
@@ -190,12 +197,10 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
     }
 
     // Paper start - Optimize Hoppers
-    private static boolean skipPullModeEventFire = false;
-    private static boolean skipPushModeEventFire = false;
-    static boolean skipHopperEvents = false;
+    // Akarin - skip flags moved to World, worlds may tick in parallel
 
     private boolean hopperPush(IInventory iinventory, EnumDirection enumdirection) {
-        skipPushModeEventFire = skipHopperEvents;
+        world.skipPushModeEventFire = world.skipHopperEvents; // Akarin
         boolean foundItem = false;
         for (int i = 0; i < this.getSize(); ++i) {
             if (!this.getItem(i).isEmpty()) {
@@ -209,7 +214,7 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
 
                 // We only need to fire the event once to give protection plugins a chance to cancel this event
                 // Because nothing uses getItem, every event call should end up the same result.
-                if (!skipPushModeEventFire) {
+                if (!world.skipPushModeEventFire) { // Akarin
                     itemstack = callPushMoveEvent(iinventory, itemstack);
                     if (itemstack == null) { // cancelled
                         origItemStack.setCount(origCount);
@@ -242,7 +247,7 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
         final int moved = Math.min(world.spigotConfig.hopperAmount, origCount);
         itemstack.setCount(moved);
 
-        if (!skipPullModeEventFire) {
+        if (!world.skipPullModeEventFire) { // Akarin
             itemstack = callPullMoveEvent(ihopper, iinventory, itemstack);
             if (itemstack == null) { // cancelled
                 origItemStack.setCount(origCount);
@@ -258,9 +263,9 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
         if (remaining != moved) {
             origItemStack = origItemStack.cloneItemStack(true);
             origItemStack.setCount(origCount - moved + remaining);
-            IGNORE_TILE_UPDATES = true;
+            IGNORE_TILE_UPDATES.set(Boolean.TRUE); // Akarin
             iinventory.setItem(i, origItemStack);
-            IGNORE_TILE_UPDATES = false;
+            IGNORE_TILE_UPDATES.set(Boolean.FALSE); // Akarin
             iinventory.update();
             return true;
         }
@@ -279,9 +284,10 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
                 CraftItemStack.asCraftMirror(itemstack), destinationInventory, true);
         boolean result = event.callEvent();
         if (!event.calledGetItem && !event.calledSetItem) {
-            skipPushModeEventFire = true;
+            world.skipPushModeEventFire = true; // Akarin
         }
         if (!result) {
+            this.pushCancelled = true; // Akarin
             cooldownHopper(this);
             return null;
         }
@@ -302,7 +308,7 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
                 CraftItemStack.asCraftMirror(itemstack), destination, false);
         boolean result = event.callEvent();
         if (!event.calledGetItem && !event.calledSetItem) {
-            skipPullModeEventFire = true;
+            hopper.getWorld().skipPullModeEventFire = true; // Akarin
         }
         if (!result) {
             cooldownHopper(hopper);
@@ -348,6 +354,22 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
             if (this.a(iinventory, enumdirection)) {
                 return false;
             } else {
+                // Akarin start - don't retry a push that failed until either side changes
+                if (io.akarin.server.core.AkarinGlobalConfig.hopperCaching) {
+                    if (this.failedPush.matches(this, iinventory)) {
+                        AkarinHopperCache.SKIPPED_MOVES.increment();
+                        return false;
+                    }
+                    this.pushCancelled = false;
+                    boolean moved = hopperPush(iinventory, enumdirection);
+                    if (moved || this.pushCancelled) {
+                        this.failedPush.clear();
+                    } else {
+                        this.failedPush.record(this, iinventory);
+                    }
+                    return moved;
+                }
+                // Akarin end
                 return hopperPush(iinventory, enumdirection); /* // Paper - disable rest
                 for (int i = 0; i < this.getSize(); ++i) {
                     if (!this.getItem(i).isEmpty()) {
@@ -457,7 +479,14 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
             if (b(iinventory, enumdirection)) {
                 return false;
             }
-            skipPullModeEventFire = skipHopperEvents; // Paper
+            ihopper.getWorld().skipPullModeEventFire = ihopper.getWorld().skipHopperEvents; // Paper // Akarin
+            // Akarin start - don't retry a pull that failed until either side changes
+            TileEntityHopper hopper = io.akarin.server.core.AkarinGlobalConfig.hopperCaching && ihopper instanceof TileEntityHopper ? (TileEntityHopper) ihopper : null;
+            if (hopper != null && hopper.failedPull.matches(iinventory, hopper)) {
+                AkarinHopperCache.SKIPPED_MOVES.increment();
+                return false;
+            }
+            // Akarin end
 
             if (iinventory instanceof IWorldInventory) {
                 IWorldInventory iworldinventory = (IWorldInventory) iinventory;
@@ -481,6 +510,11 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
                     }
                 }
             }
+            // Akarin start - cancelled pulls report success, so this moved nothing
+            if (hopper != null) {
+                hopper.failedPull.record(iinventory, hopper);
+            }
+            // Akarin end
         } else {
             Iterator iterator = c(ihopper).iterator();
 
@@ -600,9 +634,9 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
             boolean flag1 = iinventory1.P_();
 
             if (itemstack1.isEmpty()) {
-                IGNORE_TILE_UPDATES = true; // Paper
+                IGNORE_TILE_UPDATES.set(Boolean.TRUE); // Paper // Akarin
                 iinventory1.setItem(i, itemstack);
-                IGNORE_TILE_UPDATES = false; // Paper
+                IGNORE_TILE_UPDATES.set(Boolean.FALSE); // Paper // Akarin
                 itemstack = ItemStack.a;
                 flag = true;
             } else if (a(itemstack1, itemstack)) {
@@ -644,15 +678,28 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
     private IInventory D() {
         EnumDirection enumdirection = (EnumDirection) this.getBlock().get(BlockHopper.FACING);
 
+        if (io.akarin.server.core.AkarinGlobalConfig.hopperCaching) return this.pushTarget.resolve(this.getWorld(), this.position.shift(enumdirection)); // Akarin
         return a(this.getWorld(), this.position.shift(enumdirection));
     }
 
     @Nullable
     public static IInventory b(IHopper ihopper) {
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.hopperCaching && ihopper instanceof TileEntityHopper) {
+            TileEntityHopper hopper = (TileEntityHopper) ihopper;
+            return hopper.pullSource.resolve(hopper.getWorld(), hopper.position.up());
+        }
+        // Akarin end
         return a(ihopper.getWorld(), ihopper.G(), ihopper.H() + 1.0D, ihopper.I());
     }
 
     public static List<EntityItem> c(IHopper ihopper) {
+        // Akarin start - no items around, skip the shape search
+        if (io.akarin.server.core.AkarinGlobalConfig.hopperCaching && !AkarinHopperCache.mayHaveEntities(ihopper.getWorld(), ihopper.G() - 0.5D, ihopper.H() - 0.5D, ihopper.I() - 0.5D, ihopper.G() + 0.5D, ihopper.H() + 1.5D, ihopper.I() + 0.5D, true)) {
+            AkarinHopperCache.SKIPPED_SCANS.increment();
+            return java.util.Collections.emptyList();
+        }
+        // Akarin end
         return (List) ihopper.i().d().stream().flatMap((axisalignedbb) -> {
             return ihopper.getWorld().a(EntityItem.class, axisalignedbb.d(ihopper.G() - 0.5D, ihopper.H() - 0.5D, ihopper.I() - 0.5D), IEntitySelector.a).stream();
         }).collect(Collectors.toList());
@@ -668,6 +715,20 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
         Object object = null;
         BlockPosition blockposition = new BlockPosition(d0, d1, d2);
         if ( !world.isLoaded( blockposition ) ) return null; // Spigot
+        // Akarin start - split into tile and entity lookup
+        object = getTileInventory(world, blockposition);
+
+        if (object == null) {
+            object = getEntityInventory(world, d0, d1, d2);
+        }
+
+        return (IInventory) object;
+    }
+
+    @Nullable
+    static IInventory getTileInventory(World world, BlockPosition blockposition) {
+        Object object = null;
+        // Akarin end
         IBlockData iblockdata = world.getType(blockposition);
         Block block = iblockdata.getBlock();
 
@@ -682,12 +743,18 @@ public class TileEntityHopper extends TileEntityLootable implements IHopper, ITi
             }
         }
 
-        if (object == null) {
-            List<Entity> list = world.getEntities((Entity) null, new AxisAlignedBB(d0 - 0.5D, d1 - 0.5D, d2 - 0.5D, d0 + 0.5D, d1 + 0.5D, d2 + 0.5D), IEntitySelector.d);
+        // Akarin start
+        return (IInventory) object;
+    }
 
-            if (!list.isEmpty()) {
-                object = (IInventory) list.get(world.random.nextInt(list.size()));
-            }
+    @Nullable
+    static IInventory getEntityInventory(World world, double d0, double d1, double d2) {
+        Object object = null;
+        // Akarin end
+        List<Entity> list = world.getEntities((Entity) null, new AxisAlignedBB(d0 - 0.5D, d1 - 0.5D, d2 - 0.5D, d0 + 0.5D, d1 + 0.5D, d2 + 0.5D), IEntitySelector.d);
+
+        if (!list.isEmpty()) {
+            object = (IInventory) list.get(world.random.nextInt(list.size()));
         }
 
         return (IInventory) object;
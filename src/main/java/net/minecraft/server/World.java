@@ -166,10 +166,21 @@ public abstract class World implements IEntityAccess, GeneratorAccess, IIBlockAc
     public final org.spigotmc.SpigotWorldConfig spigotConfig; // Spigot
 
     public final com.destroystokyo.paper.PaperWorldConfig paperConfig; // Paper
+    public AkarinLightingEngine lightingEngine; // Akarin - null unless async lighting is enabled
     public final ChunkPacketBlockController chunkPacketBlockController; // Paper - Anti-Xray
 
     public final co.aikar.timings.WorldTimingsHandler timings; // Paper
     public boolean guardEntityList; // Spigot // Paper - public
+    // Akarin start - tick state kept per world, worlds may tick on their own threads
+    boolean skipHopperEvents; // Paper - moved from TileEntityHopper
+    boolean skipPullModeEventFire; // Paper - moved from TileEntityHopper
+    boolean skipPushModeEventFire; // Paper - moved from TileEntityHopper
+    boolean dispenserEventFired; // CraftBukkit - moved from BlockDispenser
+    boolean redstoneWireCanProvidePower = true; // moved from BlockRedstoneWire
+    final Set<BlockPosition> redstoneWireUpdates = com.google.common.collect.Sets.newHashSet(); // moved from BlockRedstoneWire
+    com.destroystokyo.paper.util.RedstoneWireTurbo redstoneWireTurbo; // Paper - moved from BlockRedstoneWire, created on first use
+    final List<BlockRedstoneTorch.RedstoneUpdateInfo> redstoneTorchUpdates = Lists.newArrayList(); // Spigot - moved from BlockRedstoneTorch
+    // Akarin end
     public static BlockPosition lastPhysicsProblem; // Spigot
     public static boolean haveWeSilencedAPhysicsCrash;
     public static String blockLocation;
@@ -187,6 +198,7 @@ public abstract class World implements IEntityAccess, GeneratorAccess, IIBlockAc
     }
 
     public Chunk getChunkIfLoaded(int x, int z) {
+        if (AkarinWorldTicker.parallelPhase) AkarinWorldTicker.checkAccess(this); // Akarin
         return ((ChunkProviderServer) this.chunkProvider).chunks.get(ChunkCoordIntPair.a(x, z)); // Paper - optimize getChunkIfLoaded
     }
 
@@ -450,6 +462,11 @@ public abstract class World implements IEntityAccess, GeneratorAccess, IIBlockAc
 
                 if (iblockdata2.b(this, blockposition) != iblockdata1.b(this, blockposition) || iblockdata2.e() != iblockdata1.e()) {
                     //this.methodProfiler.enter(* // Akarin - remove caller
+                    // Akarin start
+                    if (this.lightingEngine != null) {
+                        this.lightingEngine.queueBlock(blockposition, () -> this.r(blockposition));
+                    } else
+                    // Akarin end
                     chunk.runOrQueueLightUpdate(() -> this.r(blockposition)); // Paper - Queue light update
                     //this.methodProfiler.exit(); // Akarin - remove caller
                 }
@@ -563,7 +580,7 @@ public abstract class World implements IEntityAccess, GeneratorAccess, IIBlockAc
             // they are NOT used with same intent and the above should not fire this event. The above method is more of a BlockSetToAirEvent,
             // it doesn't imply destruction of a block that plays a sound effect / drops an item.
             boolean playEffect = true;
-            if (com.destroystokyo.paper.event.block.BlockDestroyEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            if (com.destroystokyo.paper.event.block.BlockDestroyEvent.getHandlerList().hasListeners()) { // Akarin
                 com.destroystokyo.paper.event.block.BlockDestroyEvent event = new com.destroystokyo.paper.event.block.BlockDestroyEvent(MCUtil.toBukkitBlock(this, blockposition), fluid.i().createCraftBlockData(), flag);
                 if (!event.callEvent()) {
                     return false;
@@ -1411,14 +1428,21 @@ public abstract class World implements IEntityAccess, GeneratorAccess, IIBlockAc
                 if (chunk != null) chunk.removeEntity(entity);
                 // Paper end
 
+                // Akarin start - drop the slot after the loop instead of shifting the list
+                if (io.akarin.server.core.AkarinGlobalConfig.entityListTombstones) {
+                    this.entityList.tombstone(this.tickPosition);
+                } else {
                 guardEntityList = false; // Spigot
                 this.entityList.remove(this.tickPosition--); // CraftBukkit - Use field for loop variable
                 guardEntityList = true; // Spigot
+                }
+                // Akarin end
                 this.c(entity);
             }
 
             //this.methodProfiler.exit(); // Akarin - remove caller
         }
+        this.entityList.compact(); // Akarin - still guarded, indices are stable until here
         guardEntityList = false; // Spigot
 
         timings.entityTick.stopTimingUnsafe(); // Spigot // Akarin
@@ -194,6 +194,12 @@ public class WorldNBTStorage implements IDataManager, IPlayerFileData {
 
     public void save(EntityHuman entityhuman) {
         if(!com.destroystokyo.paper.PaperConfig.savePlayerData) return; // Paper - Make player data saving configurable
+        // Akarin start
+        if (io.akarin.server.core.AkarinGlobalConfig.asyncPlayerDataSaving) {
+            AkarinPlayerDataWriter.submit(this.snapshot(entityhuman));
+            return;
+        }
+        // Akarin end
         try {
             NBTTagCompound nbttagcompound = entityhuman.save(new NBTTagCompound());
             File file = new File(this.playerDir, entityhuman.bu() + ".dat.tmp");
@@ -211,9 +217,27 @@ public class WorldNBTStorage implements IDataManager, IPlayerFileData {
 
     }
 
+    // Akarin start
+    /**
+     * Takes the data of a player to be written by {@link AkarinPlayerDataWriter}
+     */
+    AkarinPlayerDataWriter.Snapshot snapshot(EntityHuman entityhuman) {
+        AkarinPlayerDataWriter.Snapshot snapshot = new AkarinPlayerDataWriter.Snapshot(entityhuman.bu(), entityhuman.getName());
+        if (com.destroystokyo.paper.PaperConfig.savePlayerData) {
+            try {
+                snapshot.data(this.playerDir, entityhuman.save(new NBTTagCompound()));
+            } catch (Exception exception) {
+                WorldNBTStorage.b.error("Failed to save player data for {}", entityhuman.getName(), exception);
+            }
+        }
+        return snapshot;
+    }
+    // Akarin end
+
     @Nullable
     public NBTTagCompound load(EntityHuman entityhuman) {
         NBTTagCompound nbttagcompound = null;
+        AkarinPlayerDataWriter.flush(entityhuman.bu()); // Akarin - read what was last saved
 
         try {
             File file = new File(this.playerDir, entityhuman.bu() + ".dat");
@@ -265,6 +289,7 @@ public class WorldNBTStorage implements IDataManager, IPlayerFileData {
 
     // CraftBukkit start
     public NBTTagCompound getPlayerData(String s) {
+        AkarinPlayerDataWriter.flush(s); // Akarin - read what was last saved
         try {
             File file1 = new File(this.playerDir, s + ".dat");
 
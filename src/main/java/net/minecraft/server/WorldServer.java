@@ -1,7 +1,6 @@
 package net.minecraft.server;
 
 import co.aikar.timings.Timings;
-import io.akarin.server.core.AkarinAsyncExecutor;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -38,6 +37,7 @@ public class WorldServer extends World implements IAsyncTaskHandler {
 
     private static final Logger a = LogManager.getLogger();
     boolean hasPhysicsEvent = true; // Paper
+    volatile long lastTickNanos; // Akarin - last doTick, tickEntities and tracker time
     private final MinecraftServer server;
     public EntityTracker tracker;
     private final PlayerChunkMap manager;
@@ -77,6 +77,8 @@ public class WorldServer extends World implements IAsyncTaskHandler {
         this.d = new ObjectLinkedOpenHashSet();
         this.server = minecraftserver;
         this.tracker = new EntityTracker(this);
+        co.aikar.timings.TimingsMetrics.gauge("world-tick." + worlddata.getName() + ".micros", () -> this.lastTickNanos / 1000L); // Akarin
+        this.lightingEngine = io.akarin.server.core.AkarinGlobalConfig.enableAsyncLighting ? new AkarinLightingEngine(this) : null; // Akarin
         this.manager = new PlayerChunkMap(this);
         this.worldProvider.a((World) this);
         this.chunkProvider = this.r();
@@ -450,13 +452,18 @@ public class WorldServer extends World implements IAsyncTaskHandler {
         if (spigotConfig.randomLightUpdates && !this.players.isEmpty()) { // Spigot
             int i = this.random.nextInt(this.players.size());
             EntityHuman entityhuman = (EntityHuman) this.players.get(i);
-            AkarinAsyncExecutor.scheduleAsyncTask(() -> { // Akarin
+            // Akarin start
             int j = MathHelper.floor(entityhuman.locX) + this.random.nextInt(11) - 5;
             int k = MathHelper.floor(entityhuman.locY) + this.random.nextInt(11) - 5;
             int l = MathHelper.floor(entityhuman.locZ) + this.random.nextInt(11) - 5;
+            BlockPosition blockposition = new BlockPosition(j, k, l);
 
-            this.r(new BlockPosition(j, k, l));
-            }); // Akarin
+            if (this.lightingEngine != null) {
+                this.lightingEngine.queueBlock(blockposition, () -> this.r(blockposition));
+            } else {
+                this.r(blockposition);
+            }
+            // Akarin end
         }
 
         //this.methodProfiler.exit(); // Akarin - remove caller
@@ -485,7 +492,13 @@ public class WorldServer extends World implements IAsyncTaskHandler {
                 int k = chunk.locZ * 16;
 
                 //this.methodProfiler.exitEnter("checkNextLight"); // Akarin - remove caller
-                AkarinAsyncExecutor.scheduleAsyncTask(chunk::x); // Akarin 
+                // Akarin start
+                if (this.lightingEngine != null) {
+                    this.lightingEngine.queueChunk(chunk, AkarinLightingEngine.CHECK_LIGHT, chunk::x);
+                } else {
+                    chunk.x();
+                }
+                // Akarin end
                 //this.methodProfiler.exitEnter("tickChunk"); // Akarin - remove caller
                 chunk.d(false);
                 if ( !chunk.areNeighborsLoaded( 1 ) ) continue; // Spigot
@@ -708,6 +721,12 @@ public class WorldServer extends World implements IAsyncTaskHandler {
 
     protected IChunkProvider r() {
         IChunkLoader ichunkloader = this.dataManager.createChunkLoader(this.worldProvider);
+        // Akarin start
+        if (ichunkloader instanceof ChunkRegionLoader) {
+            java.io.File folder = ((ChunkRegionLoader) ichunkloader).getWorldFolder();
+            RegionFileCache.setCompression(folder, new AkarinRegionCompression(folder, this.paperConfig.chunkCompressionCodec, this.paperConfig.chunkCompressionLevel));
+        }
+        // Akarin end
 
         // CraftBukkit start
         org.bukkit.craftbukkit.generator.InternalChunkGenerator gen;
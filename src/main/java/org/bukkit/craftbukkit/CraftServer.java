@@ -1064,6 +1064,7 @@ public final class CraftServer implements Server {
         }
 
         pluginManager.callEvent(new WorldLoadEvent(internal.getWorld()));
+        AkarinPregenerator.resume(internal); // Akarin
         return internal.getWorld();
     }
 
@@ -1099,6 +1100,8 @@ public final class CraftServer implements Server {
             return false;
         }
 
+        AkarinPregenerator.stop(handle); // Akarin - saves its progress
+
         if (save) {
             try {
                 handle.save(true, null);
@@ -1122,6 +1125,7 @@ public final class CraftServer implements Server {
                 while (child != null) {
                     if (child.equals(parentFolder)) {
                         i.remove();
+                        RegionFileCache.forget(entry.getKey()); // Akarin
                         try {
                             entry.getValue().close();
                         } catch (IOException ex) {
@@ -1244,6 +1248,7 @@ public final class CraftServer implements Server {
     @Override
     public void clearRecipes() {
         console.getCraftingManager().recipes.clear();
+        console.getCraftingManager().invalidateRecipeIndex(); // Akarin
     }
 
     @Override
@@ -1724,7 +1729,7 @@ public final class CraftServer implements Server {
 
     @Override
     public boolean isPrimaryThread() {
-        return ThreadAssertion.isMainThread() || Thread.currentThread().equals(console.primaryThread);
+        return ThreadAssertion.isMainThread() || Thread.currentThread().equals(console.primaryThread) || net.minecraft.server.AkarinWorldTicker.isWorldTickThread(); // Akarin
     }
 
     @Override
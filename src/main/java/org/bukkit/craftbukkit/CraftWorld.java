@@ -88,6 +88,18 @@ public class CraftWorld implements World {
     private int chunkLoadCount = 0;
     private int chunkGCTickCount;
 
+    // Akarin start
+    @Override
+    public io.akarin.server.api.world.Pregeneration pregenerate(int centerX, int centerZ, int radius) {
+        return AkarinPregenerator.start(world, centerX, centerZ, radius);
+    }
+
+    @Override
+    public io.akarin.server.api.world.Pregeneration getPregeneration() {
+        return AkarinPregenerator.get(world);
+    }
+    // Akarin end
+
     // Paper start - Provide fast information methods
     public int getEntityCount() {
         return world.entityList.size();
@@ -383,7 +383,9 @@ public class CraftEventFactory {
     public static boolean doEntityAddEventCalling(World world, Entity entity, SpawnReason spawnReason){
         if (entity == null) return false;
 
-        org.bukkit.event.Cancellable event = null;
+        boolean checkSpawn = true; // Akarin - false where no event applies
+        boolean cancelled = false; // Akarin - events nobody listens to are not built
+        boolean spawnListeners = EntitySpawnEvent.getHandlerList().hasListeners(); // Akarin - shared by creature, item and projectile launch events
         if (entity instanceof EntityLiving && !(entity instanceof EntityPlayer)) {
             boolean isAnimal = entity instanceof EntityAnimal || entity instanceof EntityWaterAnimal || entity instanceof EntityGolem;
             boolean isMonster = entity instanceof EntityMonster || entity instanceof EntityGhast || entity instanceof EntitySlime;
@@ -396,16 +398,17 @@ public class CraftEventFactory {
                 }
             }
 
-            event = CraftEventFactory.callCreatureSpawnEvent((EntityLiving) entity, spawnReason);
+            cancelled = spawnListeners && CraftEventFactory.callCreatureSpawnEvent((EntityLiving) entity, spawnReason).isCancelled(); // Akarin
         } else if (entity instanceof EntityItem) {
-            event = CraftEventFactory.callItemSpawnEvent((EntityItem) entity);
+            cancelled = spawnListeners && CraftEventFactory.callItemSpawnEvent((EntityItem) entity).isCancelled(); // Akarin
         } else if (entity.getBukkitEntity() instanceof org.bukkit.entity.Projectile) {
             // Not all projectiles extend EntityProjectile, so check for Bukkit interface instead
-            event = CraftEventFactory.callProjectileLaunchEvent(entity);
+            cancelled = spawnListeners && CraftEventFactory.callProjectileLaunchEvent(entity).isCancelled(); // Akarin
         } else if (entity.getBukkitEntity() instanceof org.bukkit.entity.Vehicle){
-            event = CraftEventFactory.callVehicleCreateEvent(entity);
+            cancelled = CraftEventFactory.callVehicleCreateEvent(entity).isCancelled(); // Akarin
         // Spigot start
         } else if (entity instanceof EntityExperienceOrb) {
+            checkSpawn = false; // Akarin
             EntityExperienceOrb xp = (EntityExperienceOrb) entity;
             double radius = world.spigotConfig.expMerge;
             if (radius > 0) {
@@ -438,10 +441,10 @@ public class CraftEventFactory {
             }
         // Spigot end
         } else {
-            event = CraftEventFactory.callEntitySpawnEvent(entity);
+            cancelled = spawnListeners && CraftEventFactory.callEntitySpawnEvent(entity).isCancelled(); // Akarin
         }
 
-        if (event != null && (event.isCancelled() || entity.dead)) {
+        if (checkSpawn && (cancelled || entity.dead)) { // Akarin
             Entity vehicle = entity.getVehicle();
             if (vehicle != null) {
                 vehicle.dead = true;
@@ -1075,7 +1078,9 @@ public class CraftEventFactory {
         return event;
     }
 
+    @Nullable // Akarin
     public static ProjectileHitEvent callProjectileHitEvent(Entity entity, MovingObjectPosition position) {
+        if (!ProjectileHitEvent.getHandlerList().hasListeners()) return null; // Akarin - callers only fire it
         Block hitBlock = null;
         BlockFace hitFace = null;
         if (position.type == MovingObjectPosition.EnumMovingObjectType.BLOCK) {
@@ -1101,6 +1106,18 @@ public class CraftEventFactory {
         return event;
     }
 
+    // Akarin start
+    /**
+     * BlockRedstoneEvent, without building the block and event when nobody listens
+     *
+     * @return the current set by listeners
+     */
+    public static int handleRedstoneChange(World world, BlockPosition pos, int oldCurrent, int newCurrent) {
+        if (!BlockRedstoneEvent.getHandlerList().hasListeners()) return newCurrent;
+        return callRedstoneChange(world, pos, oldCurrent, newCurrent).getNewCurrent();
+    }
+    // Akarin end
+
     public static NotePlayEvent callNotePlayEvent(World world, BlockPosition pos, BlockPropertyInstrument instrument, int note) {
         NotePlayEvent event = new NotePlayEvent(world.getWorld().getBlockAt(pos.getX(), pos.getY(), pos.getZ()), org.bukkit.Instrument.getByType((byte) instrument.ordinal()), new org.bukkit.Note(note));
         world.getServer().getPluginManager().callEvent(event);
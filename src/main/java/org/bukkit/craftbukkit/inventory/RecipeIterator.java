@@ -24,5 +24,6 @@ public class RecipeIterator implements Iterator<Recipe> {
 
     public void remove() {
         recipes.remove();
+        MinecraftServer.getServer().getCraftingManager().invalidateRecipeIndex(); // Akarin
     }
 }
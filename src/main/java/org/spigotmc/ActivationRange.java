@@ -2,10 +2,15 @@ package org.spigotmc;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder; // Akarin
 
 import co.aikar.timings.MinecraftTimings;
+import co.aikar.timings.TimingsMetrics; // Akarin
+import it.unimi.dsi.fastutil.longs.LongIterator; // Akarin
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet; // Akarin
 import net.minecraft.server.AxisAlignedBB;
 import net.minecraft.server.Chunk;
+import net.minecraft.server.ChunkCoordIntPair; // Akarin
 import net.minecraft.server.Entity;
 import net.minecraft.server.EntityAmbient;
 import net.minecraft.server.EntityAnimal;
@@ -42,11 +47,7 @@ import net.minecraft.server.World;
 public class ActivationRange
 {
 
-    static AxisAlignedBB maxBB = new AxisAlignedBB( 0, 0, 0, 0, 0, 0 );
-    static AxisAlignedBB miscBB = new AxisAlignedBB( 0, 0, 0, 0, 0, 0 );
-    static AxisAlignedBB animalBB = new AxisAlignedBB( 0, 0, 0, 0, 0, 0 );
-    static AxisAlignedBB waterBB = new AxisAlignedBB( 0, 0, 0, 0, 0, 0 ); // Paper
-    static AxisAlignedBB monsterBB = new AxisAlignedBB( 0, 0, 0, 0, 0, 0 );
+    private static final LongAdder ENTITIES_CHECKED = TimingsMetrics.counter( "activation-range.entities-checked" ); // Akarin
 
     /**
      * Initializes an entities type on construction to specify what group this
@@ -120,16 +121,24 @@ public class ActivationRange
         maxRange = Math.max( maxRange, miscActivationRange );
         //maxRange = Math.min( ( world.spigotConfig.viewDistance << 4 ) - 8, maxRange ); Paper - Use player view distance API below instead
 
+        // Akarin start
+        if ( io.akarin.server.core.AkarinGlobalConfig.activationRangeDeduplicate )
+        {
+            activateEntitiesOnce( world, maxRange, miscActivationRange, animalActivationRange, monsterActivationRange, waterActivationRange );
+            MinecraftTimings.entityActivationCheckTimer.stopTimingUnsafe();
+            return;
+        }
+        // Akarin end
         Chunk chunk; // Paper
         for ( EntityHuman player : world.players )
         {
             int playerMaxRange = maxRange = Math.min( ( player.getViewDistance() << 4 ) - 8, maxRange ); // Paper - Use player view distance API
             player.activatedTick = MinecraftServer.currentTick;
-            maxBB = player.getBoundingBox().grow( playerMaxRange, 256, playerMaxRange ); // Paper - Use player view distance API
-            miscBB = player.getBoundingBox().grow( miscActivationRange, 256, miscActivationRange );
-            animalBB = player.getBoundingBox().grow( animalActivationRange, 256, animalActivationRange );
-            waterBB = player.getBoundingBox().grow( waterActivationRange, 256, waterActivationRange ); // Paper
-            monsterBB = player.getBoundingBox().grow( monsterActivationRange, 256, monsterActivationRange );
+            AxisAlignedBB maxBB = player.getBoundingBox().grow( playerMaxRange, 256, playerMaxRange ); // Paper - Use player view distance API
+            AxisAlignedBB miscBB = player.getBoundingBox().grow( miscActivationRange, 256, miscActivationRange );
+            AxisAlignedBB animalBB = player.getBoundingBox().grow( animalActivationRange, 256, animalActivationRange );
+            AxisAlignedBB waterBB = player.getBoundingBox().grow( waterActivationRange, 256, waterActivationRange ); // Paper
+            AxisAlignedBB monsterBB = player.getBoundingBox().grow( monsterActivationRange, 256, monsterActivationRange );
 
             int i = MathHelper.floor( maxBB.minX / 16.0D );
             int j = MathHelper.floor( maxBB.maxX / 16.0D );
@@ -142,7 +151,7 @@ public class ActivationRange
                 {
                     if ( (chunk = world.getChunkIfLoaded(i1, j1 )) != null ) // Paper
                     {
-                        activateChunkEntities( chunk ); // Paper
+                        activateChunkEntities( chunk, miscBB, animalBB, waterBB, monsterBB ); // Paper // Akarin - boxes are per call, worlds may tick in parallel
                     }
                 }
             }
@@ -150,12 +159,110 @@ public class ActivationRange
         MinecraftTimings.entityActivationCheckTimer.stopTimingUnsafe();
     }
 
+    // Akarin start
+    /**
+     * Same as the player loop above, but with the activation boxes of all players collected
+     * first, so every chunk in range of any player is visited once and every entity in it is
+     * tested once against the boxes of its group.
+     */
+    private static void activateEntitiesOnce(World world, int maxRange, int miscActivationRange, int animalActivationRange, int monsterActivationRange, int waterActivationRange)
+    {
+        final int players = world.players.size();
+        final AxisAlignedBB[] miscBoxes = new AxisAlignedBB[ players ];
+        final AxisAlignedBB[] animalBoxes = new AxisAlignedBB[ players ];
+        final AxisAlignedBB[] waterBoxes = new AxisAlignedBB[ players ];
+        final AxisAlignedBB[] monsterBoxes = new AxisAlignedBB[ players ];
+        final LongOpenHashSet chunks = new LongOpenHashSet();
+
+        for ( int index = 0; index < players; ++index )
+        {
+            EntityHuman player = world.players.get( index );
+            int playerMaxRange = Math.min( ( player.getViewDistance() << 4 ) - 8, maxRange );
+            player.activatedTick = MinecraftServer.currentTick;
+            AxisAlignedBB playerBB = player.getBoundingBox();
+            AxisAlignedBB playerMaxBB = playerBB.grow( playerMaxRange, 256, playerMaxRange );
+            miscBoxes[ index ] = playerBB.grow( miscActivationRange, 256, miscActivationRange );
+            animalBoxes[ index ] = playerBB.grow( animalActivationRange, 256, animalActivationRange );
+            waterBoxes[ index ] = playerBB.grow( waterActivationRange, 256, waterActivationRange );
+            monsterBoxes[ index ] = playerBB.grow( monsterActivationRange, 256, monsterActivationRange );
+
+            int i = MathHelper.floor( playerMaxBB.minX / 16.0D );
+            int j = MathHelper.floor( playerMaxBB.maxX / 16.0D );
+            int k = MathHelper.floor( playerMaxBB.minZ / 16.0D );
+            int l = MathHelper.floor( playerMaxBB.maxZ / 16.0D );
+
+            for ( int i1 = i; i1 <= j; ++i1 )
+            {
+                for ( int j1 = k; j1 <= l; ++j1 )
+                {
+                    chunks.add( ChunkCoordIntPair.a( i1, j1 ) );
+                }
+            }
+        }
+
+        long checked = 0;
+        LongIterator iterator = chunks.iterator();
+        while ( iterator.hasNext() )
+        {
+            long key = iterator.nextLong();
+            Chunk chunk = world.getChunkIfLoaded( (int) key, (int) ( key >> 32 ) );
+            if ( chunk == null )
+            {
+                continue;
+            }
+
+            for ( List<Entity> slice : chunk.entitySlices )
+            {
+                for ( Entity entity : slice )
+                {
+                    if ( MinecraftServer.currentTick <= entity.activatedTick )
+                    {
+                        continue;
+                    }
+                    if ( entity.defaultActivationState )
+                    {
+                        entity.activatedTick = MinecraftServer.currentTick;
+                        continue;
+                    }
+                    checked++;
+                    AxisAlignedBB[] boxes;
+                    switch ( entity.activationType )
+                    {
+                        case 1:
+                            boxes = monsterBoxes;
+                            break;
+                        case 2:
+                            boxes = animalBoxes;
+                            break;
+                        case 4:
+                            boxes = waterBoxes;
+                            break;
+                        case 3:
+                        default:
+                            boxes = miscBoxes;
+                    }
+                    AxisAlignedBB entityBB = entity.getBoundingBox();
+                    for ( AxisAlignedBB box : boxes )
+                    {
+                        if ( box.c( entityBB ) )
+                        {
+                            entity.activatedTick = MinecraftServer.currentTick;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        ENTITIES_CHECKED.add( checked );
+    }
+    // Akarin end
+
     /**
      * Checks for the activation state of all entities in this chunk.
      *
      * @param chunk
      */
-    private static void activateChunkEntities(Chunk chunk)
+    private static void activateChunkEntities(Chunk chunk, AxisAlignedBB miscBB, AxisAlignedBB animalBB, AxisAlignedBB waterBB, AxisAlignedBB monsterBB) // Akarin
     {
         for ( List<Entity> slice : chunk.entitySlices )
         {
@@ -168,6 +275,7 @@ public class ActivationRange
                         entity.activatedTick = MinecraftServer.currentTick;
                         continue;
                     }
+                    ENTITIES_CHECKED.increment(); // Akarin
                     switch ( entity.activationType )
                     {
                         case 1:
@@ -0,0 +1,58 @@
+package org.bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.ChunkSection;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkSectionLightTest extends AbstractTestingBase {
+
+    private static final int WRITERS = 4;
+    private static final int ROUNDS = 64;
+
+    private static int value(int x, int y, int z, int round) {
+        return (x * 7 + y * 3 + z + round) & 15;
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        ChunkSection section = new ChunkSection(0, true);
+        List<Thread> threads = new ArrayList<>();
+
+        // writers own every fourth x, so neighbouring writers always update the same bytes
+        for (int writer = 0; writer < WRITERS; ++writer) {
+            final int owned = writer;
+            Thread thread = new Thread(() -> {
+                for (int round = 0; round < ROUNDS; ++round) {
+                    for (int y = 0; y < 16; ++y) {
+                        for (int z = 0; z < 16; ++z) {
+                            for (int x = owned; x < 16; x += WRITERS) {
+                                section.a(x, y, z, value(x, y, z, round));
+                                section.b(x, y, z, value(x, y, z, round + 1));
+                                section.c(x, y, z);
+                                section.d(x, y, z);
+                            }
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int y = 0; y < 16; ++y) {
+            for (int z = 0; z < 16; ++z) {
+                for (int x = 0; x < 16; ++x) {
+                    Assert.assertEquals("Lost sky light update", value(x, y, z, ROUNDS - 1), section.c(x, y, z));
+                    Assert.assertEquals("Lost block light update", value(x, y, z, ROUNDS), section.d(x, y, z));
+                }
+            }
+        }
+    }
+}
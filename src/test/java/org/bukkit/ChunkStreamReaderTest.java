@@ -0,0 +1,160 @@
+package org.bukkit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import net.minecraft.server.AkarinChunkStreamReader;
+import net.minecraft.server.Block;
+import net.minecraft.server.Blocks;
+import net.minecraft.server.ChunkSection;
+import net.minecraft.server.IBlockData;
+import net.minecraft.server.NBTCompressedStreamTools;
+import net.minecraft.server.NBTTagCompound;
+import net.minecraft.server.NBTTagList;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChunkStreamReaderTest extends AbstractTestingBase {
+
+    private static final Block[] BLOCKS = {
+        Blocks.STONE, Blocks.DIRT, Blocks.GRASS_BLOCK, Blocks.COBBLESTONE, Blocks.OAK_PLANKS, Blocks.SAND, Blocks.GRAVEL,
+        Blocks.GOLD_ORE, Blocks.IRON_ORE, Blocks.COAL_ORE, Blocks.OAK_LOG, Blocks.GLASS, Blocks.LAPIS_ORE, Blocks.SANDSTONE,
+        Blocks.BRICKS, Blocks.TNT, Blocks.BOOKSHELF, Blocks.MOSSY_COBBLESTONE, Blocks.OBSIDIAN, Blocks.DIAMOND_ORE
+    };
+
+    private static ChunkSection section(int y, int kinds) {
+        ChunkSection section = new ChunkSection(y << 4, true);
+        for (int i = 0; i < 4096; ++i) {
+            int x = i & 15, z = (i >> 4) & 15, by = i >> 8;
+            section.setType(x, by, z, BLOCKS[(i * 7 + y) % kinds].getBlockData());
+            section.a(x, by, z, (i + y) & 15);
+            section.b(x, by, z, (i * 3) & 15);
+        }
+        return section;
+    }
+
+    private static NBTTagCompound write(ChunkSection section) {
+        NBTTagCompound nbttagcompound = new NBTTagCompound();
+        nbttagcompound.setByte("Y", (byte) (section.getYPosition() >> 4));
+        section.getBlocks().b(nbttagcompound, "Palette", "BlockStates");
+        nbttagcompound.setByteArray("BlockLight", section.getEmittedLightArray().asBytes());
+        nbttagcompound.setByteArray("SkyLight", section.getSkyLightArray().asBytes());
+        return nbttagcompound;
+    }
+
+    private static NBTTagCompound chunk(int dataVersion, NBTTagList sections) {
+        NBTTagCompound level = new NBTTagCompound();
+        level.setInt("xPos", 3);
+        level.setInt("zPos", -2);
+        level.setString("Status", "postprocessed");
+        level.set("Sections", sections);
+
+        NBTTagList entities = new NBTTagList();
+        NBTTagCompound entity = new NBTTagCompound();
+        entity.setString("id", "minecraft:pig");
+        entity.setFloat("Health", 10.0F);
+        entities.add(entity);
+        level.set("Entities", entities);
+        level.set("TileEntities", new NBTTagList());
+
+        NBTTagCompound root = new NBTTagCompound();
+        root.setInt("DataVersion", dataVersion);
+        root.set("Level", level);
+        return root;
+    }
+
+    private static NBTTagCompound read(NBTTagCompound root) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTCompressedStreamTools.writeNBT(root, new DataOutputStream(out));
+        return AkarinChunkStreamReader.read(new ByteArrayInputStream(out.toByteArray()), null, true);
+    }
+
+    private static void assertSection(ChunkSection expected, ChunkSection actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getYPosition(), actual.getYPosition());
+        for (int y = 0; y < 16; ++y) {
+            for (int z = 0; z < 16; ++z) {
+                for (int x = 0; x < 16; ++x) {
+                    IBlockData type = actual.getType(x, y, z);
+                    Assert.assertEquals(expected.getType(x, y, z), type);
+                    Assert.assertEquals(expected.c(x, y, z), actual.c(x, y, z));
+                    Assert.assertEquals(expected.d(x, y, z), actual.d(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSections() throws IOException {
+        ChunkSection small = section(2, 3);
+        ChunkSection large = section(5, BLOCKS.length);
+        NBTTagList sections = new NBTTagList();
+        sections.add(write(small));
+        sections.add(write(large));
+
+        // Y stored as an int takes the regular decoding
+        ChunkSection odd = section(7, 5);
+        NBTTagCompound oddSection = write(odd);
+        oddSection.setInt("Y", 7);
+        sections.add(oddSection);
+
+        NBTTagCompound root = chunk(1631, sections);
+        NBTTagCompound level = read(root).getCompound("Level");
+        ChunkSection[] decoded = AkarinChunkStreamReader.getSections(level);
+        Assert.assertNotNull(decoded);
+        assertSection(small, decoded[2]);
+        assertSection(large, decoded[5]);
+        assertSection(odd, decoded[7]);
+        Assert.assertNull(decoded[0]);
+
+        // read twice, the second read takes palette entries from the cache
+        assertSection(large, AkarinChunkStreamReader.getSections(read(root).getCompound("Level"))[5]);
+
+        NBTTagCompound expected = root.getCompound("Level");
+        Assert.assertEquals(expected.getString("Status"), level.getString("Status"));
+        Assert.assertEquals(expected.getInt("zPos"), level.getInt("zPos"));
+        Assert.assertEquals(expected.getList("Entities", 10), level.getList("Entities", 10));
+        Assert.assertEquals(10.0F, level.getList("Entities", 10).getCompound(0).getFloat("Health"), 0.0F);
+        Assert.assertTrue(level.getList("TileEntities", 10).isEmpty());
+    }
+
+    @Test
+    public void testOldDataVersion() throws IOException {
+        NBTTagList sections = new NBTTagList();
+        sections.add(write(section(1, 4)));
+        NBTTagCompound root = chunk(1519, sections);
+
+        NBTTagCompound read = read(root);
+        Assert.assertEquals(root, read);
+        Assert.assertNull(AkarinChunkStreamReader.getSections(read.getCompound("Level")));
+    }
+
+    @Test
+    public void testPreFlatteningSection() throws IOException {
+        // 1.12 layout, block ids and metadata instead of a palette
+        NBTTagCompound section = new NBTTagCompound();
+        section.setByte("Y", (byte) 3);
+        byte[] blocks = new byte[4096];
+        for (int i = 0; i < blocks.length; ++i) {
+            blocks[i] = (byte) (i % 4 + 1);
+        }
+        section.setByteArray("Blocks", blocks);
+        section.setByteArray("Data", new byte[2048]);
+        section.setByteArray("BlockLight", new byte[2048]);
+        section.setByteArray("SkyLight", new byte[2048]);
+        NBTTagList sections = new NBTTagList();
+        sections.add(section);
+        NBTTagCompound root = chunk(1343, sections);
+
+        NBTTagCompound read = read(root);
+        Assert.assertEquals(root, read);
+        Assert.assertNull(AkarinChunkStreamReader.getSections(read.getCompound("Level")));
+        Assert.assertArrayEquals(blocks, read.getCompound("Level").getList("Sections", 10).getCompound(0).getByteArray("Blocks"));
+
+        // no DataVersion at all, as written before 1.9
+        root.remove("DataVersion");
+        Assert.assertEquals(root, read(root));
+    }
+}
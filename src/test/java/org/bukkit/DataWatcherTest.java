@@ -0,0 +1,49 @@
+package org.bukkit;
+
+import java.util.List;
+import net.minecraft.server.DataWatcher;
+import net.minecraft.server.DataWatcherObject;
+import net.minecraft.server.DataWatcherRegistry;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataWatcherTest extends AbstractTestingBase {
+
+    @Test
+    public void testDirtyItemsInIdOrder() {
+        DataWatcher watcher = new DataWatcher(null);
+        DataWatcherObject<Integer> low = DataWatcherRegistry.b.a(3);
+        DataWatcherObject<Integer> high = DataWatcherRegistry.b.a(70);
+        DataWatcherObject<Integer> middle = DataWatcherRegistry.b.a(12);
+
+        watcher.register(low, 1);
+        watcher.register(high, 2);
+        watcher.register(middle, 3);
+        Assert.assertEquals(Integer.valueOf(2), watcher.get(high));
+        Assert.assertEquals(3, watcher.c().size());
+
+        watcher.e();
+        Assert.assertFalse(watcher.a());
+
+        watcher.markDirty(high);
+        watcher.markDirty(low);
+        List<DataWatcher.Item<?>> dirty = watcher.b();
+        Assert.assertEquals(2, dirty.size());
+        Assert.assertEquals(3, dirty.get(0).a().a());
+        Assert.assertEquals(70, dirty.get(1).a().a());
+
+        Assert.assertFalse(watcher.a());
+        watcher.markDirty(middle);
+        dirty = watcher.b();
+        Assert.assertEquals(1, dirty.size());
+        Assert.assertEquals(12, dirty.get(0).a().a());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateId() {
+        DataWatcher watcher = new DataWatcher(null);
+        watcher.register(DataWatcherRegistry.b.a(5), 1);
+        watcher.register(DataWatcherRegistry.b.a(5), 2);
+    }
+}
@@ -0,0 +1,59 @@
+package org.bukkit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import io.akarin.server.core.AkarinGlobalConfig;
+import net.minecraft.server.NBTCompressedStreamTools;
+import net.minecraft.server.NBTTagCompound;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NBTKeysTest extends AbstractTestingBase {
+
+    private static NBTTagCompound roundTrip(NBTTagCompound compound) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTCompressedStreamTools.writeNBT(compound, new DataOutputStream(out));
+        return NBTCompressedStreamTools.readNBT(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void testSharedKeys() throws IOException {
+        boolean enabled = AkarinGlobalConfig.sharedNBTKeys;
+        AkarinGlobalConfig.sharedNBTKeys = true;
+        try {
+            String longKey = "a key that is longer than the thirty two bytes that get cached";
+            NBTTagCompound compound = new NBTTagCompound();
+            compound.setInt("Name", 1);
+            compound.setInt("kéy", 2);
+            compound.setInt("nul\u0000", 3);
+            compound.setInt(longKey, 4);
+            compound.setInt("", 5);
+
+            NBTTagCompound first = roundTrip(compound);
+            NBTTagCompound second = roundTrip(compound);
+            Assert.assertEquals(compound, first);
+            Assert.assertEquals(compound, second);
+            Assert.assertEquals(4, second.getInt(longKey));
+
+            String firstName = null;
+            String secondName = null;
+            for (String key : first.getKeys()) {
+                if (key.equals("Name")) {
+                    firstName = key;
+                }
+            }
+            for (String key : second.getKeys()) {
+                if (key.equals("Name")) {
+                    secondName = key;
+                }
+            }
+            Assert.assertSame("Repeated key was not shared", firstName, secondName);
+        } finally {
+            AkarinGlobalConfig.sharedNBTKeys = enabled;
+        }
+    }
+}
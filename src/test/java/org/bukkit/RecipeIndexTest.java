@@ -0,0 +1,147 @@
+package org.bukkit;
+
+import io.akarin.server.core.AkarinGlobalConfig;
+import java.util.Collections;
+import net.minecraft.server.Blocks;
+import net.minecraft.server.Container;
+import net.minecraft.server.CraftingManager;
+import net.minecraft.server.EntityHuman;
+import net.minecraft.server.EnumResourcePackType;
+import net.minecraft.server.IMaterial;
+import net.minecraft.server.IRecipe;
+import net.minecraft.server.InventoryCrafting;
+import net.minecraft.server.ItemStack;
+import net.minecraft.server.Items;
+import net.minecraft.server.RecipeArmorDye;
+import net.minecraft.server.RecipeRepair;
+import net.minecraft.server.ResourceManager;
+import net.minecraft.server.ResourcePackVanilla;
+import net.minecraft.server.ShapedRecipes;
+import net.minecraft.server.ShapelessRecipes;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RecipeIndexTest extends AbstractTestingBase {
+
+    private static CraftingManager craftingManager;
+    private final boolean recipeIndex = AkarinGlobalConfig.recipeIndex;
+
+    @BeforeClass
+    public static void loadRecipes() {
+        craftingManager = new CraftingManager();
+        ResourceManager resourceManager = new ResourceManager(EnumResourcePackType.SERVER_DATA);
+        resourceManager.a(craftingManager);
+        resourceManager.a(Collections.singletonList(new ResourcePackVanilla("minecraft")));
+        Assert.assertFalse("No recipes loaded", craftingManager.recipes.isEmpty());
+    }
+
+    @After
+    public void restoreIndex() {
+        AkarinGlobalConfig.recipeIndex = recipeIndex;
+    }
+
+    private static InventoryCrafting grid() {
+        return new InventoryCrafting(new Container() {
+            public boolean canUse(EntityHuman entityhuman) {
+                return false;
+            }
+
+            @Override
+            public InventoryView getBukkitView() {
+                return null;
+            }
+        }, 3, 3);
+    }
+
+    private static ItemStack[] items(IMaterial... materials) {
+        ItemStack[] items = new ItemStack[9];
+        for (int slot = 0; slot < 9; ++slot) {
+            IMaterial material = slot < materials.length ? materials[slot] : null;
+            items[slot] = material != null ? new ItemStack(material) : ItemStack.a;
+        }
+        return items;
+    }
+
+    private static ItemStack damaged(IMaterial material, int damage) {
+        ItemStack itemstack = new ItemStack(material);
+        itemstack.setDamage(damage);
+        return itemstack;
+    }
+
+    private static void fill(InventoryCrafting inventory, ItemStack[] items) {
+        for (int slot = 0; slot < 9; ++slot) {
+            inventory.getContents().set(slot, items[slot]);
+        }
+    }
+
+    private static IRecipe lookup(InventoryCrafting inventory, boolean indexed) {
+        AkarinGlobalConfig.recipeIndex = indexed;
+        return craftingManager.b(inventory, null);
+    }
+
+    /**
+     * Looks the grid up with the linear scan and with the index, each in a new inventory
+     */
+    private static IRecipe assertSameRecipe(ItemStack[] items) {
+        InventoryCrafting scanned = grid();
+        fill(scanned, items);
+        IRecipe expected = lookup(scanned, false);
+
+        InventoryCrafting indexed = grid();
+        fill(indexed, items);
+        Assert.assertSame(expected, lookup(indexed, true));
+        return expected;
+    }
+
+    @Test
+    public void testShaped() {
+        Assert.assertTrue(assertSameRecipe(items(Blocks.OAK_PLANKS, null, null, Blocks.OAK_PLANKS)) instanceof ShapedRecipes);
+        Assert.assertTrue(assertSameRecipe(items(Items.IRON_INGOT, Items.IRON_INGOT, Items.IRON_INGOT, null, Items.STICK, null, null, Items.STICK)) instanceof ShapedRecipes);
+    }
+
+    @Test
+    public void testShapeless() {
+        Assert.assertTrue(assertSameRecipe(items(Items.FLINT, null, null, null, Items.IRON_INGOT)) instanceof ShapelessRecipes);
+        Assert.assertTrue(assertSameRecipe(items(null, null, null, null, Blocks.OAK_LOG)) instanceof ShapelessRecipes);
+    }
+
+    @Test
+    public void testDyeing() {
+        Assert.assertTrue(assertSameRecipe(items(Items.LEATHER_HELMET, Items.LAPIS_LAZULI)) instanceof RecipeArmorDye);
+    }
+
+    @Test
+    public void testRepair() {
+        ItemStack[] items = items();
+        items[0] = damaged(Items.IRON_PICKAXE, 100);
+        items[4] = damaged(Items.IRON_PICKAXE, 200);
+        Assert.assertTrue(assertSameRecipe(items) instanceof RecipeRepair);
+    }
+
+    @Test
+    public void testNoMatch() {
+        Assert.assertNull(assertSameRecipe(items(Items.DIAMOND, Items.STRING, Items.WHEAT)));
+        Assert.assertNull(assertSameRecipe(items()));
+    }
+
+    @Test
+    public void testGridChange() {
+        ItemStack[] sticks = items(Blocks.OAK_PLANKS, null, null, Blocks.OAK_PLANKS);
+        ItemStack[] pressurePlate = items(Blocks.OAK_PLANKS, Blocks.OAK_PLANKS); // same items, other shape
+        ItemStack[] dyed = items(Items.LEATHER_HELMET, Items.LAPIS_LAZULI);
+        ItemStack[] nothing = items(Items.DIAMOND, Items.STRING, Items.WHEAT);
+
+        InventoryCrafting inventory = grid();
+        for (ItemStack[] items : new ItemStack[][] {sticks, sticks, pressurePlate, sticks, dyed, dyed, nothing, sticks}) {
+            fill(inventory, items);
+            IRecipe expected = lookup(inventory, false);
+            Assert.assertSame(expected, lookup(inventory, true));
+            Assert.assertSame("Last match not checked against the grid", expected, lookup(inventory, true));
+        }
+        Assert.assertNotSame(assertSameRecipe(sticks), assertSameRecipe(pressurePlate));
+    }
+}
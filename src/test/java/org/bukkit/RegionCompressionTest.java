@@ -0,0 +1,74 @@
+package org.bukkit;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import net.minecraft.server.AkarinRegionCompression;
+import net.minecraft.server.RegionFile;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RegionCompressionTest extends AbstractTestingBase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] chunk(int index) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            builder.append("minecraft:stone;minecraft:dirt;Sections;BlockStates;").append(index * 31 + i);
+        }
+        return builder.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private static void write(RegionFile region, int index) throws IOException {
+        byte[] data = chunk(index);
+        try (DataOutputStream out = region.getWriteStream(index & 31, index >> 5)) {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    private static byte[] read(RegionFile region, int index) throws IOException {
+        try (DataInputStream in = region.getReadStream(index & 31, index >> 5)) {
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return data;
+        }
+    }
+
+    @Test
+    public void testDictionaryRoundTrip() throws IOException {
+        File world = folder.newFolder("world");
+        File regionFolder = new File(world, "region");
+        Assert.assertTrue(regionFolder.mkdirs());
+        File regionFile = new File(regionFolder, "r.0.0.mca");
+
+        RegionFile region = new RegionFile(regionFile, new AkarinRegionCompression(world, AkarinRegionCompression.Codec.DICTIONARY, -1));
+        for (int index = 0; index < 80; ++index) {
+            write(region, index);
+        }
+        Assert.assertTrue(new File(regionFolder, "chunks.dict").exists());
+        for (int index = 0; index < 80; ++index) {
+            Assert.assertArrayEquals(chunk(index), read(region, index));
+        }
+        region.close();
+
+        // a replaced dictionary must not read as a missing chunk
+        Files.write(new File(regionFolder, "chunks.dict").toPath(), new byte[] {1, 2, 3});
+        RegionFile reopened = new RegionFile(regionFile, new AkarinRegionCompression(world, AkarinRegionCompression.Codec.DICTIONARY, -1));
+        Assert.assertArrayEquals(chunk(0), read(reopened, 0)); // written before the dictionary existed
+        try {
+            read(reopened, 79);
+            Assert.fail("Chunk decompressed with the wrong dictionary");
+        } catch (AkarinRegionCompression.DictionaryException expected) {
+        } finally {
+            reopened.close();
+        }
+    }
+}
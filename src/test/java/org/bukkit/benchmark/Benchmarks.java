@@ -0,0 +1,48 @@
+package org.bukkit.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Minimal timing and allocation harness for the benchmarks in this package.
+ * <p>
+ * These are plain main classes, surefire does not pick them up. Run them against the test
+ * classpath, for example {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.bukkit.benchmark.ChunkDecodeBenchmark -Dexec.args="world/region"}.
+ */
+public final class Benchmarks {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {}
+
+    public interface Body {
+        /**
+         * Runs one iteration and returns the number of operations it did
+         */
+        long run() throws Exception;
+    }
+
+    /**
+     * Runs the body for the warmup iterations, then measures the given iterations on the
+     * calling thread and prints time and allocation per operation
+     */
+    public static void measure(String name, int warmup, int iterations, Body body) throws Exception {
+        for (int i = 0; i < warmup; ++i) {
+            body.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long operations = 0;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            operations += body.run();
+        }
+        long nanos = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+
+        operations = Math.max(1, operations);
+        System.out.println(String.format(Locale.ROOT, "%-40s %12.1f ns/op %12.1f B/op (%d ops)", name, nanos / (double) operations, allocated / (double) operations, operations));
+    }
+}
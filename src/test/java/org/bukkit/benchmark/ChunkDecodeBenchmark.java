@@ -0,0 +1,119 @@
+package org.bukkit.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.AkarinChunkStreamReader;
+import net.minecraft.server.ChunkSection;
+import net.minecraft.server.NBTCompressedStreamTools;
+import net.minecraft.server.NBTTagCompound;
+import net.minecraft.server.NBTTagList;
+import net.minecraft.server.NibbleArray;
+import net.minecraft.server.RegionFile;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares time and allocation of decoding chunks into sections with the regular NBT reader and
+ * with {@link AkarinChunkStreamReader}.
+ * <p>
+ * Arguments: a region folder of a 1.13.2 world and optionally the number of chunks to load,
+ * 5000 by default. Chunks are decompressed up front so only decoding is measured.
+ */
+public final class ChunkDecodeBenchmark extends AbstractTestingBase {
+
+    public static void main(String[] args) throws Exception {
+        File folder = new File(args[0]);
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        List<byte[]> chunks = load(folder, limit);
+        System.out.println("Loaded " + chunks.size() + " chunks from " + folder);
+
+        Benchmarks.measure("chunk decode, nbt tree", 2, 5, () -> {
+            for (byte[] chunk : chunks) {
+                NBTTagCompound level = NBTCompressedStreamTools.readNBT(new DataInputStream(new ByteArrayInputStream(chunk))).getCompound("Level");
+                sections(level.getList("Sections", 10));
+                level.getList("Entities", 10).size();
+                level.getList("TileEntities", 10).size();
+            }
+            return chunks.size();
+        });
+
+        Benchmarks.measure("chunk decode, stream reader", 2, 5, () -> {
+            for (byte[] chunk : chunks) {
+                NBTTagCompound level = AkarinChunkStreamReader.read(new ByteArrayInputStream(chunk), null, true).getCompound("Level");
+                AkarinChunkStreamReader.getSections(level);
+            }
+            return chunks.size();
+        });
+
+        Benchmarks.measure("chunk decode, stream reader + entities", 2, 5, () -> {
+            for (byte[] chunk : chunks) {
+                NBTTagCompound level = AkarinChunkStreamReader.read(new ByteArrayInputStream(chunk), null, true).getCompound("Level");
+                AkarinChunkStreamReader.getSections(level);
+                level.getList("Entities", 10).size();
+                level.getList("TileEntities", 10).size();
+            }
+            return chunks.size();
+        });
+    }
+
+    /**
+     * Same as ChunkRegionLoader does for sections read as NBT
+     */
+    private static ChunkSection[] sections(NBTTagList nbttaglist) {
+        ChunkSection[] sections = new ChunkSection[16];
+        for (int i = 0; i < nbttaglist.size(); ++i) {
+            NBTTagCompound nbttagcompound = nbttaglist.getCompound(i);
+            byte y = nbttagcompound.getByte("Y");
+            ChunkSection section = new ChunkSection(y << 4, true, null, null, false);
+
+            section.getBlocks().a(nbttagcompound, "Palette", "BlockStates");
+            section.a(new NibbleArray(nbttagcompound.getByteArray("BlockLight")));
+            section.b(new NibbleArray(nbttagcompound.getByteArray("SkyLight")));
+            section.recalcBlockCounts();
+            sections[y] = section;
+        }
+        return sections;
+    }
+
+    /**
+     * Decompressed chunk NBT of up to limit chunks of the region files in the folder
+     */
+    static List<byte[]> load(File folder, int limit) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".mca"));
+        if (files == null) {
+            throw new IOException("Not a region folder: " + folder);
+        }
+
+        byte[] buffer = new byte[8192];
+        for (File file : files) {
+            RegionFile region = new RegionFile(file);
+            try {
+                for (int index = 0; index < 1024 && chunks.size() < limit; ++index) {
+                    DataInputStream in = region.getReadStream(index & 31, index >> 5);
+                    if (in == null) {
+                        continue;
+                    }
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    try (DataInputStream chunk = in) {
+                        int read;
+                        while ((read = chunk.read(buffer)) >= 0) {
+                            out.write(buffer, 0, read);
+                        }
+                    }
+                    chunks.add(out.toByteArray());
+                }
+            } finally {
+                region.close();
+            }
+            if (chunks.size() >= limit) {
+                break;
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,83 @@
+package org.bukkit.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+import net.minecraft.server.ChunkSection;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares the light accessors of {@link ChunkSection} called by several threads at once, as
+ * they are now and locking the section around every call like the synchronized methods did.
+ * <p>
+ * Every thread walks the whole section reading sky and block light and writes both on every
+ * eighth block, like the lighting engine rechecking neighbours while chunks are sent. ns/op
+ * is wall time per accessor call over all threads, so lower is better when more threads share
+ * the section.
+ */
+public final class ChunkSectionLightBenchmark extends AbstractTestingBase {
+
+    private static final int PASSES = 64;
+    private static final AtomicLong sink = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        ChunkSection section = new ChunkSection(0, true);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        for (int threads : processors > 4 ? new int[] {1, 2, 4, processors} : new int[] {1, 2, 4}) {
+            Benchmarks.measure("synchronized, " + threads + " threads", 2, 5, () -> run(threads, () -> {
+                long sum = 0;
+                for (int pass = 0; pass < PASSES; ++pass) {
+                    for (int i = 0; i < 4096; ++i) {
+                        int x = i & 15, y = i >> 8, z = (i >> 4) & 15;
+                        synchronized (section) {
+                            sum += section.c(x, y, z);
+                        }
+                        synchronized (section) {
+                            sum += section.d(x, y, z);
+                        }
+                        if ((i & 7) == 0) {
+                            synchronized (section) {
+                                section.a(x, y, z, (pass + i) & 15);
+                            }
+                            synchronized (section) {
+                                section.b(x, y, z, (pass - i) & 15);
+                            }
+                        }
+                    }
+                }
+                sink.addAndGet(sum);
+            }));
+
+            Benchmarks.measure("lock free reads, " + threads + " threads", 2, 5, () -> run(threads, () -> {
+                long sum = 0;
+                for (int pass = 0; pass < PASSES; ++pass) {
+                    for (int i = 0; i < 4096; ++i) {
+                        int x = i & 15, y = i >> 8, z = (i >> 4) & 15;
+                        sum += section.c(x, y, z);
+                        sum += section.d(x, y, z);
+                        if ((i & 7) == 0) {
+                            section.a(x, y, z, (pass + i) & 15);
+                            section.b(x, y, z, (pass - i) & 15);
+                        }
+                    }
+                }
+                sink.addAndGet(sum);
+            }));
+        }
+        System.out.println("(sink " + sink.get() + ")");
+    }
+
+    /**
+     * Runs the body on the given number of threads and returns the accessor calls they made
+     */
+    private static long run(int threads, Runnable body) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread(body, "Light accessor " + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return threads * (long) PASSES * (4096 * 2 + 4096 / 8 * 2);
+    }
+}
@@ -0,0 +1,72 @@
+package org.bukkit.benchmark;
+
+import com.destroystokyo.paper.PaperWorldEntityList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.server.Entity;
+import net.minecraft.server.EntityItem;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares dropping dead entities during the entity tick by index, shifting the list for
+ * every death, with tombstoning them in {@link PaperWorldEntityList} and compacting once.
+ * <p>
+ * The loop is the one of World#tickEntities without ticking. Removal by index runs on a plain
+ * list, the guard of PaperWorldEntityList#remove(int) needs a WorldServer and costs the same
+ * for both. Every iteration refills the list first, which both sides pay alike, and ns/op is
+ * per removed entity. Items are used because they are not counted for mob spawning.
+ */
+public final class EntityRemovalBenchmark extends AbstractTestingBase {
+
+    private static final int ENTITIES = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        Entity[] entities = new Entity[ENTITIES];
+        for (int i = 0; i < ENTITIES; ++i) {
+            entities[i] = new EntityItem(null);
+        }
+        List<Entity> all = Arrays.asList(entities);
+
+        for (int killed : new int[] {100, 1_000, 10_000}) {
+            int stride = ENTITIES / killed;
+            for (int i = 0; i < ENTITIES; ++i) {
+                entities[i].dead = i % stride == 0;
+            }
+
+            List<Entity> list = new ArrayList<>(ENTITIES);
+            Benchmarks.measure("remove by index, " + killed + " dead", 5, 10, () -> {
+                list.clear();
+                for (Entity entity : entities) {
+                    entity.shouldBeRemoved = false;
+                }
+                list.addAll(all);
+                int removed = 0;
+                for (int tickPosition = 0; tickPosition < list.size(); ++tickPosition) {
+                    Entity entity = list.get(tickPosition);
+                    if (entity.dead) {
+                        list.remove(tickPosition--);
+                        ++removed;
+                    }
+                }
+                return removed;
+            });
+
+            PaperWorldEntityList entityList = new PaperWorldEntityList(null);
+            Benchmarks.measure("tombstone and compact, " + killed + " dead", 5, 10, () -> {
+                entityList.clear();
+                for (Entity entity : entities) {
+                    entity.shouldBeRemoved = false;
+                }
+                entityList.addAll(all);
+                for (int tickPosition = 0; tickPosition < entityList.size(); ++tickPosition) {
+                    Entity entity = entityList.get(tickPosition);
+                    if (entity.dead) {
+                        entityList.tombstone(tickPosition);
+                    }
+                }
+                return entityList.compact();
+            });
+        }
+    }
+}
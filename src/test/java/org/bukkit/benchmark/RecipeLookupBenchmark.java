@@ -0,0 +1,97 @@
+package org.bukkit.benchmark;
+
+import io.akarin.server.core.AkarinGlobalConfig;
+import java.util.Collections;
+import net.minecraft.server.Blocks;
+import net.minecraft.server.Container;
+import net.minecraft.server.CraftingManager;
+import net.minecraft.server.EntityHuman;
+import net.minecraft.server.EnumResourcePackType;
+import net.minecraft.server.IMaterial;
+import net.minecraft.server.InventoryCrafting;
+import net.minecraft.server.ItemStack;
+import net.minecraft.server.Items;
+import net.minecraft.server.ResourceManager;
+import net.minecraft.server.ResourcePackVanilla;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares crafting lookups over the vanilla recipes with the linear scan of the recipe map
+ * and with the recipe index.
+ * <p>
+ * The grids are common crafts plus one that matches nothing, which the linear scan has to
+ * test against every recipe. "changing grid" puts another grid in the same inventory before
+ * every lookup, so the last match of the inventory never applies, "same grid" looks up each
+ * grid in an inventory of its own like a player keeping the grid filled.
+ */
+public final class RecipeLookupBenchmark extends AbstractTestingBase {
+
+    private static final IMaterial[][] GRIDS = {
+        {Blocks.OAK_LOG},
+        {Blocks.OAK_PLANKS, null, null, Blocks.OAK_PLANKS},
+        {Blocks.OAK_PLANKS, Blocks.OAK_PLANKS, null, Blocks.OAK_PLANKS, Blocks.OAK_PLANKS},
+        {Items.COAL, null, null, Items.STICK},
+        {Blocks.COBBLESTONE, Blocks.COBBLESTONE, Blocks.COBBLESTONE, Blocks.COBBLESTONE, null, Blocks.COBBLESTONE, Blocks.COBBLESTONE, Blocks.COBBLESTONE, Blocks.COBBLESTONE},
+        {Items.IRON_INGOT, Items.IRON_INGOT, Items.IRON_INGOT, null, Items.STICK, null, null, Items.STICK},
+        {Items.DIAMOND, Items.STRING, Items.WHEAT} // no recipe
+    };
+    private static final int LOOKUPS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        CraftingManager craftingManager = new CraftingManager();
+        ResourceManager resourceManager = new ResourceManager(EnumResourcePackType.SERVER_DATA);
+        resourceManager.a(craftingManager);
+        resourceManager.a(Collections.singletonList(new ResourcePackVanilla("minecraft")));
+        System.out.println("Loaded " + craftingManager.recipes.size() + " recipes");
+
+        InventoryCrafting[] filled = new InventoryCrafting[GRIDS.length];
+        ItemStack[][] contents = new ItemStack[GRIDS.length][];
+        for (int i = 0; i < GRIDS.length; ++i) {
+            contents[i] = new ItemStack[9];
+            filled[i] = grid();
+            for (int slot = 0; slot < 9; ++slot) {
+                IMaterial material = slot < GRIDS[i].length ? GRIDS[i][slot] : null;
+                contents[i][slot] = material != null ? new ItemStack(material) : ItemStack.a;
+                filled[i].getContents().set(slot, contents[i][slot]);
+            }
+        }
+        InventoryCrafting changing = grid();
+
+        for (boolean indexed : new boolean[] {false, true}) {
+            AkarinGlobalConfig.recipeIndex = indexed;
+            String mode = indexed ? "recipe index" : "linear scan";
+
+            Benchmarks.measure(mode + ", changing grid", 2, 5, () -> {
+                for (int n = 0; n < LOOKUPS; ++n) {
+                    ItemStack[] grid = contents[n % contents.length];
+                    for (int slot = 0; slot < 9; ++slot) {
+                        changing.getContents().set(slot, grid[slot]);
+                    }
+                    craftingManager.b(changing, null);
+                }
+                return LOOKUPS;
+            });
+
+            Benchmarks.measure(mode + ", same grid", 2, 5, () -> {
+                for (int n = 0; n < LOOKUPS; ++n) {
+                    craftingManager.b(filled[n % filled.length], null);
+                }
+                return LOOKUPS;
+            });
+        }
+    }
+
+    private static InventoryCrafting grid() {
+        return new InventoryCrafting(new Container() {
+            public boolean canUse(EntityHuman entityhuman) {
+                return false;
+            }
+
+            @Override
+            public InventoryView getBukkitView() {
+                return null;
+            }
+        }, 3, 3);
+    }
+}
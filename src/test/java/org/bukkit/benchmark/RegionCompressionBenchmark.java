@@ -0,0 +1,113 @@
+package org.bukkit.benchmark;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import net.minecraft.server.AkarinRegionCompression;
+import net.minecraft.server.RegionFile;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares saving and loading chunks through {@link RegionFile} with each
+ * {@link AkarinRegionCompression.Codec}, and the compressed size of the chunks.
+ * <p>
+ * Arguments: a region folder of a 1.13.2 world and optionally the number of chunks to load,
+ * 5000 by default. The chunks are decompressed up front and written to region files in a
+ * temporary folder, one world per codec. The dictionary is trained from the first chunks
+ * saved during warmup, so the measured saves of DICTIONARY all use it.
+ */
+public final class RegionCompressionBenchmark extends AbstractTestingBase {
+
+    public static void main(String[] args) throws Exception {
+        File folder = new File(args[0]);
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        List<byte[]> chunks = ChunkDecodeBenchmark.load(folder, limit);
+        long raw = 0;
+        for (byte[] chunk : chunks) {
+            raw += chunk.length;
+        }
+        System.out.println("Loaded " + chunks.size() + " chunks, " + raw + " bytes of NBT from " + folder);
+
+        File temp = Files.createTempDirectory("region-compression").toFile();
+        for (AkarinRegionCompression.Codec codec : AkarinRegionCompression.Codec.values()) {
+            File world = new File(temp, codec.name().toLowerCase(java.util.Locale.ROOT));
+            File regionFolder = new File(world, "region");
+            if (!regionFolder.mkdirs()) {
+                throw new IOException("Could not create " + regionFolder);
+            }
+            AkarinRegionCompression compression = new AkarinRegionCompression(world, codec, -1);
+            RegionFile[] regions = new RegionFile[(chunks.size() + 1023) / 1024];
+            for (int i = 0; i < regions.length; ++i) {
+                regions[i] = new RegionFile(new File(regionFolder, "r." + i + ".0.mca"), compression);
+            }
+
+            try {
+                Benchmarks.measure("save, " + codec, 2, 5, () -> {
+                    for (int index = 0; index < chunks.size(); ++index) {
+                        byte[] chunk = chunks.get(index);
+                        try (DataOutputStream out = regions[index >> 10].getWriteStream(index & 31, (index >> 5) & 31)) {
+                            out.write(chunk);
+                        }
+                    }
+                    return chunks.size();
+                });
+
+                byte[] buffer = new byte[8192];
+                Benchmarks.measure("load, " + codec, 2, 5, () -> {
+                    for (int index = 0; index < chunks.size(); ++index) {
+                        try (DataInputStream in = regions[index >> 10].getReadStream(index & 31, (index >> 5) & 31)) {
+                            while (in.read(buffer) >= 0) {
+                            }
+                        }
+                    }
+                    return chunks.size();
+                });
+            } finally {
+                for (RegionFile region : regions) {
+                    region.close();
+                }
+            }
+
+            long compressed = 0;
+            for (int i = 0; i < regions.length; ++i) {
+                compressed += compressedBytes(new File(regionFolder, "r." + i + ".0.mca"));
+            }
+            System.out.println(String.format(java.util.Locale.ROOT, "%-40s %12d bytes %11.1f B/chunk %6.1f%%", "size, " + codec, compressed, compressed / (double) chunks.size(), compressed * 100.0 / raw));
+        }
+        delete(temp);
+    }
+
+    /**
+     * Sums the lengths stored in front of each chunk of the region, less the codec byte
+     */
+    private static long compressedBytes(File file) throws IOException {
+        long total = 0;
+        try (RandomAccessFile region = new RandomAccessFile(file, "r")) {
+            int[] offsets = new int[1024];
+            for (int index = 0; index < 1024; ++index) {
+                offsets[index] = region.readInt();
+            }
+            for (int offset : offsets) {
+                if (offset != 0) {
+                    region.seek((long) (offset >> 8) * 4096L);
+                    total += region.readInt() - 1;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,121 @@
+package org.bukkit.benchmark;
+
+import io.akarin.server.core.AkarinGlobalConfig;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import net.minecraft.server.RegionFileCache;
+import org.bukkit.support.AbstractTestingBase;
+
+/**
+ * Compares loading chunks through {@link RegionFileCache#read} from several threads at once
+ * with and without core.region-file.concurrent-io.
+ * <p>
+ * Arguments: a region folder and optionally the number of chunks to load, 5000 by default.
+ * The region files are copied to a temporary world first, opening a region may rewrite its
+ * header. Threads take every n-th chunk, so they read the same regions at the same time like
+ * chunk loads around a player. The cache is closed before each mode, regions pick the mode
+ * when they are opened. ns/op is wall time per chunk, B/op only counts the calling thread.
+ */
+public final class RegionReadBenchmark extends AbstractTestingBase {
+
+    public static void main(String[] args) throws Exception {
+        File folder = new File(args[0]);
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        File world = Files.createTempDirectory("region-read").toFile();
+        List<int[]> chunks = copy(folder, new File(world, "region"), limit);
+        System.out.println("Copied " + chunks.size() + " chunks from " + folder);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        try {
+            for (boolean concurrent : new boolean[] {false, true}) {
+                RegionFileCache.a();
+                AkarinGlobalConfig.concurrentRegionIO = concurrent;
+                String mode = concurrent ? "concurrent-io" : "region lock";
+
+                for (int threads : processors > 4 ? new int[] {1, 2, 4, processors} : new int[] {1, 2, 4}) {
+                    Benchmarks.measure(mode + ", " + threads + " threads", 2, 5, () -> read(world, chunks, threads));
+                }
+            }
+        } finally {
+            RegionFileCache.a();
+            delete(world);
+        }
+    }
+
+    /**
+     * Reads every chunk once over the given number of threads
+     */
+    private static long read(File world, List<int[]> chunks, int threads) throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[threads];
+        for (int t = 0; t < threads; ++t) {
+            final int first = t;
+            readers[t] = new Thread(() -> {
+                try {
+                    for (int index = first; index < chunks.size(); index += threads) {
+                        int[] chunk = chunks.get(index);
+                        if (RegionFileCache.read(world, chunk[0], chunk[1]) == null) {
+                            throw new IOException("Missing chunk " + chunk[0] + ", " + chunk[1]);
+                        }
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "Region reader " + t);
+            readers[t].start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return chunks.size();
+    }
+
+    /**
+     * Copies the region files and returns the coordinates of up to limit chunks they hold
+     */
+    private static List<int[]> copy(File folder, File regionFolder, int limit) throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.matches("r\\.-?\\d+\\.-?\\d+\\.mca"));
+        if (files == null || !regionFolder.mkdirs()) {
+            throw new IOException("Not a region folder: " + folder);
+        }
+
+        List<int[]> chunks = new ArrayList<>();
+        for (File file : files) {
+            if (chunks.size() >= limit) {
+                break;
+            }
+            Files.copy(file.toPath(), new File(regionFolder, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            String[] name = file.getName().split("\\.");
+            int regionX = Integer.parseInt(name[1]);
+            int regionZ = Integer.parseInt(name[2]);
+            try (RandomAccessFile region = new RandomAccessFile(file, "r")) {
+                for (int index = 0; index < 1024 && chunks.size() < limit && region.length() >= 4096; ++index) {
+                    if (region.readInt() != 0) {
+                        chunks.add(new int[] {regionX << 5 | index & 31, regionZ << 5 | index >> 5});
+                    }
+                }
+            }
+        }
+        return chunks;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}